@@ -0,0 +1,94 @@
+package com.duoc.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.duoc.items.MezclaInformes;
+
+/**
+ * Costo de agregar un día al acumulado de un período de 30 días con MezclaInformes.
+ * modo=incremental mezcla el acumulado de los 29 días anteriores con el informe nuevo; modo=completo vuelve a
+ * mezclar los 30 informes diarios. Cada operación produce el acumulado completo; el resultado es ms por día agregado.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=error")
+public class AcumuladoBenchmark {
+
+    private static final int DIAS = 30;
+
+    @Param({ "1000", "100000" })
+    private int productos;
+
+    @Param({ "incremental", "completo" })
+    private String modo;
+
+    private Path directorio;
+    private final List<Path> diarios = new ArrayList<>();
+    private Path anterior; // Acumulado de los 29 primeros días
+    private Path salida;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        directorio = Files.createTempDirectory("benchmark-acumulado-");
+        List<String> nombres = new ArrayList<>(productos);
+        for (int i = 0; i < productos; i++) {
+            nombres.add("Producto " + i);
+        }
+        nombres.sort(null); // Los informes diarios vienen ordenados por producto
+        for (int dia = 0; dia < DIAS; dia++) {
+            Path diario = directorio.resolve("dia-" + dia + ".csv");
+            try (BufferedWriter writer = Files.newBufferedWriter(diario, StandardCharsets.UTF_8)) {
+                writer.write(MezclaInformes.ENCABEZADO);
+                writer.newLine();
+                for (int i = 0; i < productos; i++) {
+                    writer.write(nombres.get(i) + "," + (dia + i % 100) + "," + (dia * 1000.5 + i));
+                    writer.newLine();
+                }
+            }
+            diarios.add(diario);
+        }
+        anterior = directorio.resolve("anterior.csv");
+        MezclaInformes.mezclar(diarios.subList(0, DIAS - 1), anterior, List.of());
+        salida = directorio.resolve("acumulado.csv");
+    }
+
+    @TearDown(Level.Trial)
+    public void borrar() throws IOException {
+        for (Path diario : diarios) {
+            Files.deleteIfExists(diario);
+        }
+        Files.deleteIfExists(anterior);
+        Files.deleteIfExists(salida);
+        Files.deleteIfExists(directorio);
+    }
+
+    @Benchmark
+    public MezclaInformes.Resultado agregarDia() throws IOException {
+        List<Path> entradas = "incremental".equals(modo) ? List.of(anterior, diarios.get(DIAS - 1)) : diarios;
+        return MezclaInformes.mezclar(entradas, salida, List.of());
+    }
+}
@@ -0,0 +1,119 @@
+package com.duoc.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.FileSystemResource;
+
+import com.duoc.business.Venta;
+import com.duoc.business.VentaRechazada;
+import com.duoc.items.Compresion;
+import com.duoc.items.ErrorItemWriter;
+import com.duoc.items.IndiceBloques;
+import com.duoc.items.VentasItemReader;
+
+/**
+ * Compara la lectura del archivo de ventas y la escritura del archivo de errores sin comprimir, con gzip y con zstd.
+ * La entrada comprimida tiene índice de bloques, igual que la que se reparte entre particiones.
+ * ops/s son filas por segundo y gc.alloc.rate.norm son bytes por fila; al terminar se informa el tamaño de la entrada.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=error")
+public class CompresionBenchmark {
+
+    private static final int CHUNK = 1000;
+
+    @Param({ "1000000" })
+    private long filas;
+
+    @Param({ "ninguna", "gzip", "zstd" })
+    private String compresion;
+
+    private Path entrada;
+    private Path errores;
+    private VentasItemReader reader;
+    private ErrorItemWriter writer;
+    private Chunk<VentaRechazada> rechazos;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        Compresion formato = Compresion.valueOf(compresion.toUpperCase(Locale.ROOT));
+        Path plano = VentasCsvGenerator.obtener(filas, 0.0);
+        entrada = plano.resolveSibling(plano.getFileName() + formato.extension());
+        if (formato != Compresion.NINGUNA && !Files.exists(entrada)) {
+            IndiceBloques.comprimir(plano, entrada, formato, IndiceBloques.BYTES_POR_BLOQUE);
+        }
+        errores = Files.createTempFile("benchmark-errores-", ".csv" + formato.extension());
+        List<VentaRechazada> lista = new ArrayList<>(CHUNK);
+        for (int i = 0; i < CHUNK; i++) {
+            lista.add(new VentaRechazada(i * 30L, "Precio debe ser mayor que 0", i + ",Producto " + i + ",3,"));
+        }
+        rechazos = new Chunk<>(lista);
+        abrir();
+    }
+
+    @Setup(Level.Iteration)
+    public void abrirErrores() {
+        writer = new ErrorItemWriter(new FileSystemResource(errores));
+        writer.open(new ExecutionContext());
+    }
+
+    @TearDown(Level.Iteration)
+    public void cerrarErrores() {
+        writer.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() throws IOException {
+        reader.close();
+        System.out.printf("%n%s: %d bytes%n", entrada.getFileName(), Files.size(entrada));
+        Files.deleteIfExists(errores);
+    }
+
+    @Benchmark
+    public Venta leerFila() throws Exception {
+        Venta venta = reader.read();
+        if (venta == null) {
+            reader.close(); // Fin del archivo: se vuelve a leer desde el inicio
+            abrir();
+            venta = reader.read();
+        }
+        return venta;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNK)
+    public void escribirErrores() throws Exception {
+        writer.write(rechazos);
+    }
+
+    private void abrir() {
+        reader = new VentasItemReader(new FileSystemResource(entrada), null, null);
+        reader.open(new ExecutionContext());
+    }
+}
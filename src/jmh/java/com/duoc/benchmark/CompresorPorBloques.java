@@ -0,0 +1,33 @@
+package com.duoc.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.duoc.items.Compresion;
+import com.duoc.items.IndiceBloques;
+
+/**
+ * Comprime un archivo de ventas por bloques con su índice ({@link IndiceBloques#comprimir}), para procesarlo en
+ * varias particiones. Queda en las herramientas de los benchmarks, fuera del jar de la aplicación, junto a
+ * VentasCsvGenerator.
+ * Uso desde la línea de comandos: {@code CompresorPorBloques <origen> <destino.gz|destino.zst> [bytesPorBloque]}.
+ */
+public final class CompresorPorBloques {
+
+    private CompresorPorBloques() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: CompresorPorBloques <origen> <destino.gz|destino.zst> [bytesPorBloque]");
+            System.exit(1);
+        }
+        Path destino = Paths.get(args[1]);
+        int bytesPorBloque = args.length > 2 ? Integer.parseInt(args[2]) : IndiceBloques.BYTES_POR_BLOQUE;
+        IndiceBloques indice = IndiceBloques.comprimir(Paths.get(args[0]), destino,
+                Compresion.deExtension(destino.toString()), bytesPorBloque);
+        System.out.println(destino + ": " + indice.bloques() + " bloques, " + indice.largo() + " bytes descomprimidos, "
+                + Files.size(destino) + " bytes comprimidos");
+    }
+}
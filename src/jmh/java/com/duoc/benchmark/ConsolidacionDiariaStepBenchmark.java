@@ -0,0 +1,120 @@
+package com.duoc.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.task.SyncTaskExecutor;
+
+/**
+ * Ejecuta el Job completo (consolidacionDiariaStep con sus particiones) con distintos tamaños de chunk y de pool.
+ * Cada operación procesa el archivo entero. El contador auxiliar "filas" informa las filas por segundo;
+ * los bytes asignados por fila son gc.alloc.rate.norm dividido por la cantidad de filas del archivo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=error")
+public class ConsolidacionDiariaStepBenchmark {
+
+    @Param({ "1000000" })
+    private long filas;
+
+    @Param({ "0.001" })
+    private double invalidas;
+
+    @Param({ "100", "1000", "adaptativo" })
+    private String chunk;
+
+    @Param({ "1", "5", "10" })
+    private int hilos;
+
+    @Param({ "flatfile" })
+    private String lector;
+
+    private AnnotationConfigApplicationContext context;
+    private TaskExecutorJobLauncher launcher;
+    private Job job;
+    private Path archivo;
+    private Path salida;
+    private Path errores;
+
+    /**
+     * Filas procesadas, informadas por JMH como filas por segundo.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Contador {
+        public long filas;
+    }
+
+    @Setup(Level.Trial)
+    public void preparar() throws Exception {
+        archivo = VentasCsvGenerator.obtener(filas, invalidas);
+        salida = Files.createTempFile("benchmark-output-", ".csv");
+        errores = Files.createTempFile("benchmark-errores-", ".csv");
+
+        // La configuración se lee con @Value, por lo que basta con las propiedades del sistema antes de crear el contexto
+        System.setProperty("ventas.lector", lector);
+        System.setProperty("ventas.particiones", String.valueOf(hilos));
+        System.setProperty("ventas.executor.hilos", String.valueOf(hilos));
+        System.setProperty("ventas.executor.hilos-maximo", String.valueOf(hilos));
+        System.setProperty("ventas.omitidos.maximo", String.valueOf(Long.MAX_VALUE));
+        if (!"adaptativo".equals(chunk)) {
+            System.setProperty("ventas.chunk.inicial", chunk); // Tamaño fijo: mínimo = máximo = inicial
+            System.setProperty("ventas.chunk.minimo", chunk);
+            System.setProperty("ventas.chunk.maximo", chunk);
+        }
+        context = new AnnotationConfigApplicationContext("com.duoc.advanced");
+        job = context.getBean("ventasJob", Job.class);
+        launcher = new TaskExecutorJobLauncher();
+        launcher.setJobRepository(context.getBean(JobRepository.class));
+        launcher.setTaskExecutor(new SyncTaskExecutor());
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() throws IOException {
+        context.close();
+        Files.deleteIfExists(salida);
+        Files.deleteIfExists(errores);
+    }
+
+    @Benchmark
+    public JobExecution ejecutarJob(Contador contador) throws Exception {
+        JobExecution ejecucion = launcher.run(job, new JobParametersBuilder()
+                .addString("archivo", archivo.toUri().toString())
+                .addString("salida", salida.toString(), false)
+                .addString("errores", errores.toString(), false)
+                .addLong("time", System.nanoTime()) // Una instancia nueva del Job en cada operación
+                .toJobParameters());
+        if (ejecucion.getStatus() != BatchStatus.COMPLETED) {
+            throw new IllegalStateException("El Job terminó con estado " + ejecucion.getStatus());
+        }
+        contador.filas += filas;
+        return ejecucion;
+    }
+}
@@ -0,0 +1,86 @@
+package com.duoc.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.duoc.items.IndiceDeduplicacion;
+
+/**
+ * Mide la consulta del índice de deduplicación con distintos tamaños, para un id ya registrado (duplicado)
+ * y uno nuevo. ops/s son consultas por segundo; el tamaño del archivo mapeado se informa al terminar.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=error")
+public class DeduplicacionBenchmark {
+
+    private static final int LOTE = 10_000;
+
+    @Param({ "1000000", "10000000" })
+    private int ids;
+
+    private Path directorio;
+    private IndiceDeduplicacion indice;
+    private long[] registrados;
+    private final SplittableRandom aleatorio = new SplittableRandom(42);
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        directorio = Files.createTempDirectory("benchmark-dedup-");
+        indice = new IndiceDeduplicacion(directorio.resolve("ids.vdup").toString(), 30, 1 << 20);
+        registrados = new long[ids];
+        long[] lote = new long[LOTE];
+        for (int i = 0; i < ids; i += LOTE) {
+            int cantidad = Math.min(LOTE, ids - i);
+            for (int j = 0; j < cantidad; j++) {
+                lote[j] = registrados[i + j] = aleatorio.nextLong() & Long.MAX_VALUE; // Los id nuevos son negativos
+            }
+            indice.confirmar(lote, cantidad);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void borrar() throws IOException {
+        indice.destroy();
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            archivos.sorted(Comparator.reverseOrder()).forEach(archivo -> {
+                if (archivo.getFileName().toString().endsWith(".vdup")) {
+                    System.out.printf("%n%d id: %d bytes%n", ids, archivo.toFile().length());
+                }
+                archivo.toFile().delete();
+            });
+        }
+    }
+
+    @Benchmark
+    public boolean duplicado() {
+        return indice.contiene(registrados[aleatorio.nextInt(ids)]);
+    }
+
+    @Benchmark
+    public boolean nuevo() {
+        return indice.contiene(-1 - aleatorio.nextLong(Long.MAX_VALUE));
+    }
+}
@@ -0,0 +1,136 @@
+package com.duoc.benchmark;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.duoc.business.Dinero;
+
+/**
+ * Compara los importes en centavos (Dinero) con BigDecimal, la referencia exacta, y con double, lo que usaba el proceso:
+ * sumar convierte el precio de cada venta, lo multiplica por la cantidad y lo suma al total de su producto;
+ * formatear escribe el total de cada fila del informe. ops/s son filas por segundo y gc.alloc.rate.norm bytes por fila.
+ * Antes de medir se comprueba que los totales en centavos son iguales a los de BigDecimal y se informa cuántos totales
+ * con double difieren de ellos.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=error")
+public class DineroBenchmark {
+
+    private static final int FILAS = 100_000;
+    private static final int PRODUCTOS = 1000;
+
+    @Param({ "centavos", "bigDecimal", "double" })
+    private String modo;
+
+    private String[] precios; // Texto del precio, como en el archivo de ventas
+    private int[] cantidades;
+    private int[] productos;
+    private long[] totalesCentavos; // Totales de ejemplo para formatear, uno por fila del informe
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        SplittableRandom random = new SplittableRandom(42L);
+        precios = new String[FILAS];
+        cantidades = new int[FILAS];
+        productos = new int[FILAS];
+        for (int i = 0; i < FILAS; i++) {
+            int centavos = random.nextInt(100); // Misma distribución que VentasCsvGenerator
+            precios[i] = (1 + random.nextInt(1000)) + "." + (centavos / 10) + (centavos % 10);
+            cantidades[i] = 1 + random.nextInt(50);
+            productos[i] = random.nextInt(PRODUCTOS);
+        }
+        totalesCentavos = new long[FILAS];
+        for (int i = 0; i < FILAS; i++) {
+            totalesCentavos[i] = random.nextLong(1_000_000_000L);
+        }
+        comprobar();
+    }
+
+    // Los totales en centavos deben ser exactamente los de BigDecimal; los de double se cuentan como referencia
+    private void comprobar() {
+        long[] centavos = sumarCentavos();
+        BigDecimal[] exactos = sumarBigDecimal();
+        double[] dobles = sumarDouble();
+        int distintos = 0;
+        for (int p = 0; p < PRODUCTOS; p++) {
+            if (BigDecimal.valueOf(centavos[p], 2).compareTo(exactos[p]) != 0) {
+                throw new IllegalStateException("Producto " + p + ": " + Dinero.formatear(centavos[p]) + " en centavos y "
+                        + exactos[p].toPlainString() + " con BigDecimal");
+            }
+            if (new BigDecimal(Double.toString(dobles[p])).compareTo(exactos[p]) != 0) { // El total que escribía el informe
+                distintos++;
+            }
+        }
+        System.out.printf("%nTotales en centavos iguales a BigDecimal; con double difieren %d de %d%n", distintos, PRODUCTOS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILAS)
+    public Object sumar() {
+        return switch (modo) {
+            case "centavos" -> sumarCentavos();
+            case "bigDecimal" -> sumarBigDecimal();
+            default -> sumarDouble();
+        };
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILAS)
+    public void formatear(Blackhole blackhole) {
+        for (long total : totalesCentavos) {
+            blackhole.consume(switch (modo) {
+                case "centavos" -> Dinero.formatear(total);
+                case "bigDecimal" -> BigDecimal.valueOf(total, 2).toPlainString();
+                default -> Double.toString(total / 100.0);
+            });
+        }
+    }
+
+    private long[] sumarCentavos() {
+        long[] totales = new long[PRODUCTOS];
+        for (int i = 0; i < FILAS; i++) {
+            long importe = Dinero.multiplicar(Dinero.parsear(precios[i]), cantidades[i]);
+            totales[productos[i]] = Dinero.sumar(totales[productos[i]], importe);
+        }
+        return totales;
+    }
+
+    private BigDecimal[] sumarBigDecimal() {
+        BigDecimal[] totales = new BigDecimal[PRODUCTOS];
+        Arrays.fill(totales, BigDecimal.ZERO);
+        for (int i = 0; i < FILAS; i++) {
+            BigDecimal importe = new BigDecimal(precios[i]).multiply(BigDecimal.valueOf(cantidades[i]));
+            totales[productos[i]] = totales[productos[i]].add(importe);
+        }
+        return totales;
+    }
+
+    private double[] sumarDouble() {
+        double[] totales = new double[PRODUCTOS];
+        for (int i = 0; i < FILAS; i++) {
+            totales[productos[i]] += cantidades[i] * Double.parseDouble(precios[i]);
+        }
+        return totales;
+    }
+}
@@ -0,0 +1,123 @@
+package com.duoc.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.core.io.FileSystemResource;
+
+import com.duoc.business.Dinero;
+import com.duoc.business.InformeVenta;
+import com.duoc.items.VentasColumnarItemReader;
+import com.duoc.items.VentasColumnarItemWriter;
+import com.duoc.items.VentasItemWriter;
+
+/**
+ * Compara el informe consolidado en CSV (VentasItemWriter) con el formato columnar binario (VentasColumnarItemWriter):
+ * escribir el informe completo y volver a leerlo fila por fila. ops/s son filas por segundo y gc.alloc.rate.norm
+ * son bytes por fila. Al terminar se informa el tamaño de cada archivo.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=error")
+public class InformeFormatoBenchmark {
+
+    private static final int FILAS = 100_000;
+
+    @Param({ "csv", "columnar" })
+    private String formato;
+
+    private Path csv;
+    private Path columnar;
+    private Chunk<InformeVenta> informes;
+
+    @Setup(Level.Trial)
+    public void preparar() throws Exception {
+        csv = Files.createTempFile("benchmark-informe-", ".csv");
+        columnar = VentasColumnarItemWriter.rutaColumnar(csv);
+        List<InformeVenta> lista = new ArrayList<>(FILAS);
+        for (int i = 0; i < FILAS; i++) {
+            InformeVenta informe = new InformeVenta();
+            informe.setProducto("Producto " + (i % 5000)); // El mismo producto se repite en varias fechas o tiendas
+            informe.setCantidadTotal(1000L + i);
+            informe.setTotalCentavos(12_345_678L + i * 100L);
+            lista.add(informe);
+        }
+        informes = new Chunk<>(lista);
+        escribir(); // El archivo que leen las mediciones de lectura
+    }
+
+    @TearDown(Level.Trial)
+    public void borrar() throws IOException {
+        System.out.printf("%n%s: %d bytes%n", formato, Files.size("csv".equals(formato) ? csv : columnar));
+        Files.deleteIfExists(csv);
+        Files.deleteIfExists(columnar);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILAS)
+    public void escribir() throws Exception {
+        ItemStreamWriter<InformeVenta> itemWriter = "csv".equals(formato)
+                ? new VentasItemWriter(csv.toString(), false)
+                : new VentasColumnarItemWriter(csv.toString());
+        itemWriter.open(new ExecutionContext());
+        itemWriter.write(informes);
+        itemWriter.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILAS)
+    public void leer(Blackhole blackhole) throws Exception {
+        ItemStreamReader<InformeVenta> itemReader = "csv".equals(formato) ? lectorCsv() : new VentasColumnarItemReader(columnar);
+        itemReader.open(new ExecutionContext());
+        InformeVenta informe;
+        while ((informe = itemReader.read()) != null) {
+            blackhole.consume(informe);
+        }
+        itemReader.close();
+    }
+
+    private FlatFileItemReader<InformeVenta> lectorCsv() {
+        return new FlatFileItemReaderBuilder<InformeVenta>()
+                .name("informeCsv")
+                .resource(new FileSystemResource(csv))
+                .linesToSkip(1)
+                .delimited()
+                .names("producto", "cantidadTotal", "totalCentavos")
+                .fieldSetMapper(campos -> {
+                    InformeVenta informe = new InformeVenta();
+                    informe.setProducto(campos.readString(0));
+                    informe.setCantidadTotal(campos.readLong(1));
+                    informe.setTotalCentavos(Dinero.parsear(campos.readString(2)));
+                    return informe;
+                })
+                .build();
+    }
+}
@@ -0,0 +1,130 @@
+package com.duoc.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.task.TaskExecutor;
+
+import com.duoc.advanced.VentasJobConfig;
+import com.duoc.business.VentaRechazada;
+import com.duoc.items.ErrorItemWriter;
+
+/**
+ * Compara el pool de hilos del sistema con los hilos virtuales del taskExecutor en escrituras limitadas por E/S.
+ * Cada operación ejecuta {@code tareas} tareas en paralelo; cada tarea escribe {@code chunks} chunks de 1000 rechazos
+ * en su propio archivo con ErrorItemWriter y espera {@code latenciaMs} después de cada chunk para simular un disco lento.
+ * El TaskExecutor se crea con la misma fábrica que usa el Job y los valores por defecto de application.properties
+ * (5 hilos, 10 como máximo, cola de 25; límite de 50 en el modo virtual). ms/op es el tiempo hasta que terminan todas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=error")
+public class TaskExecutorBenchmark {
+
+    private static final int CHUNK = 1000;
+
+    @Param({ "plataforma", "virtual" })
+    private String modo;
+
+    @Param({ "5", "30" }) // Con más de 35 tareas el pool de hilos del sistema rechaza las que no caben en la cola
+    private int tareas;
+
+    @Param({ "0", "2" })
+    private long latenciaMs;
+
+    @Param({ "20" })
+    private int chunks;
+
+    private TaskExecutor taskExecutor;
+    private Chunk<VentaRechazada> rechazos;
+    private Path directorio;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        taskExecutor = new VentasJobConfig().taskExecutor(modo, 5, 10, 25, 50);
+        List<VentaRechazada> lista = new ArrayList<>(CHUNK);
+        for (int i = 0; i < CHUNK; i++) {
+            lista.add(new VentaRechazada(i * 30L, "Precio debe ser mayor que 0", i + ",Producto " + i + ",3,"));
+        }
+        rechazos = new Chunk<>(lista);
+        directorio = Files.createTempDirectory("benchmark-executor-");
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() throws Exception {
+        if (taskExecutor instanceof AutoCloseable cerrable) {
+            cerrable.close(); // SimpleAsyncTaskExecutor del modo virtual
+        } else {
+            ((DisposableBean) taskExecutor).destroy();
+        }
+        try (var archivos = Files.list(directorio)) {
+            for (Path archivo : archivos.toList()) {
+                Files.delete(archivo);
+            }
+        }
+        Files.delete(directorio);
+    }
+
+    @Benchmark
+    public void escribirEnParalelo() throws Exception {
+        CountDownLatch pendientes = new CountDownLatch(tareas);
+        AtomicReference<Exception> falla = new AtomicReference<>();
+        for (int t = 0; t < tareas; t++) {
+            Path archivo = directorio.resolve("errores-" + t + ".csv");
+            taskExecutor.execute(() -> {
+                try {
+                    escribir(archivo);
+                } catch (Exception e) {
+                    falla.compareAndSet(null, e);
+                } finally {
+                    pendientes.countDown();
+                }
+            });
+        }
+        pendientes.await();
+        if (falla.get() != null) {
+            throw falla.get();
+        }
+    }
+
+    private void escribir(Path archivo) throws Exception {
+        ErrorItemWriter writer = new ErrorItemWriter(new FileSystemResource(archivo));
+        writer.open(new ExecutionContext());
+        try {
+            for (int c = 0; c < chunks; c++) {
+                writer.write(rechazos);
+                if (latenciaMs > 0) {
+                    Thread.sleep(latenciaMs); // Espera del disco lento: el hilo virtual libera su hilo del sistema
+                }
+            }
+        } finally {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.duoc.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.SplittableRandom;
+
+/**
+ * Genera archivos sintéticos con el formato de consolidacion_diaria_ventas.csv para los benchmarks.
+ * Una fracción configurable de las filas es inválida, con los mismos tipos de error del archivo de ejemplo:
+ * cantidad vacía o negativa, precio vacío o con texto y campos faltantes.
+ * Uso desde la línea de comandos: {@code VentasCsvGenerator <destino> <filas> [invalidas] [productos] [semilla]}.
+ */
+public final class VentasCsvGenerator {
+
+    private static final Path DATOS = Paths.get("target", "benchmark-datos"); // Archivos reutilizados entre forks
+
+    private VentasCsvGenerator() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: VentasCsvGenerator <destino> <filas> [invalidas] [productos] [semilla]");
+            System.exit(1);
+        }
+        generar(Paths.get(args[0]), Long.parseLong(args[1]),
+                args.length > 2 ? Double.parseDouble(args[2]) : 0.0,
+                args.length > 3 ? Integer.parseInt(args[3]) : 1000,
+                args.length > 4 ? Long.parseLong(args[4]) : 42L);
+    }
+
+    /**
+     * Escribe un archivo de ventas sintético.
+     *
+     * @param destino   Archivo a generar.
+     * @param filas     Cantidad de filas de datos (sin contar el encabezado).
+     * @param invalidas Fracción de filas inválidas, entre 0 y 1.
+     * @param productos Cantidad de productos distintos.
+     * @param semilla   Semilla del generador, para obtener siempre el mismo archivo.
+     * @return El archivo generado.
+     * @throws IOException Si no se puede escribir el archivo.
+     */
+    public static Path generar(Path destino, long filas, double invalidas, int productos, long semilla) throws IOException {
+        SplittableRandom random = new SplittableRandom(semilla);
+        try (BufferedWriter writer = Files.newBufferedWriter(destino, StandardCharsets.UTF_8)) {
+            writer.write("id,producto,cantidad,precio\n");
+            StringBuilder linea = new StringBuilder(64);
+            for (long id = 1; id <= filas; id++) {
+                linea.setLength(0);
+                String producto = "Producto " + random.nextInt(productos);
+                int cantidad = 1 + random.nextInt(50);
+                int pesos = 1 + random.nextInt(1000);
+                int centavos = random.nextInt(100);
+                if (random.nextDouble() < invalidas) {
+                    switch (random.nextInt(5)) {
+                        case 0 -> linea.append(id).append(',').append(producto).append(", ,").append(pesos).append(".0");
+                        case 1 -> linea.append(id).append(',').append(producto).append(',').append(cantidad).append(",abc");
+                        case 2 -> linea.append(id).append(',').append(producto).append(',').append(-cantidad).append(',').append(pesos).append(".0");
+                        case 3 -> linea.append(id).append(',').append(producto).append(',').append(cantidad).append(',');
+                        default -> linea.append(id).append(',').append(producto).append(',').append(cantidad);
+                    }
+                } else {
+                    linea.append(id).append(',').append(producto).append(',').append(cantidad).append(',')
+                            .append(pesos).append('.').append(centavos / 10).append(centavos % 10);
+                }
+                writer.write(linea.append('\n').toString());
+            }
+        }
+        return destino;
+    }
+
+    /**
+     * Genera el archivo en un directorio temporal, con 1000 productos y semilla fija.
+     */
+    public static Path generarTemporal(long filas, double invalidas) throws IOException {
+        Path destino = Files.createTempFile("ventas-" + filas + "-", ".csv");
+        destino.toFile().deleteOnExit();
+        return generar(destino, filas, invalidas, 1000, 42L);
+    }
+
+    /**
+     * Devuelve el archivo de target/benchmark-datos para la cantidad de filas y fracción de inválidas indicadas,
+     * generándolo solo si no existe. Así los archivos grandes (50M filas, unos 1,5 GB) se generan una sola vez.
+     */
+    public static Path obtener(long filas, double invalidas) throws IOException {
+        Path destino = DATOS.resolve("ventas-" + filas + "-" + invalidas + ".csv");
+        if (!Files.exists(destino)) {
+            Files.createDirectories(DATOS);
+            Path temporal = Files.createTempFile(DATOS, "ventas-", ".tmp");
+            generar(temporal, filas, invalidas, 1000, 42L);
+            Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE); // Un fork interrumpido no deja un archivo a medias
+        }
+        return destino;
+    }
+}
@@ -0,0 +1,91 @@
+package com.duoc.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.item.file.mapping.DefaultLineMapper;
+import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+
+import com.duoc.business.InvalidDataException;
+import com.duoc.business.Venta;
+import com.duoc.items.ReglasValidacion;
+import com.duoc.items.VentaFieldSetMapper;
+import com.duoc.items.VentasItemProcessor;
+
+/**
+ * Mide la validación de VentasItemProcessor sobre ventas ya mapeadas, con las reglas por defecto.
+ * Cada operación valida una venta. Con rechazo=codigo las inválidas se filtran con su código de rechazo;
+ * con rechazo=excepcion lanzan InvalidDataException, como antes del motor de reglas, y su costo queda incluido.
+ * ops/s son filas por segundo y gc.alloc.rate.norm son bytes por fila.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=error")
+public class VentasItemProcessorBenchmark {
+
+    @Param({ "0.0", "0.01", "0.1" })
+    private double invalidas;
+
+    @Param({ "codigo", "excepcion" })
+    private String rechazo;
+
+    private VentasItemProcessor processor;
+    private Venta[] ventas;
+    private int siguiente;
+
+    @Setup
+    public void preparar() throws IOException {
+        boolean omitir = "codigo".equals(rechazo); // Con excepcion el destino rechaza la omisión y el procesador lanza
+        processor = new VentasItemProcessor(new ReglasValidacion(List.of("cantidad > 0", "precio > 0")),
+                (venta, codigo) -> omitir, false);
+        DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer();
+        tokenizer.setNames("id", "producto", "cantidad", "precio");
+        DefaultLineMapper<Venta> lineMapper = new DefaultLineMapper<>();
+        lineMapper.setLineTokenizer(tokenizer);
+        lineMapper.setFieldSetMapper(new VentaFieldSetMapper());
+
+        List<Venta> mapeadas = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(VentasCsvGenerator.obtener(100_000, invalidas), StandardCharsets.UTF_8)) {
+            reader.readLine(); // Encabezado
+            String linea;
+            while ((linea = reader.readLine()) != null) {
+                try {
+                    mapeadas.add(lineMapper.mapLine(linea, mapeadas.size() + 2));
+                } catch (Exception e) {
+                    // Las filas que no se pueden mapear se omiten en la lectura, no llegan al procesador
+                }
+            }
+        }
+        ventas = mapeadas.toArray(new Venta[0]);
+    }
+
+    @Benchmark
+    public Object validar() throws Exception {
+        Venta venta = ventas[siguiente];
+        siguiente = siguiente + 1 == ventas.length ? 0 : siguiente + 1;
+        try {
+            return processor.process(venta);
+        } catch (InvalidDataException e) {
+            return e;
+        }
+    }
+}
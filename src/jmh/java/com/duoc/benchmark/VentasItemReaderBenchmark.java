@@ -0,0 +1,85 @@
+package com.duoc.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.core.io.FileSystemResource;
+
+import com.duoc.business.Venta;
+import com.duoc.items.VentaParseException;
+import com.duoc.items.VentasItemReader;
+import com.duoc.items.VentasMappedItemReader;
+
+/**
+ * Mide la lectura y el mapeo del archivo de ventas con cada lector.
+ * Cada operación lee una fila, por lo que ops/s son filas por segundo y gc.alloc.rate.norm son bytes por fila.
+ * Las filas que no se pueden mapear cuentan como leídas, igual que una omisión en el Step.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=error")
+public class VentasItemReaderBenchmark {
+
+    @Param({ "10000", "1000000" })
+    private long filas;
+
+    @Param({ "0.0", "0.01" })
+    private double invalidas;
+
+    @Param({ "flatfile", "mapeado" })
+    private String lector;
+
+    private FileSystemResource recurso;
+    private ItemStreamReader<Venta> reader;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        recurso = new FileSystemResource(VentasCsvGenerator.obtener(filas, invalidas));
+        abrir();
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        reader.close();
+    }
+
+    @Benchmark
+    public Object leerFila() throws Exception {
+        try {
+            Venta venta = reader.read();
+            if (venta == null) {
+                reader.close(); // Fin del archivo: se vuelve a leer desde el inicio
+                abrir();
+                venta = reader.read();
+            }
+            return venta;
+        } catch (VentaParseException e) {
+            return e;
+        }
+    }
+
+    private void abrir() {
+        reader = "mapeado".equals(lector)
+                ? new VentasMappedItemReader(recurso, null, null)
+                : new VentasItemReader(recurso, null, null);
+        reader.open(new ExecutionContext());
+    }
+}
@@ -0,0 +1,102 @@
+package com.duoc.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.FlatFileItemWriter;
+import org.springframework.core.io.FileSystemResource;
+
+import com.duoc.business.InformeVenta;
+import com.duoc.business.VentaRechazada;
+import com.duoc.items.ErrorItemWriter;
+import com.duoc.items.VentasItemWriter;
+
+/**
+ * Mide la agregación de líneas y la escritura a disco de VentasItemWriter (informe) y ErrorItemWriter (errores),
+ * en chunks de 1000 filas. ops/s son filas por segundo y gc.alloc.rate.norm son bytes por fila.
+ * El archivo de salida se recrea en cada iteración para que no crezca sin límite.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=error")
+public class VentasWriterBenchmark {
+
+    private static final int CHUNK = 1000;
+
+    @Param({ "informe", "errores" })
+    private String writer;
+
+    private Path archivo;
+    private FlatFileItemWriter<?> itemWriter;
+    private Chunk<InformeVenta> informes;
+    private Chunk<VentaRechazada> rechazos;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        archivo = Files.createTempFile("benchmark-" + writer + "-", ".csv");
+        List<InformeVenta> listaInformes = new ArrayList<>(CHUNK);
+        List<VentaRechazada> listaRechazos = new ArrayList<>(CHUNK);
+        for (int i = 0; i < CHUNK; i++) {
+            InformeVenta informe = new InformeVenta();
+            informe.setProducto("Producto " + i);
+            informe.setCantidadTotal(1000L + i);
+            informe.setTotalCentavos(12_345_678L + i * 100L);
+            listaInformes.add(informe);
+            listaRechazos.add(new VentaRechazada(i * 30L, "Precio debe ser mayor que 0", i + ",Producto " + i + ",3,"));
+        }
+        informes = new Chunk<>(listaInformes);
+        rechazos = new Chunk<>(listaRechazos);
+    }
+
+    @Setup(Level.Iteration)
+    public void abrir() {
+        itemWriter = "errores".equals(writer)
+                ? new ErrorItemWriter(new FileSystemResource(archivo))
+                : new VentasItemWriter(archivo.toString(), false);
+        itemWriter.open(new ExecutionContext());
+    }
+
+    @TearDown(Level.Iteration)
+    public void cerrar() {
+        itemWriter.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void borrar() throws IOException {
+        Files.deleteIfExists(archivo);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNK)
+    @SuppressWarnings("unchecked")
+    public void escribirChunk() throws Exception {
+        if ("errores".equals(writer)) {
+            ((FlatFileItemWriter<VentaRechazada>) itemWriter).write(rechazos);
+        } else {
+            ((FlatFileItemWriter<InformeVenta>) itemWriter).write(informes);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.duoc.advanced;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Política de término de chunk que ajusta su tamaño durante la ejecución del Step.
+ * Después de cada chunk compara la duración de la transacción con el objetivo configurado y revisa
+ * los rollbacks, la proporción de registros omitidos y la memoria libre. Cuentan como omitidos tanto los saltados por
+ * errores de lectura o escritura como los que el procesador filtra por no cumplir una regla de validación:
+ * <ul>
+ *   <li>Chunks rápidos y limpios duplican el tamaño, hasta el máximo.</li>
+ *   <li>Chunks lentos, con rollback, con muchos omitidos o con poca memoria libre lo reducen a la mitad, hasta el mínimo.</li>
+ * </ul>
+ * Cada partición tiene su propia instancia (StepScope). El tamaño vigente queda en el ExecutionContext del Step
+ * con las claves "chunk.tamano" y "chunk.ajustes".
+ */
+@Component
+@StepScope
+public class AdaptiveCompletionPolicy extends SimpleCompletionPolicy implements ChunkListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveCompletionPolicy.class);
+
+    private final int minimo; // Tamaño mínimo del chunk
+    private final int maximo; // Tamaño máximo del chunk
+    private final long objetivoNanos; // Duración objetivo de cada chunk, incluido el commit
+    private final double memoriaLibreMinima; // Fracción mínima del heap que debe quedar libre para crecer
+    private final double umbralOmitidos; // Fracción de registros omitidos sobre la que se reduce el chunk
+
+    private long inicioChunk;
+    private long leidosAntes;
+    private long omitidosAntes;
+    private long rollbacksAntes;
+    private int ajustes;
+    private boolean iniciado;
+
+    public AdaptiveCompletionPolicy(@Value("${ventas.chunk.inicial:100}") int inicial,
+                                    @Value("${ventas.chunk.minimo:2}") int minimo,
+                                    @Value("${ventas.chunk.maximo:5000}") int maximo,
+                                    @Value("${ventas.chunk.objetivo-ms:500}") long objetivoMs,
+                                    @Value("${ventas.chunk.memoria-libre-minima:0.15}") double memoriaLibreMinima,
+                                    @Value("${ventas.chunk.umbral-omitidos:0.1}") double umbralOmitidos) {
+        super(Math.max(minimo, Math.min(maximo, inicial)));
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.objetivoNanos = objetivoMs * 1_000_000L;
+        this.memoriaLibreMinima = memoriaLibreMinima;
+        this.umbralOmitidos = umbralOmitidos;
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        StepExecution stepExecution = context.getStepContext().getStepExecution();
+        if (!iniciado) {
+            iniciado = true;
+            if (stepExecution.getExecutionContext().containsKey("chunk.tamano")) {
+                setChunkSize(stepExecution.getExecutionContext().getInt("chunk.tamano")); // Un reinicio continúa con el último tamaño
+                ajustes = stepExecution.getExecutionContext().getInt("chunk.ajustes", 0);
+            } else {
+                stepExecution.getExecutionContext().putInt("chunk.tamano", getChunkSize());
+            }
+        }
+        inicioChunk = System.nanoTime();
+        leidosAntes = stepExecution.getReadCount() + stepExecution.getReadSkipCount();
+        omitidosAntes = omitidos(stepExecution);
+        rollbacksAntes = stepExecution.getRollbackCount();
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        StepExecution stepExecution = context.getStepContext().getStepExecution();
+        long duracion = System.nanoTime() - inicioChunk;
+        long leidos = stepExecution.getReadCount() + stepExecution.getReadSkipCount() - leidosAntes;
+        long omitidos = omitidos(stepExecution) - omitidosAntes;
+        long rollbacks = stepExecution.getRollbackCount() - rollbacksAntes;
+
+        int actual = getChunkSize();
+        int nuevo = actual;
+        if (rollbacks > 0 || duracion > objetivoNanos || memoriaLibre() < memoriaLibreMinima
+                || (leidos > 0 && (double) omitidos / leidos > umbralOmitidos)) {
+            nuevo = Math.max(minimo, actual / 2);
+        } else if (duracion < objetivoNanos / 2 && leidos >= actual) {
+            nuevo = Math.min(maximo, actual * 2); // Solo crece si el chunk se llenó
+        }
+        if (nuevo != actual) {
+            ajustar(stepExecution, actual, nuevo, duracion, omitidos, rollbacks);
+        }
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        StepExecution stepExecution = context.getStepContext().getStepExecution();
+        int actual = getChunkSize();
+        int nuevo = Math.max(minimo, actual / 2); // Un chunk fallido se reintenta con menos registros
+        if (nuevo != actual) {
+            ajustar(stepExecution, actual, nuevo, System.nanoTime() - inicioChunk, 0, 1);
+        }
+    }
+
+    private void ajustar(StepExecution stepExecution, int actual, int nuevo, long duracion, long omitidos, long rollbacks) {
+        setChunkSize(nuevo);
+        ajustes++;
+        stepExecution.getExecutionContext().putInt("chunk.tamano", nuevo);
+        stepExecution.getExecutionContext().putInt("chunk.ajustes", ajustes);
+        logger.info("{}: tamaño de chunk {} -> {} (duración {} ms, omitidos {}, rollbacks {})",
+                stepExecution.getStepName(), actual, nuevo, duracion / 1_000_000, omitidos, rollbacks);
+    }
+
+    // Registros saltados (skip) y filtrados por el procesador (reglas de validación, duplicados)
+    private static long omitidos(StepExecution stepExecution) {
+        return stepExecution.getSkipCount() + stepExecution.getFilterCount();
+    }
+
+    // Fracción del heap máximo que sigue disponible
+    private static double memoriaLibre() {
+        Runtime runtime = Runtime.getRuntime();
+        long usada = runtime.totalMemory() - runtime.freeMemory();
+        return (double) (runtime.maxMemory() - usada) / runtime.maxMemory();
+    }
+}
@@ -0,0 +1,81 @@
+package com.duoc.advanced;
+
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.support.GenericApplicationContext;
+
+import com.duoc.items.CatalogoProductos;
+import com.duoc.items.ErrorSink;
+import com.duoc.items.IndiceDeduplicacion;
+import com.duoc.items.InformeVentaEnriquecedor;
+import com.duoc.items.ReglasValidacion;
+import com.duoc.items.VentasAggregator;
+import com.duoc.items.VentasAgregadorExterno;
+import com.duoc.items.VentasColumnarItemWriter;
+import com.duoc.items.VentasDeduplicador;
+import com.duoc.items.VentasItemProcessor;
+import com.duoc.items.VentasItemReader;
+import com.duoc.items.VentasItemWriter;
+import com.duoc.items.VentasJdbcItemWriter;
+import com.duoc.items.VentasMappedItemReader;
+import com.duoc.jobs.CustomDecider;
+import com.duoc.jobs.ServidorTrabajador;
+import com.duoc.jobs.TrabajadorChunks;
+import com.duoc.jobs.VentasAcumuladoTasklet;
+import com.duoc.jobs.VentasEnvioItemWriter;
+import com.duoc.jobs.VentasFilePartitioner;
+
+/**
+ * Registro explícito de los beans de la aplicación, usado con ventas.arranque=ligero en lugar de escanear
+ * los paquetes com.duoc.advanced, com.duoc.items y com.duoc.jobs.
+ * Se evita leer todas las clases del classpath al iniciar, lo que pesa en las ejecuciones cortas lanzadas por cron.
+ * Los beans tienen los mismos nombres que con el escaneo y sus anotaciones (@Value, @StepScope, @Lazy) se procesan igual.
+ * Un componente nuevo debe agregarse aquí además de anotarse con @Component. JobStartupRunner no se registra:
+ * responde al ApplicationReadyEvent de Spring Boot, que JobRunnerMain no publica.
+ */
+public class ArranqueLigero implements ApplicationContextInitializer<GenericApplicationContext> {
+
+    @Override
+    public void initialize(GenericApplicationContext context) {
+        // Configuraciones; VentasJobConfig importa la base de datos, el JobRepository y las métricas
+        context.registerBean(VentasJobConfig.class);
+        context.registerBean(VentasAcumuladoJobConfig.class);
+        context.registerBean(RemotoConfiguration.class);
+
+        // Ejecución y listeners del Job
+        context.registerBean(JobRunner.class);
+        context.registerBean(VentasInboxWatcher.class);
+        context.registerBean(JobCompletionListener.class);
+        context.registerBean(ErrorFileStepExecutionListener.class);
+        context.registerBean(InformeVentasStepExecutionListener.class);
+        context.registerBean(FileVerificationSkipper.class);
+        context.registerBean(VentaSkipListener.class);
+        context.registerBean(ReprocesoListener.class);
+        context.registerBean(AdaptiveCompletionPolicy.class);
+        context.registerBean(MetricasListener.class);
+        context.registerBean(MetricasExporter.class);
+
+        // Lectura, validación y escritura
+        context.registerBean(VentasItemReader.class);
+        context.registerBean(VentasMappedItemReader.class);
+        context.registerBean(ReglasValidacion.class);
+        context.registerBean(VentasItemProcessor.class);
+        context.registerBean(IndiceDeduplicacion.class);
+        context.registerBean(VentasDeduplicador.class);
+        context.registerBean(VentasAggregator.class);
+        context.registerBean(VentasAgregadorExterno.class);
+        context.registerBean(CatalogoProductos.class);
+        context.registerBean(InformeVentaEnriquecedor.class);
+        context.registerBean(VentasItemWriter.class);
+        context.registerBean(VentasJdbcItemWriter.class);
+        context.registerBean(VentasColumnarItemWriter.class);
+        context.registerBean(ErrorSink.class);
+
+        // Particiones, decisor, acumulados y modo remoto
+        context.registerBean(VentasFilePartitioner.class);
+        context.registerBean(CustomDecider.class);
+        context.registerBean(VentasAcumuladoTasklet.class);
+        context.registerBean(TrabajadorChunks.class);
+        context.registerBean(ServidorTrabajador.class);
+        context.registerBean(VentasEnvioItemWriter.class);
+    }
+}
@@ -0,0 +1,204 @@
+package com.duoc.advanced;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.JobRestartException;
+
+/**
+ * JobRepository que agrupa las actualizaciones de los Steps en ejecución.
+ * Spring Batch guarda el StepExecution y su ExecutionContext en cada commit de chunk; con chunks pequeños
+ * esas escrituras de metadatos superan a las del propio proceso. Este repositorio solo las envía a la base de datos
+ * si pasó el intervalo configurado desde la última escritura del mismo Step; las demás se omiten.
+ * El StepExecution y el ExecutionContext se escriben siempre juntos, en la misma transacción del chunk, de modo que
+ * lo guardado es un punto de reinicio coherente (contadores, posición del lector y totales de VentasAggregator):
+ * la decisión se toma en updateExecutionContext y el update que le sigue la repite, aunque el intervalo venza entre
+ * las dos llamadas. Si el contexto no cambió, Spring Batch no llama a updateExecutionContext y decide el update.
+ * <p>
+ * Garantía de reinicio:
+ * <ul>
+ *   <li>Si el Step termina (completado o con error, también en un RETRY del CustomDecider), su estado final se escribe
+ *       siempre, así que el reinicio continúa desde el último chunk confirmado, igual que sin agrupar.</li>
+ *   <li>Si el proceso se cae sin terminar el Step (kill -9, corte de energía), el reinicio continúa desde el último punto
+ *       escrito, hasta un intervalo atrás: esas filas se vuelven a procesar y sus rechazos pueden repetirse en el
+ *       archivo de errores. Los totales de VentasAggregator viajan en el mismo ExecutionContext, así que vuelven al
+ *       mismo punto y el informe consolidado no cuenta dos veces esas filas. Cualquier otro efecto de los commits
+ *       omitidos queda adelantado al punto de reinicio; por eso el modo agrupado no se combina con la deduplicación,
+ *       que registra los id en cada commit (VentasJobConfig lo rechaza al iniciar).</li>
+ *   <li>Una detención pedida con JobOperator.stop se detecta en la siguiente escritura, hasta un intervalo más tarde.</li>
+ * </ul>
+ */
+public class CoalescingJobRepository implements JobRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoalescingJobRepository.class);
+
+    private final JobRepository delegado;
+    private final long intervaloNanos;
+    private final Map<Long, Estado> estados = new ConcurrentHashMap<>(); // Steps en ejecución, por StepExecution
+
+    public CoalescingJobRepository(JobRepository delegado, long intervaloMs) {
+        this.delegado = delegado;
+        this.intervaloNanos = intervaloMs * 1_000_000L;
+    }
+
+    @Override
+    public void updateExecutionContext(StepExecution stepExecution) {
+        Estado estado = agrupable(stepExecution);
+        if (estado != null && !estado.vencido()) {
+            estado.omitidas++;
+            estado.contexto = Contexto.OMITIDO; // El update que sigue en la misma transacción también se omite
+            return;
+        }
+        delegado.updateExecutionContext(stepExecution);
+        if (estado != null) {
+            estado.contexto = Contexto.ESCRITO; // El update que sigue en la misma transacción también se escribe
+        }
+    }
+
+    @Override
+    public void update(StepExecution stepExecution) {
+        Estado estado = agrupable(stepExecution);
+        if (estado != null) {
+            Contexto contexto = estado.contexto;
+            estado.contexto = Contexto.SIN_CAMBIOS; // La decisión vale solo para esta transacción
+            if (contexto == Contexto.OMITIDO || (contexto == Contexto.SIN_CAMBIOS && !estado.vencido())) {
+                estado.omitidas++;
+                return;
+            }
+        }
+        delegado.update(stepExecution);
+        if (stepExecution.getStatus() == BatchStatus.STARTED) {
+            estados.computeIfAbsent(stepExecution.getId(), id -> new Estado()).escrito();
+        } else {
+            Estado terminado = estados.remove(stepExecution.getId());
+            if (terminado != null && terminado.omitidas > 0) {
+                logger.debug("{}: {} escrituras de metadatos agrupadas", stepExecution.getStepName(), terminado.omitidas);
+            }
+        }
+    }
+
+    // Estado del Step si está en ejecución y ya se escribió al menos una vez; null si su escritura no se puede omitir
+    private Estado agrupable(StepExecution stepExecution) {
+        if (stepExecution.getStatus() != BatchStatus.STARTED) {
+            return null;
+        }
+        return estados.get(stepExecution.getId());
+    }
+
+    // Lo que hizo updateExecutionContext en la transacción en curso del Step
+    private enum Contexto { SIN_CAMBIOS, ESCRITO, OMITIDO }
+
+    private final class Estado {
+        private long ultimaEscritura;
+        private Contexto contexto = Contexto.SIN_CAMBIOS;
+        private long omitidas;
+
+        private boolean vencido() {
+            return System.nanoTime() - ultimaEscritura >= intervaloNanos;
+        }
+
+        private void escrito() {
+            ultimaEscritura = System.nanoTime();
+        }
+    }
+
+    // Las demás operaciones van directo al repositorio
+
+    @Override
+    public List<String> getJobNames() {
+        return delegado.getJobNames();
+    }
+
+    @Override
+    public List<JobInstance> findJobInstancesByName(String jobName, int start, int count) {
+        return delegado.findJobInstancesByName(jobName, start, count);
+    }
+
+    @Override
+    public List<JobExecution> findJobExecutions(JobInstance jobInstance) {
+        return delegado.findJobExecutions(jobInstance);
+    }
+
+    @Override
+    public boolean isJobInstanceExists(String jobName, JobParameters jobParameters) {
+        return delegado.isJobInstanceExists(jobName, jobParameters);
+    }
+
+    @Override
+    public JobInstance createJobInstance(String jobName, JobParameters jobParameters) {
+        return delegado.createJobInstance(jobName, jobParameters);
+    }
+
+    @Override
+    public JobExecution createJobExecution(String jobName, JobParameters jobParameters)
+            throws JobExecutionAlreadyRunningException, JobRestartException, JobInstanceAlreadyCompleteException {
+        return delegado.createJobExecution(jobName, jobParameters);
+    }
+
+    @Override
+    public void update(JobExecution jobExecution) {
+        delegado.update(jobExecution);
+    }
+
+    @Override
+    public void add(StepExecution stepExecution) {
+        delegado.add(stepExecution);
+    }
+
+    @Override
+    public void addAll(Collection<StepExecution> stepExecutions) {
+        delegado.addAll(stepExecutions);
+    }
+
+    @Override
+    public void updateExecutionContext(JobExecution jobExecution) {
+        delegado.updateExecutionContext(jobExecution);
+    }
+
+    @Override
+    public JobInstance getJobInstance(String jobName, JobParameters jobParameters) {
+        return delegado.getJobInstance(jobName, jobParameters);
+    }
+
+    @Override
+    public StepExecution getLastStepExecution(JobInstance jobInstance, String stepName) {
+        return delegado.getLastStepExecution(jobInstance, stepName);
+    }
+
+    @Override
+    public long getStepExecutionCount(JobInstance jobInstance, String stepName) {
+        return delegado.getStepExecutionCount(jobInstance, stepName);
+    }
+
+    @Override
+    public JobExecution getLastJobExecution(String jobName, JobParameters jobParameters) {
+        return delegado.getLastJobExecution(jobName, jobParameters);
+    }
+
+    @Override
+    public void deleteStepExecution(StepExecution stepExecution) {
+        delegado.deleteStepExecution(stepExecution);
+    }
+
+    @Override
+    public void deleteJobExecution(JobExecution jobExecution) {
+        delegado.deleteJobExecution(jobExecution);
+    }
+
+    @Override
+    public void deleteJobInstance(JobInstance jobInstance) {
+        delegado.deleteJobInstance(jobInstance);
+    }
+}
@@ -0,0 +1,202 @@
+package com.duoc.advanced;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+import org.springframework.batch.core.repository.dao.DefaultExecutionContextSerializer;
+
+/**
+ * Serializa el ExecutionContext en un formato binario compacto, comprimido con Deflate (nivel más rápido) y codificado
+ * en Base64 porque las columnas de BATCH_STEP_EXECUTION_CONTEXT son de texto. Con los nombres de producto repetidos
+ * el contexto cabe en SHORT_CONTEXT y no se escribe la columna SERIALIZED_CONTEXT.
+ * Los tipos que usa el proceso de ventas (String, Integer, Long, Double, Boolean y los arreglos String[],
+ * long[] y double[] de VentasAggregator) se escriben sin los descriptores de clase de la serialización de Java;
+ * cualquier otro valor Serializable se escribe con la serialización de Java.
+ * Al leer reconoce también los contextos escritos por DefaultExecutionContextSerializer, por lo que se puede
+ * activar sobre un JobRepository con ejecuciones anteriores. Volver a DefaultExecutionContextSerializer, en cambio,
+ * requiere que no queden ejecuciones por reiniciar escritas en este formato.
+ */
+public class CompactExecutionContextSerializer implements ExecutionContextSerializer {
+
+    private static final int MAGICO = 0x56430001; // "VC", versión 1; la serialización de Java empieza con 0xACED
+
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte BOOLEAN = 5;
+    private static final byte STRINGS = 6;
+    private static final byte LONGS = 7;
+    private static final byte DOUBLES = 8;
+    private static final byte OBJETO = 9;
+
+    private final DefaultExecutionContextSerializer estandar = new DefaultExecutionContextSerializer();
+
+    @Override
+    public void serialize(Map<String, Object> contexto, OutputStream salida) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        new DataOutputStream(bytes).writeInt(MAGICO);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DataOutputStream datos = new DataOutputStream(new DeflaterOutputStream(bytes, deflater))) {
+            datos.writeInt(contexto.size());
+            for (Map.Entry<String, Object> entrada : contexto.entrySet()) {
+                datos.writeUTF(entrada.getKey());
+                escribir(datos, entrada.getKey(), entrada.getValue());
+            }
+        } finally {
+            deflater.end();
+        }
+        salida.write(Base64.getEncoder().encode(bytes.toByteArray()));
+    }
+
+    @Override
+    public Map<String, Object> deserialize(InputStream entrada) throws IOException {
+        byte[] texto = entrada.readAllBytes();
+        byte[] bytes = Base64.getDecoder().decode(texto);
+        if (bytes.length < 4 || new DataInputStream(new ByteArrayInputStream(bytes)).readInt() != MAGICO) {
+            return estandar.deserialize(new ByteArrayInputStream(texto)); // Contexto escrito con la serialización de Java
+        }
+        try (DataInputStream datos = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(bytes, 4, bytes.length - 4)))) {
+            int tamano = datos.readInt();
+            Map<String, Object> contexto = new HashMap<>(tamano * 4 / 3 + 1);
+            for (int i = 0; i < tamano; i++) {
+                contexto.put(datos.readUTF(), leer(datos));
+            }
+            return contexto;
+        }
+    }
+
+    private static void escribir(DataOutputStream datos, String clave, Object valor) throws IOException {
+        if (valor instanceof String s) {
+            datos.writeByte(STRING);
+            escribirTexto(datos, s);
+        } else if (valor instanceof Integer n) {
+            datos.writeByte(INTEGER);
+            datos.writeInt(n);
+        } else if (valor instanceof Long n) {
+            datos.writeByte(LONG);
+            datos.writeLong(n);
+        } else if (valor instanceof Double n) {
+            datos.writeByte(DOUBLE);
+            datos.writeDouble(n);
+        } else if (valor instanceof Boolean b) {
+            datos.writeByte(BOOLEAN);
+            datos.writeBoolean(b);
+        } else if (valor instanceof String[] arreglo) {
+            datos.writeByte(STRINGS);
+            datos.writeInt(arreglo.length);
+            for (String s : arreglo) {
+                escribirTexto(datos, s);
+            }
+        } else if (valor instanceof long[] arreglo) {
+            datos.writeByte(LONGS);
+            datos.writeInt(arreglo.length);
+            for (long n : arreglo) {
+                datos.writeLong(n);
+            }
+        } else if (valor instanceof double[] arreglo) {
+            datos.writeByte(DOUBLES);
+            datos.writeInt(arreglo.length);
+            for (double n : arreglo) {
+                datos.writeDouble(n);
+            }
+        } else if (valor instanceof Serializable) {
+            datos.writeByte(OBJETO);
+            ByteArrayOutputStream objeto = new ByteArrayOutputStream();
+            try (ObjectOutputStream salida = new ObjectOutputStream(objeto)) {
+                salida.writeObject(valor);
+            }
+            datos.writeInt(objeto.size());
+            objeto.writeTo(datos);
+        } else {
+            throw new IllegalArgumentException("El valor de la clave " + clave + " no es serializable: "
+                    + (valor == null ? "null" : valor.getClass().getName()));
+        }
+    }
+
+    private static Object leer(DataInputStream datos) throws IOException {
+        byte tipo = datos.readByte();
+        switch (tipo) {
+            case STRING:
+                return leerTexto(datos);
+            case INTEGER:
+                return datos.readInt();
+            case LONG:
+                return datos.readLong();
+            case DOUBLE:
+                return datos.readDouble();
+            case BOOLEAN:
+                return datos.readBoolean();
+            case STRINGS: {
+                String[] arreglo = new String[datos.readInt()];
+                for (int i = 0; i < arreglo.length; i++) {
+                    arreglo[i] = leerTexto(datos);
+                }
+                return arreglo;
+            }
+            case LONGS: {
+                long[] arreglo = new long[datos.readInt()];
+                for (int i = 0; i < arreglo.length; i++) {
+                    arreglo[i] = datos.readLong();
+                }
+                return arreglo;
+            }
+            case DOUBLES: {
+                double[] arreglo = new double[datos.readInt()];
+                for (int i = 0; i < arreglo.length; i++) {
+                    arreglo[i] = datos.readDouble();
+                }
+                return arreglo;
+            }
+            case OBJETO: {
+                byte[] objeto = new byte[datos.readInt()];
+                datos.readFully(objeto);
+                try (ObjectInputStream entrada = new ObjectInputStream(new ByteArrayInputStream(objeto))) {
+                    return entrada.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IllegalStateException("Tipo desconocido en el ExecutionContext", e);
+                }
+            }
+            default:
+                throw new IllegalArgumentException("Tipo " + tipo + " desconocido en el ExecutionContext");
+        }
+    }
+
+    // Los valores de texto llevan su largo en bytes: writeUTF solo admite hasta 65535 bytes
+    // Un largo de -1 es null: las posiciones libres de los arreglos de VentasAggregator
+    private static void escribirTexto(DataOutputStream datos, String texto) throws IOException {
+        if (texto == null) {
+            datos.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = texto.getBytes(StandardCharsets.UTF_8);
+        datos.writeInt(utf8.length);
+        datos.write(utf8);
+    }
+
+    private static String leerTexto(DataInputStream datos) throws IOException {
+        int largo = datos.readInt();
+        if (largo < 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[largo];
+        datos.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,17 @@
+package com.duoc.advanced;
+
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.ComponentScans;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Escanea los componentes de los paquetes items y jobs en el arranque por defecto, que escanea com.duoc.advanced.
+ * Con ventas.arranque=ligero esta clase no se registra: {@link ArranqueLigero} registra esos beans uno por uno.
+ */
+@Configuration
+@ComponentScans({
+    @ComponentScan(basePackages = "com.duoc.items"),
+    @ComponentScan(basePackages = "com.duoc.jobs")
+})
+public class ComponentesConfiguration {
+}
@@ -1,13 +1,24 @@
 package com.duoc.advanced;
 
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
 import javax.sql.DataSource;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
 import org.springframework.jdbc.support.JdbcTransactionManager;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
 
+import com.zaxxer.hikari.HikariDataSource;
+
 /**
  * Configuración de la fuente de datos y el manejador de transacciones para la aplicación.
  * Define una base de datos embebida H2 y el manejador de transacciones JDBC.
@@ -15,18 +26,38 @@ import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
 @Configuration
 public class DataSourceConfiguration {
 
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceConfiguration.class);
+
     /**
-     * Configura una base de datos embebida de tipo H2 para la aplicación.
-     * Carga el script SQL "schema-all.sql" para inicializar el esquema de la base de datos.
+     * Configura la base de datos H2 de la aplicación.
+     * <ul>
+     *   <li>Sin ventas.bd.url, una base en memoria que se crea con el script "schema-all.sql" en cada inicio.</li>
+     *   <li>Con ventas.bd.url (por ejemplo jdbc:h2:file:./datos/ventas), una base en archivo que se reutiliza entre
+     *       ejecuciones: el script solo se ejecuta si aún no existen las tablas de Spring Batch, y el JobRepository
+     *       y ventas_informe se conservan.</li>
+     * </ul>
      *
-     * @return Un objeto DataSource que representa la base de datos embebida H2 configurada.
+     * @param url La URL JDBC de la base en archivo, o vacía para la base en memoria.
+     * @param conexiones Conexiones del pool de la base en archivo; una por partición en paralelo más la del Job.
+     * @return Un objeto DataSource que representa la base de datos H2 configurada.
      */
     @Bean
-    public DataSource dataSource() {
-        return new EmbeddedDatabaseBuilder()
-            .setType(EmbeddedDatabaseType.H2) // Define la base de datos embebida como H2
-            .addScript("schema-all.sql") // Carga el script para el esquema de la base de datos
-            .build();
+    public DataSource dataSource(@Value("${ventas.bd.url:}") String url,
+                                 @Value("${ventas.bd.conexiones:11}") int conexiones) throws SQLException {
+        if (url.isBlank()) {
+            return new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2) // Define la base de datos embebida como H2
+                .addScript("schema-all.sql") // Carga el script para el esquema de la base de datos
+                .build();
+        }
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername("sa");
+        dataSource.setPassword("");
+        dataSource.setMaximumPoolSize(conexiones);
+        dataSource.setMinimumIdle(1); // Las demás conexiones se abren solo si las particiones las piden
+        inicializarEsquema(dataSource, url);
+        return dataSource;
     }
 
     /**
@@ -40,4 +71,17 @@ public class DataSourceConfiguration {
     public JdbcTransactionManager transactionManager(DataSource dataSource) {
         return new JdbcTransactionManager(dataSource);
     }
+
+    // Ejecuta schema-all.sql solo en una base nueva; el script borra y vuelve a crear las tablas del informe
+    private static void inicializarEsquema(DataSource dataSource, String url) throws SQLException {
+        try (Connection conexion = dataSource.getConnection();
+             ResultSet tablas = conexion.getMetaData().getTables(null, null, "BATCH_JOB_INSTANCE", null)) {
+            if (tablas.next()) {
+                logger.info("Base de datos {} ya inicializada, se omite schema-all.sql", url);
+                return;
+            }
+        }
+        new ResourceDatabasePopulator(new ClassPathResource("schema-all.sql")).execute(dataSource);
+        logger.info("Base de datos {} creada con schema-all.sql", url);
+    }
 }
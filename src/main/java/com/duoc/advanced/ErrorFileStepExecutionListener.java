@@ -5,32 +5,39 @@ import org.slf4j.LoggerFactory;
 import org.springframework.batch.core.ExitStatus;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.StepExecutionListener;
-import org.springframework.batch.item.ExecutionContext;
-import org.springframework.batch.item.file.FlatFileItemWriter;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.stereotype.Component;
-import com.duoc.business.Venta;
+
+import com.duoc.items.ErrorSink;
 
 @Component
 public class ErrorFileStepExecutionListener implements StepExecutionListener {
 
     private static final Logger logger = LoggerFactory.getLogger(ErrorFileStepExecutionListener.class);
-    private final FlatFileItemWriter<Venta> errorItemWriter;
+    private final ErrorSink errorSink;
+    private final JobRepository jobRepository;
 
-    public ErrorFileStepExecutionListener(FlatFileItemWriter<Venta> errorItemWriter) {
+    public ErrorFileStepExecutionListener(ErrorSink errorSink, JobRepository jobRepository) {
         logger.info("Se ejecuto el ErrorFileStepExecutionListener");
-        this.errorItemWriter = errorItemWriter;
+        this.errorSink = errorSink;
+        this.jobRepository = jobRepository;
     }
 
     @Override
     public void beforeStep(StepExecution stepExecution) {
         logger.info("Abre el archivo de errores al inicio");
-        errorItemWriter.open(new ExecutionContext()); // Abre el archivo de errores al inicio
+        // Si el Step ya se ejecutó antes en esta instancia del Job, es un reintento y se agrega al archivo existente
+        boolean reintento = jobRepository.getStepExecutionCount(stepExecution.getJobExecution().getJobInstance(),
+                stepExecution.getStepName()) > 1;
+        String archivo = stepExecution.getJobParameters().getString(JobRunner.ERRORES, "errores.csv"); // Cada archivo de entrada tiene su propio archivo de errores
+        errorSink.abrir(stepExecution.getJobExecutionId(), new FileSystemResource(archivo), reintento); // Abre el archivo de errores e inicia su hilo escritor
     }
 
     @Override
     public ExitStatus afterStep(StepExecution stepExecution) {
         logger.info("Cierra el archivo de errores al final");
-        errorItemWriter.close(); // Cierra el archivo de errores al final
+        errorSink.cerrar(stepExecution.getJobExecutionId()); // Escribe los registros pendientes y cierra el archivo de errores
         return ExitStatus.COMPLETED;
     }
-}
\ No newline at end of file
+}
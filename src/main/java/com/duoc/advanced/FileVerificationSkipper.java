@@ -1,26 +1,182 @@
 package com.duoc.advanced;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
 import org.springframework.batch.core.step.skip.SkipPolicy;
 import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.duoc.business.InvalidDataException;
+import com.duoc.business.Venta;
+import com.duoc.business.VentaRechazada;
+import com.duoc.items.DestinoRechazos;
+import com.duoc.items.ErrorSink;
+import com.duoc.items.ReglasValidacion;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 
+/**
+ * Política de omisión del Step de cada partición, con un máximo de registros omitidos por partición.
+ * Recibe dos tipos de rechazo:
+ * <ul>
+ *   <li>Excepciones de lectura (FlatFileParseException) o InvalidDataException, que omite mientras no se supere el máximo.</li>
+ *   <li>Códigos de las ReglasValidacion, sin excepción: la venta se suma enseguida a los rechazados de la partición
+ *       (clave "rechazados" del ExecutionContext), que Spring Batch guarda junto con el chunk antes del commit, y queda
+ *       pendiente en la transacción; cuando se confirma se envía al ErrorSink y se cuenta en la métrica ventas.omitidos.
+ *       Si el chunk hace rollback se descarta y se resta de los rechazados, porque la venta se vuelve a validar en el
+ *       reintento.</li>
+ * </ul>
+ * El máximo se compara con la suma de las omisiones de Spring Batch y los rechazos por reglas.
+ * Los registros que omite Spring Batch llegan por {@link #registrarOmitido(VentaRechazada, Counter)} desde el
+ * VentaSkipListener y siguen el mismo camino: se envían al ErrorSink solo cuando se confirma el chunk, de modo que un
+ * commit fallido no los escribe dos veces en el archivo de errores.
+ */
 @Component
-public class FileVerificationSkipper implements SkipPolicy {
+public class FileVerificationSkipper implements SkipPolicy, DestinoRechazos {
+
+    /** Clave del ExecutionContext de la partición con las ventas rechazadas por reglas ya confirmadas. */
+    public static final String RECHAZADOS = "rechazados";
 
     private static final Logger logger = LoggerFactory.getLogger(FileVerificationSkipper.class);
+    private final ReglasValidacion reglas;
+    private final ErrorSink errorSink;
+    private final MeterRegistry registry;
+    private final long maximoOmitidos; // Registros omitidos permitidos por partición
+    private final boolean logPorItem; // Registra en el log cada excepción evaluada
+
+    public FileVerificationSkipper(ReglasValidacion reglas, ErrorSink errorSink, MeterRegistry registry,
+                                   @Value("${ventas.omitidos.maximo:10}") long maximoOmitidos,
+                                   @Value("${ventas.log.por-item:true}") boolean logPorItem) {
+        this.reglas = reglas;
+        this.errorSink = errorSink;
+        this.registry = registry;
+        this.maximoOmitidos = maximoOmitidos;
+        this.logPorItem = logPorItem;
+    }
 
     @Override
     public boolean shouldSkip(Throwable t, long skipCount) { // Cambia int a long en skipCount
         // Omite líneas si el error es FlatFileParseException y el número de saltos no supera el límite
-        logger.info("Error: FlatFileParseException");
-        if ((t instanceof InvalidDataException || t instanceof FlatFileParseException) && skipCount < 10) {
-            logger.warn("CustomSkipPolicy - Excepción omitida: {}", t.getMessage()); // Registra un aviso cuando se omite una excepción
+        if (logPorItem) {
+            logger.info("Error: {}", t.getClass().getSimpleName());
+        }
+        StepContext contexto = StepSynchronizationManager.getContext();
+        long rechazados = contexto == null ? 0 : rechazados(contexto.getStepExecution());
+        if ((t instanceof InvalidDataException || t instanceof FlatFileParseException) && skipCount + rechazados < maximoOmitidos) {
+            if (logPorItem) {
+                logger.warn("CustomSkipPolicy - Excepción omitida: {}", t.getMessage()); // Registra un aviso cuando se omite una excepción
+            }
             return true;  // Indica que la excepción se debe omitir
         }
         return false; // Indica que la excepción no se debe omitir
     }
-}
\ No newline at end of file
+
+    @Override
+    public boolean omitir(Venta venta, int codigo) {
+        StepExecution stepExecution = StepSynchronizationManager.getContext().getStepExecution();
+        Pendientes pendientes = pendientes(stepExecution);
+        long rechazados = rechazados(stepExecution); // Incluye los pendientes del chunk en curso
+        if (stepExecution.getSkipCount() + rechazados >= maximoOmitidos) {
+            return false;
+        }
+        stepExecution.getExecutionContext().putLong(RECHAZADOS, rechazados + 1); // Se guarda con el chunk, antes del commit
+        pendientes.porReglas++;
+        agregar(pendientes, VentaRechazada.de(venta, reglas.motivo(codigo)), contador("procesamiento", "ReglaValidacion", reglas.nombre(codigo)));
+        return true;
+    }
+
+    /**
+     * Envía al ErrorSink un registro que omitió Spring Batch, en la lectura o el procesamiento, cuando se confirme
+     * el chunk en curso. Si el chunk hace rollback se descarta: Spring Batch lo vuelve a omitir en el reintento.
+     *
+     * @param rechazo El registro a escribir en el archivo de errores.
+     * @param contador La métrica de omitidos que se incrementa al confirmar.
+     */
+    public void registrarOmitido(VentaRechazada rechazo, Counter contador) {
+        agregar(pendientes(StepSynchronizationManager.getContext().getStepExecution()), rechazo, contador);
+    }
+
+    /**
+     * La métrica ventas.omitidos de una fase, tipo y causa. Los contadores quedan en caché en el registro;
+     * la búsqueda por nombre y etiquetas no crea uno nuevo por registro.
+     */
+    Counter contador(String fase, String tipo, String causa) {
+        return Counter.builder("ventas.omitidos").description("Registros omitidos por fase y tipo de excepción")
+                .tag("fase", fase)
+                .tag("tipo", tipo)
+                .tag("causa", causa)
+                .register(registry);
+    }
+
+    private static void agregar(Pendientes pendientes, VentaRechazada rechazo, Counter contador) {
+        pendientes.rechazos.add(rechazo);
+        pendientes.contadores.add(contador);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendientes.confirmar(); // Sin transacción no hay rollback que esperar
+        }
+    }
+
+    // Rechazos de la partición, incluidos los de intentos anteriores y los del chunk en curso
+    private static long rechazados(StepExecution stepExecution) {
+        return stepExecution.getExecutionContext().getLong(RECHAZADOS, 0);
+    }
+
+    // Rechazos y omisiones del chunk en curso: uno por transacción, que se confirma o se descarta con ella
+    private Pendientes pendientes(StepExecution stepExecution) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new Pendientes(stepExecution);
+        }
+        Pendientes pendientes = (Pendientes) TransactionSynchronizationManager.getResource(this);
+        if (pendientes == null) {
+            pendientes = new Pendientes(stepExecution);
+            TransactionSynchronizationManager.bindResource(this, pendientes);
+            TransactionSynchronizationManager.registerSynchronization(pendientes);
+        }
+        return pendientes;
+    }
+
+    private final class Pendientes implements TransactionSynchronization {
+
+        private final StepExecution stepExecution;
+        private final List<VentaRechazada> rechazos = new ArrayList<>(); // Rechazos por reglas y omisiones de Spring Batch
+        private final List<Counter> contadores = new ArrayList<>(); // Métrica de cada rechazo
+        private int porReglas; // Rechazos por reglas entre los pendientes
+
+        private Pendientes(StepExecution stepExecution) {
+            this.stepExecution = stepExecution;
+        }
+
+        @Override
+        public void afterCommit() {
+            confirmar();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status != STATUS_COMMITTED && porReglas > 0) { // El reintento vuelve a validar las ventas del chunk
+                stepExecution.getExecutionContext().putLong(RECHAZADOS, rechazados(stepExecution) - porReglas);
+            }
+            TransactionSynchronizationManager.unbindResourceIfPossible(FileVerificationSkipper.this);
+        }
+
+        private void confirmar() {
+            for (int i = 0; i < rechazos.size(); i++) {
+                errorSink.registrar(stepExecution.getJobExecutionId(), rechazos.get(i));
+                contadores.get(i).increment();
+            }
+            rechazos.clear();
+            contadores.clear();
+            porReglas = 0;
+        }
+    }
+}
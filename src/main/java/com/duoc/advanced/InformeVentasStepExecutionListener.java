@@ -0,0 +1,243 @@
+package com.duoc.advanced;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.file.FlatFileItemWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.duoc.business.InformeVenta;
+import com.duoc.items.CorridaVentas;
+import com.duoc.items.InformeVentaEnriquecedor;
+import com.duoc.items.VentasAggregator;
+import com.duoc.items.VentasAgregadorExterno;
+import com.duoc.items.VentasColumnarItemWriter;
+import com.duoc.items.VentasJdbcItemWriter;
+import com.duoc.jobs.VentasStepExecutionSplitter;
+
+/**
+ * Escribe el informe consolidado por producto al final del Step.
+ * Si el Step no falló, combina los totales de la última ejecución de cada partición, incluidas las que terminaron
+ * en un intento anterior, y escribe una línea por producto en output.csv, en la tabla ventas_informe y/o en el
+ * archivo columnar output.vcol, según ventas.salida.destino: una lista separada por comas de csv, jdbc y columnar
+ * ("ambos" equivale a csv,jdbc).
+ * Con ventas.catalogo.activo=true cada informe se completa con la referencia de su producto antes de escribirse,
+ * buscando los productos del informe juntos en el {@link com.duoc.items.CatalogoProductos}; los productos con y sin
+ * referencia quedan en el ExecutionContext del Step (catalogo.con-referencia y catalogo.sin-referencia).
+ * Con ventas.agregacion.modo=externa los totales no se cargan en memoria: las corridas de las particiones se mezclan
+ * en orden de producto y el informe se escribe en lotes de {@value #TAMANO_LOTE} productos a medida que salen de la mezcla.
+ */
+@Component
+public class InformeVentasStepExecutionListener implements StepExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(InformeVentasStepExecutionListener.class);
+    private static final String CON_REFERENCIA = "catalogo.con-referencia";
+    private static final String SIN_REFERENCIA = "catalogo.sin-referencia";
+    static final int TAMANO_LOTE = 1000; // Productos por escritura en la agregación externa
+    private final VentasStepExecutionSplitter splitter;
+    private final FlatFileItemWriter<InformeVenta> itemWriter;
+    private final VentasJdbcItemWriter jdbcItemWriter;
+    private final VentasColumnarItemWriter columnarItemWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final InformeVentaEnriquecedor enriquecedor;
+    private final boolean enriquecer; // Completa el informe con la referencia de cada producto
+    private final boolean csv; // Escribe el informe en el archivo de salida
+    private final boolean jdbc; // Escribe el informe en la tabla ventas_informe
+    private final boolean columnar; // Escribe el informe en el archivo columnar binario
+    private final boolean externa; // Mezcla las corridas de la agregación externa en lugar de combinar los totales en memoria
+    private final String directorioAgregacion;
+
+    public InformeVentasStepExecutionListener(VentasStepExecutionSplitter splitter,
+                                              FlatFileItemWriter<InformeVenta> itemWriter,
+                                              VentasJdbcItemWriter jdbcItemWriter,
+                                              VentasColumnarItemWriter columnarItemWriter,
+                                              JdbcTransactionManager transactionManager,
+                                              InformeVentaEnriquecedor enriquecedor,
+                                              @Value("${ventas.salida.destino:csv}") String destino,
+                                              @Value("${ventas.catalogo.activo:false}") boolean enriquecer,
+                                              @Value("${ventas.agregacion.modo:memoria}") String agregacion,
+                                              @Value("${ventas.agregacion.directorio:}") String directorioAgregacion) {
+        this.splitter = splitter;
+        this.itemWriter = itemWriter;
+        this.jdbcItemWriter = jdbcItemWriter;
+        this.columnarItemWriter = columnarItemWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enriquecedor = enriquecedor;
+        this.enriquecer = enriquecer;
+        Set<String> destinos = Set.of(destino.replace("ambos", "csv,jdbc").replace(" ", "").split(","));
+        this.csv = destinos.contains("csv");
+        this.jdbc = destinos.contains("jdbc");
+        this.columnar = destinos.contains("columnar");
+        if (!Set.of("csv", "jdbc", "columnar").containsAll(destinos)) {
+            throw new IllegalArgumentException("ventas.salida.destino debe ser una lista de csv, jdbc y columnar: " + destino);
+        }
+        this.externa = "externa".equals(agregacion);
+        this.directorioAgregacion = directorioAgregacion;
+        if (externa && columnar) {
+            // El escritor columnar arma todas las columnas en memoria antes de escribir el archivo
+            throw new IllegalArgumentException("ventas.agregacion.modo=externa no admite el destino columnar");
+        }
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        if (stepExecution.getStatus() == BatchStatus.FAILED) {
+            logger.warn("El Step falló, no se escribe el informe consolidado");
+            return stepExecution.getExitStatus();
+        }
+        if (externa) {
+            return escribirDesdeCorridas(stepExecution);
+        }
+        VentasAggregator aggregator = new VentasAggregator();
+        for (StepExecution particion : splitter.ultimasParticiones(stepExecution)) {
+            aggregator.combinar(particion.getExecutionContext()); // Cada partición aporta una sola vez sus totales confirmados
+        }
+        Chunk<InformeVenta> informes = new Chunk<>(aggregator.informes());
+        if (enriquecer) {
+            int encontrados = enriquecedor.enriquecer(informes.getItems());
+            registrarCatalogo(stepExecution.getExecutionContext(), encontrados, informes.size() - encontrados);
+        }
+        if (csv) {
+            escribirArchivo(itemWriter, informes);
+        }
+        if (columnar) {
+            escribirArchivo(columnarItemWriter, informes);
+        }
+        if (jdbc) {
+            // Una sola transacción: la tabla queda con el informe completo o sin cambios
+            transactionTemplate.executeWithoutResult(estado -> jdbcItemWriter.write(informes));
+        }
+        stepExecution.getExecutionContext().putInt("productos", aggregator.productos());
+        logger.info("Informe consolidado escrito con {} productos", aggregator.productos());
+        return stepExecution.getExitStatus();
+    }
+
+    // Mezcla las corridas de todas las particiones y escribe cada lote de productos apenas se completa
+    private ExitStatus escribirDesdeCorridas(StepExecution stepExecution) {
+        List<Path> corridas = new ArrayList<>();
+        for (StepExecution particion : splitter.ultimasParticiones(stepExecution)) {
+            String[] rutas = (String[]) particion.getExecutionContext().get(VentasAgregadorExterno.CORRIDAS);
+            if (rutas != null) {
+                for (String ruta : rutas) {
+                    corridas.add(Paths.get(ruta));
+                }
+            }
+        }
+        long[] catalogo = new long[2]; // Productos con y sin referencia de todos los lotes
+        long productos;
+        try {
+            if (csv) {
+                itemWriter.open(new ExecutionContext());
+            }
+            if (jdbc) {
+                // Una sola transacción: la tabla queda con el informe completo o sin cambios
+                productos = transactionTemplate.execute(estado -> mezclar(corridas, catalogo));
+            } else {
+                productos = mezclar(corridas, catalogo);
+            }
+        } finally {
+            if (csv) {
+                itemWriter.close();
+            }
+        }
+        if (enriquecer) {
+            registrarCatalogo(stepExecution.getExecutionContext(), catalogo[0], catalogo[1]);
+        }
+        borrarCorridas(stepExecution.getJobExecution().getJobInstance().getInstanceId());
+        stepExecution.getExecutionContext().putInt("productos", Math.toIntExact(productos));
+        logger.info("Informe consolidado escrito con {} productos desde {} corridas", productos, corridas.size());
+        return stepExecution.getExitStatus();
+    }
+
+    private long mezclar(List<Path> corridas, long[] catalogo) {
+        List<InformeVenta> lote = new ArrayList<>(TAMANO_LOTE);
+        try {
+            long productos = CorridaVentas.mezclar(corridas, (producto, cantidad, total) -> {
+                InformeVenta informe = new InformeVenta();
+                informe.setProducto(producto);
+                informe.setCantidadTotal(cantidad);
+                informe.setTotalCentavos(total);
+                lote.add(informe);
+                if (lote.size() == TAMANO_LOTE) {
+                    escribirLote(lote, catalogo);
+                    lote.clear();
+                }
+            });
+            if (!lote.isEmpty()) {
+                escribirLote(lote, catalogo);
+            }
+            return productos;
+        } catch (Exception e) {
+            throw new ItemStreamException("Error al escribir el informe consolidado desde las corridas", e);
+        }
+    }
+
+    private void escribirLote(List<InformeVenta> lote, long[] catalogo) throws Exception {
+        if (enriquecer) {
+            int encontrados = enriquecedor.enriquecer(lote);
+            catalogo[0] += encontrados;
+            catalogo[1] += lote.size() - encontrados;
+        }
+        Chunk<InformeVenta> informes = new Chunk<>(lote);
+        if (csv) {
+            itemWriter.write(informes);
+        }
+        if (jdbc) {
+            jdbcItemWriter.write(informes);
+        }
+    }
+
+    // Las corridas ya están en el informe; un fallo al borrarlas no afecta al Job
+    private void borrarCorridas(long jobInstanceId) {
+        Path carpeta = VentasAgregadorExterno.directorioJob(directorioAgregacion, jobInstanceId);
+        if (!Files.exists(carpeta)) {
+            return;
+        }
+        try (Stream<Path> archivos = Files.walk(carpeta)) {
+            for (Path archivo : archivos.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(archivo);
+            }
+        } catch (IOException e) {
+            logger.warn("No se pudieron borrar las corridas de {}: {}", carpeta, e.getMessage());
+        }
+    }
+
+    // Deja en el ExecutionContext cuántos productos del informe tenían referencia (una fila por producto)
+    private static void registrarCatalogo(ExecutionContext contexto, long conReferencia, long sinReferencia) {
+        contexto.putLong(CON_REFERENCIA, conReferencia);
+        contexto.putLong(SIN_REFERENCIA, sinReferencia);
+        logger.info("Informe enriquecido: {} productos con referencia y {} sin referencia", conReferencia, sinReferencia);
+    }
+
+    // Una sola escritura con una fila por producto
+    private static void escribirArchivo(ItemStreamWriter<InformeVenta> itemWriter, Chunk<InformeVenta> informes) {
+        try {
+            itemWriter.open(new ExecutionContext());
+            itemWriter.write(informes);
+        } catch (Exception e) {
+            throw new ItemStreamException("Error al escribir el informe consolidado", e);
+        } finally {
+            itemWriter.close();
+        }
+    }
+}
@@ -1,15 +1,31 @@
 package com.duoc.advanced;
 
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.StepExecution;
 import org.springframework.stereotype.Component;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Component
 public class JobCompletionListener implements JobExecutionListener {
     private static final Logger logger = LoggerFactory.getLogger(JobCompletionListener.class);
 
+    private final MetricasExporter metricasExporter;
+    private final AtomicLong filasPorSegundo = new AtomicLong(); // Rendimiento del último Job terminado
+
+    public JobCompletionListener(MetricasExporter metricasExporter, MeterRegistry registry) {
+        this.metricasExporter = metricasExporter;
+        Gauge.builder("ventas.filas.por.segundo", filasPorSegundo, AtomicLong::get)
+                .description("Filas por segundo del último Job terminado").register(registry);
+    }
+
     @Override
     public void beforeJob(JobExecution jobExecution) {
         logger.info("Inicio del trabajo batch con ID: {}", jobExecution.getJobId());
@@ -22,6 +38,25 @@ public class JobCompletionListener implements JobExecutionListener {
         } else {
             logger.info("Job completado exitosamente con ID: {}", jobExecution.getJobId());
         }
+        registrarRendimiento(jobExecution);
+        metricasExporter.escribirArchivo();
         logger.info("Resumen del Job: {}", jobExecution.toString());
     }
+
+    // Filas leídas por las particiones dividido por el tiempo del Step principal, sumando sus reintentos
+    private void registrarRendimiento(JobExecution jobExecution) {
+        long filas = 0;
+        long milisegundos = 0;
+        for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+            if (stepExecution.getStepName().startsWith(VentasJobConfig.WORKER_STEP)) {
+                filas += stepExecution.getReadCount() + stepExecution.getReadSkipCount();
+            } else if (stepExecution.getStartTime() != null && stepExecution.getEndTime() != null) {
+                milisegundos += Duration.between(stepExecution.getStartTime(), stepExecution.getEndTime()).toMillis();
+            }
+        }
+        if (milisegundos > 0) {
+            filasPorSegundo.set(filas * 1000 / milisegundos);
+            logger.info("Rendimiento: {} filas en {} ms ({} filas/s)", filas, milisegundos, filasPorSegundo.get());
+        }
+    }
 }
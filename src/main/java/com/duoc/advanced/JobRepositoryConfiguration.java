@@ -0,0 +1,61 @@
+package com.duoc.advanced;
+
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.dao.DefaultExecutionContextSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Modo del JobRepository para ejecuciones que priorizan el rendimiento.
+ * <ul>
+ *   <li>ventas.repositorio.modo=estandar: cada commit de chunk escribe el StepExecution y su ExecutionContext.
+ *       Un reinicio continúa exactamente desde el último chunk confirmado.</li>
+ *   <li>ventas.repositorio.modo=agrupado: {@link CoalescingJobRepository} escribe como máximo una vez por
+ *       ventas.repositorio.intervalo-ms por Step. Si el Step termina, aunque sea con error, la garantía es la misma
+ *       que en el modo estándar; si el proceso se cae, el reinicio retrocede hasta un intervalo. No se combina con
+ *       ventas.dedup.activo.</li>
+ *   <li>ventas.repositorio.contexto=compacto: {@link CompactExecutionContextSerializer} en lugar de la serialización
+ *       de Java. No cambia la garantía de reinicio, pero los contextos guardados solo se leen en este modo.</li>
+ * </ul>
+ */
+@Configuration
+public class JobRepositoryConfiguration {
+
+    /**
+     * Serializador del ExecutionContext que usa el JobRepository de @EnableBatchProcessing.
+     *
+     * @param contexto java o compacto.
+     * @return El serializador configurado.
+     */
+    @Bean
+    public ExecutionContextSerializer executionContextSerializer(@Value("${ventas.repositorio.contexto:java}") String contexto) {
+        return "compacto".equals(contexto) ? new CompactExecutionContextSerializer() : new DefaultExecutionContextSerializer();
+    }
+
+    /**
+     * En el modo agrupado envuelve el JobRepository con {@link CoalescingJobRepository}.
+     * Es estático y lee el Environment directamente porque los BeanPostProcessor se crean antes de que se resuelvan
+     * los @Value del resto de los beans.
+     *
+     * @param environment El Environment con la configuración del proceso.
+     * @return El BeanPostProcessor que decora el JobRepository.
+     */
+    @Bean
+    public static BeanPostProcessor jobRepositoryPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof JobRepository jobRepository
+                        && "agrupado".equals(environment.getProperty("ventas.repositorio.modo", "estandar"))) {
+                    return new CoalescingJobRepository(jobRepository,
+                            environment.getProperty("ventas.repositorio.intervalo-ms", Long.class, 1000L));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -1,40 +1,164 @@
 package com.duoc.advanced;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
-import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.JobParametersInvalidException;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.JobRestartException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Component;
 
+import com.duoc.items.Recursos;
+import com.duoc.jobs.VentasAcumuladoTasklet;
+
 /**
  * Clase que se encarga de ejecutar el trabajo de Spring Batch llamado "ventasJob".
- * Utiliza el JobLauncher para iniciar el trabajo con parámetros únicos.
+ * Utiliza un TaskExecutorJobLauncher para iniciar el trabajo con parámetros únicos.
  */
 @Component
 public class JobRunner {
 
+    /** Parámetro con la URL del archivo de entrada. */
+    public static final String ARCHIVO = "archivo";
+    /** Parámetro identificador con la huella SHA-256 del contenido de los archivos de entrada. */
+    public static final String HUELLA = "huella";
+    /** Parámetro con la ruta del informe consolidado. */
+    public static final String SALIDA = "salida";
+    /** Parámetro con la ruta del archivo de errores. */
+    public static final String ERRORES = "errores";
+    /** Parámetro opcional con la fecha de consolidación (yyyy-MM-dd) del informe en ventas_informe. */
+    public static final String FECHA = "fecha";
+
+    @Autowired
+    private TaskExecutor jobLauncherTaskExecutor; // Hilos de los Jobs lanzados de forma asíncrona
+
     @Autowired
-    private JobLauncher jobLauncher; // Lanzador del trabajo, encargado de ejecutar los jobs
+    private JobRepository jobRepository; // Repositorio para el lanzador síncrono de la bandeja de entrada
 
     @Autowired
     private Job ventasJob; // Trabajo de ventas configurado en Spring Batch
 
+    @Autowired
+    private Job ventasAcumuladoJob; // Trabajo que suma informes diarios al acumulado de un período
+
     /**
      * Método que ejecuta el trabajo "ventasJob" con parámetros únicos para cada ejecución.
      * Los parámetros se establecen para garantizar que cada ejecución sea reconocida como única por Spring Batch.
+     * El Job se ejecuta en el jobLauncherTaskExecutor y el método retorna apenas se lanza.
+     *
+     * @return Se completa con la ejecución cuando el Job terminó del todo, es decir, después de los listeners
+     *         afterJob y de guardar la ejecución en el JobRepository; antes de eso no conviene cerrar el contexto.
      */
-    public void runVentasJob() {
+    public CompletableFuture<JobExecution> runVentasJob() {
         try {
             // Configura los parámetros para la ejecución del job
             JobParameters jobParameters = new JobParametersBuilder()
                     .addLong("time", System.currentTimeMillis()) // Agrega un parámetro de tiempo único
                     .toJobParameters();
-            
+
+            // El estado de la JobExecution deja de estar en ejecución antes de afterJob, así que el fin se toma de la tarea
+            CompletableFuture<Void> terminada = new CompletableFuture<>();
+            TaskExecutorJobLauncher launcher = new TaskExecutorJobLauncher();
+            launcher.setJobRepository(jobRepository);
+            launcher.setTaskExecutor(tarea -> {
+                try {
+                    jobLauncherTaskExecutor.execute(() -> {
+                        try {
+                            tarea.run();
+                        } finally {
+                            terminada.complete(null);
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    terminada.complete(null); // Rechazada: el lanzador marca la ejecución como fallida y la guarda
+                    throw e;
+                }
+            });
+
             // Ejecuta el trabajo de ventas con los parámetros configurados
-            jobLauncher.run(ventasJob, jobParameters);
+            JobExecution ejecucion = launcher.run(ventasJob, jobParameters);
+            return terminada.thenApply(fin -> ejecucion);
         } catch (Exception e) {
             e.printStackTrace(); // Manejo básico de excepciones en caso de fallo en la ejecución del job
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Ejecuta el trabajo "ventasJob" sobre un archivo y espera a que termine.
+     * La huella del contenido es el parámetro identificador y la ruta no: un archivo que llega cada día con el mismo
+     * nombre y otro contenido es un Job nuevo, el mismo contenido no se procesa dos veces y un archivo cuyo Job falló
+     * se reinicia desde sus particiones pendientes aunque vuelva con otra ruta.
+     * Se ejecuta en el hilo que llama, no en el TaskExecutor de las particiones, para no ocupar sus hilos.
+     *
+     * @param archivo El archivo de ventas a procesar.
+     * @param salida La ruta del informe consolidado.
+     * @param errores La ruta del archivo de errores.
+     * @return La ejecución del Job ya terminada.
+     * @throws JobInstanceAlreadyCompleteException Si un archivo con el mismo contenido ya se procesó.
+     * @throws IOException Si no se puede leer el archivo para calcular su huella.
+     */
+    public JobExecution runVentasJob(Path archivo, Path salida, Path errores)
+            throws JobExecutionAlreadyRunningException, JobRestartException, JobInstanceAlreadyCompleteException,
+            JobParametersInvalidException, IOException {
+        JobParameters jobParameters = new JobParametersBuilder()
+                .addString(HUELLA, Recursos.huella(archivo)) // Identifica la instancia del Job
+                .addString(ARCHIVO, archivo.toUri().toString(), false)
+                .addString(SALIDA, salida.toString(), false)
+                .addString(ERRORES, errores.toString(), false)
+                .toJobParameters();
+        TaskExecutorJobLauncher launcher = new TaskExecutorJobLauncher();
+        launcher.setJobRepository(jobRepository);
+        launcher.setTaskExecutor(new SyncTaskExecutor()); // Ejecuta el Job en el hilo que llama y retorna al terminar
+        return launcher.run(ventasJob, jobParameters);
+    }
+
+    /**
+     * Ejecuta el trabajo "ventasAcumuladoJob", que suma informes diarios al acumulado de un período, y espera a que termine.
+     * El período, los días, la lista de informes y la huella de su contenido identifican la instancia del Job.
+     * El acumulado reconoce cada informe por su día: los días que ya contiene no se vuelven a sumar, y un día que
+     * vuelve con otro contenido hace fallar el Job.
+     *
+     * @param periodo El nombre del acumulado, por ejemplo 2024-W42 o 2024-10.
+     * @param informes Los informes diarios (output.csv de ventasJob) a agregar, por el día que consolida cada uno.
+     * @return La ejecución del Job ya terminada.
+     * @throws JobInstanceAlreadyCompleteException Si esos informes, con el mismo contenido, ya se agregaron a ese período.
+     * @throws IOException Si no se puede leer un informe para calcular su huella.
+     */
+    public JobExecution runVentasAcumuladoJob(String periodo, Map<LocalDate, Path> informes)
+            throws JobExecutionAlreadyRunningException, JobRestartException, JobInstanceAlreadyCompleteException,
+            JobParametersInvalidException, IOException {
+        StringBuilder huellas = new StringBuilder(informes.size() * 65);
+        for (Path informe : informes.values()) {
+            huellas.append(Recursos.huella(informe)).append(',');
         }
+        JobParameters jobParameters = new JobParametersBuilder()
+                .addString(VentasAcumuladoTasklet.PERIODO, periodo)
+                .addString(VentasAcumuladoTasklet.DIAS, informes.keySet().stream()
+                        .map(LocalDate::toString)
+                        .collect(Collectors.joining(",")))
+                .addString(VentasAcumuladoTasklet.ARCHIVOS, informes.values().stream()
+                        .map(informe -> informe.toAbsolutePath().normalize().toString())
+                        .collect(Collectors.joining(",")))
+                .addString(HUELLA, Recursos.huella(huellas)) // Una sola huella: la de cada informe ocupa 64 caracteres
+                .toJobParameters();
+        TaskExecutorJobLauncher launcher = new TaskExecutorJobLauncher();
+        launcher.setJobRepository(jobRepository);
+        launcher.setTaskExecutor(new SyncTaskExecutor());
+        return launcher.run(ventasAcumuladoJob, jobParameters);
     }
 }
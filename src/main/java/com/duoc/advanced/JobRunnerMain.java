@@ -1,15 +1,69 @@
 package com.duoc.advanced;
 
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
 import org.springframework.boot.SpringApplication;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 
+import com.duoc.jobs.ServidorTrabajador;
+
 public class JobRunnerMain {
 
-    public static void main(String[] args) {
-        ApplicationContext context = new AnnotationConfigApplicationContext("com.duoc.advanced");
+    private static final Logger logger = LoggerFactory.getLogger(JobRunnerMain.class);
+
+    public static void main(String[] args) throws Exception {
+        // ventas.arranque decide cómo se arma el contexto, así que se lee de las propiedades del sistema y no de application.properties
+        String arranque = System.getProperty("ventas.arranque", "escaneo");
+        AnnotationConfigApplicationContext context;
+        if ("ligero".equals(arranque)) {
+            context = new AnnotationConfigApplicationContext();
+            new ArranqueLigero().initialize(context); // Registra los beans uno por uno, sin escanear los paquetes
+            context.refresh();
+        } else {
+            context = new AnnotationConfigApplicationContext("com.duoc.advanced");
+        }
+        logger.info("Contexto iniciado en {} ms desde el inicio de la JVM (arranque {})",
+                ManagementFactory.getRuntimeMXBean().getUptime(), arranque);
+        if ("bandeja".equals(context.getEnvironment().getProperty("ventas.modo"))) {
+            context.registerShutdownHook(); // Al detener la aplicación termina los Jobs en curso antes de cerrar
+            context.getBean(VentasInboxWatcher.class).vigilar(); // Procesa los archivos que llegan hasta que se detiene
+            return;
+        }
+        if ("trabajador".equals(context.getEnvironment().getProperty("ventas.modo"))) {
+            context.registerShutdownHook();
+            context.getBean(ServidorTrabajador.class).atender(); // Procesa los chunks de los administradores hasta que se detiene
+            return;
+        }
+        if ("acumulado".equals(context.getEnvironment().getProperty("ventas.modo"))) {
+            // Suma los informes diarios de ventas.acumulado.archivos (dia=ruta, separados por comas) al acumulado de ventas.acumulado.periodo
+            Map<LocalDate, Path> informes = new LinkedHashMap<>();
+            for (String informe : context.getEnvironment().getRequiredProperty("ventas.acumulado.archivos").split(",")) {
+                int igual = informe.indexOf('=');
+                if (igual < 0) {
+                    throw new IllegalArgumentException("ventas.acumulado.archivos: se esperaba dia=ruta en " + informe.trim());
+                }
+                LocalDate dia = LocalDate.parse(informe.substring(0, igual).trim());
+                if (informes.put(dia, Paths.get(informe.substring(igual + 1).trim())) != null) {
+                    throw new IllegalArgumentException("ventas.acumulado.archivos: el día " + dia + " aparece dos veces");
+                }
+            }
+            JobExecution ejecucion = context.getBean(JobRunner.class).runVentasAcumuladoJob(
+                    context.getEnvironment().getRequiredProperty("ventas.acumulado.periodo"), informes);
+            SpringApplication.exit((ApplicationContext) context, () -> ejecucion.getStatus() == BatchStatus.COMPLETED ? 0 : 1);
+            return;
+        }
         JobRunner jobRunner = context.getBean(JobRunner.class);
-        jobRunner.runVentasJob();
-        SpringApplication.exit(context);
+        JobExecution ejecucion = jobRunner.runVentasJob().get(); // Espera a que el Job termine antes de cerrar el contexto
+        SpringApplication.exit((ApplicationContext) context, () -> ejecucion.getStatus() == BatchStatus.COMPLETED ? 0 : 1);
     }
-}
\ No newline at end of file
+}
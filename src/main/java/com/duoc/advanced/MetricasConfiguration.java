@@ -0,0 +1,77 @@
+package com.duoc.advanced;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+
+/**
+ * Configuración de las métricas del proceso de ventas.
+ * Registra un PrometheusMeterRegistry en el registro global de Micrometer, que es el que usa Spring Batch
+ * para sus timers de lectura, procesamiento y escritura (spring_batch_item_read, spring_batch_item_process,
+ * spring_batch_chunk_write). {@link MetricasExporter} las publica por HTTP y en un archivo.
+ */
+@Configuration
+public class MetricasConfiguration {
+
+    /**
+     * Crea el registro Prometheus y lo agrega al registro global de Micrometer.
+     * MetricasExporter lo retira del registro global y lo cierra al cerrar el contexto.
+     *
+     * @return El registro con todas las métricas del proceso.
+     */
+    @Bean(destroyMethod = "")
+    public PrometheusMeterRegistry meterRegistry() {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        Metrics.addRegistry(registry); // Spring Batch registra sus métricas en Metrics.globalRegistry
+        return registry;
+    }
+
+    /**
+     * Publica la cantidad de hilos activos y la profundidad de la cola del taskExecutor
+     * (executor_active_threads, executor_queued_tasks, entre otras). En el modo virtual no hay cola: se publican
+     * las tareas en ejecución, contadas con un TaskDecorator, y el límite de concurrencia.
+     *
+     * @param taskExecutor El TaskExecutor de las particiones.
+     * @param registry El registro de métricas.
+     * @return Las métricas del TaskExecutor.
+     */
+    @Bean
+    public MeterBinder taskExecutorMetrics(TaskExecutor taskExecutor, PrometheusMeterRegistry registry) {
+        MeterBinder metricas;
+        if (taskExecutor instanceof ThreadPoolTaskExecutor pool) {
+            metricas = new ExecutorServiceMetrics(pool.getThreadPoolExecutor(), "taskExecutor", Tags.empty());
+        } else if (taskExecutor instanceof SimpleAsyncTaskExecutor virtual) {
+            AtomicInteger activas = new AtomicInteger(); // SimpleAsyncTaskExecutor no expone cuántas tareas ejecuta
+            virtual.setTaskDecorator(tarea -> () -> {
+                activas.incrementAndGet();
+                try {
+                    tarea.run();
+                } finally {
+                    activas.decrementAndGet();
+                }
+            });
+            metricas = r -> {
+                Gauge.builder("executor.active", activas, AtomicInteger::get).tag("name", "taskExecutor")
+                        .baseUnit("threads").description("Tareas en ejecución").register(r);
+                Gauge.builder("executor.pool.max", virtual, SimpleAsyncTaskExecutor::getConcurrencyLimit).tag("name", "taskExecutor")
+                        .baseUnit("threads").description("Límite de tareas en ejecución a la vez").register(r);
+            };
+        } else {
+            metricas = r -> { };
+        }
+        metricas.bindTo(registry);
+        return metricas;
+    }
+}
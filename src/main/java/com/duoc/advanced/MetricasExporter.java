@@ -0,0 +1,92 @@
+package com.duoc.advanced;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+
+/**
+ * Publica las métricas en formato de texto de Prometheus:
+ * <ul>
+ *   <li>Con ventas.metricas.puerto mayor que 0 levanta un servidor HTTP local que responde en /metrics.</li>
+ *   <li>Con ventas.metricas.archivo escribe las métricas en ese archivo al terminar cada Job
+ *       (útil en el modo de ejecución única, que termina antes de que Prometheus alcance a consultarlas).</li>
+ * </ul>
+ */
+@Component
+public class MetricasExporter implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricasExporter.class);
+
+    private final PrometheusMeterRegistry registry;
+    private final Path archivo; // Archivo de métricas, o null si está deshabilitado
+    private final HttpServer servidor; // Servidor de /metrics, o null si está deshabilitado
+
+    public MetricasExporter(PrometheusMeterRegistry registry,
+                            @Value("${ventas.metricas.puerto:0}") int puerto,
+                            @Value("${ventas.metricas.archivo:}") String archivo) throws IOException {
+        this.registry = registry;
+        this.archivo = archivo.isBlank() ? null : Paths.get(archivo).toAbsolutePath();
+        this.servidor = puerto > 0 ? iniciarServidor(puerto) : null;
+    }
+
+    /**
+     * Escribe las métricas actuales en el archivo configurado. Se reemplaza el archivo completo,
+     * de modo que quien lo lea nunca ve una escritura a medias.
+     */
+    public void escribirArchivo() {
+        if (archivo == null) {
+            return;
+        }
+        try {
+            Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+            Files.writeString(temporal, registry.scrape(), StandardCharsets.UTF_8);
+            Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Métricas escritas en {}", archivo);
+        } catch (IOException e) {
+            logger.error("No se pudieron escribir las métricas en {}: ", archivo, e);
+        }
+    }
+
+    /**
+     * Detiene el servidor HTTP y retira el registro de métricas del registro global.
+     */
+    @Override
+    public void destroy() {
+        if (servidor != null) {
+            servidor.stop(0);
+        }
+        Metrics.removeRegistry(registry);
+        registry.close();
+    }
+
+    private HttpServer iniciarServidor(int puerto) throws IOException {
+        HttpServer http = HttpServer.create(new InetSocketAddress(puerto), 0);
+        http.createContext("/metrics", intercambio -> {
+            byte[] respuesta = registry.scrape().getBytes(StandardCharsets.UTF_8);
+            intercambio.getResponseHeaders().add("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            intercambio.sendResponseHeaders(200, respuesta.length);
+            try (OutputStream cuerpo = intercambio.getResponseBody()) {
+                cuerpo.write(respuesta);
+            }
+        });
+        http.start();
+        logger.info("Métricas disponibles en http://localhost:{}/metrics", puerto);
+        return http;
+    }
+}
@@ -0,0 +1,106 @@
+package com.duoc.advanced;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.Chunk;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.duoc.business.Venta;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Métricas de cada partición que Spring Batch no publica por su cuenta:
+ * <ul>
+ *   <li>ventas.chunk.commit: tiempo entre el fin de la escritura y el fin de la transacción del chunk, que incluye
+ *       guardar el ExecutionContext en el JobRepository; con la etiqueta resultado (commit o rollback).</li>
+ *   <li>ventas.chunk.rollbacks: chunks que terminaron en rollback.</li>
+ *   <li>ventas.filas: filas leídas, incluidas las omitidas en la lectura; su tasa son las filas por segundo.</li>
+ * </ul>
+ * Los tiempos de lectura, procesamiento y escritura los publica Spring Batch (spring.batch.item.read,
+ * spring.batch.item.process y spring.batch.chunk.write).
+ */
+@Component
+public class MetricasListener implements ChunkListener, StepExecutionListener, ItemWriteListener<Venta> {
+
+    private final Map<Long, long[]> leidos = new ConcurrentHashMap<>(); // Filas leídas al inicio del chunk, por StepExecution
+    private final Timer commits;
+    private final Timer rollbacksCommit;
+    private final Counter rollbacks;
+    private final Counter filas;
+
+    public MetricasListener(MeterRegistry registry) {
+        this.commits = Timer.builder("ventas.chunk.commit").description("Duración del commit de cada chunk")
+                .tag("resultado", "commit").register(registry);
+        this.rollbacksCommit = Timer.builder("ventas.chunk.commit").description("Duración del commit de cada chunk")
+                .tag("resultado", "rollback").register(registry);
+        this.rollbacks = Counter.builder("ventas.chunk.rollbacks").description("Chunks que terminaron en rollback")
+                .register(registry);
+        this.filas = Counter.builder("ventas.filas").description("Filas leídas, incluidas las omitidas en la lectura")
+                .register(registry);
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        leidos.put(stepExecution.getId(), new long[] {filasLeidas(stepExecution)});
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        StepExecution stepExecution = context.getStepContext().getStepExecution();
+        long[] antes = leidos.get(stepExecution.getId());
+        if (antes != null) {
+            antes[0] = filasLeidas(stepExecution);
+        }
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        StepExecution stepExecution = context.getStepContext().getStepExecution();
+        long[] antes = leidos.get(stepExecution.getId());
+        if (antes != null) {
+            filas.increment(filasLeidas(stepExecution) - antes[0]);
+        }
+    }
+
+    @Override
+    public void afterWrite(Chunk<? extends Venta> items) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            long inicio = System.nanoTime();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    Timer timer = status == STATUS_COMMITTED ? commits : rollbacksCommit;
+                    timer.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        rollbacks.increment();
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        leidos.remove(stepExecution.getId());
+        return stepExecution.getExitStatus();
+    }
+
+    private static long filasLeidas(StepExecution stepExecution) {
+        return stepExecution.getReadCount() + stepExecution.getReadSkipCount();
+    }
+}
@@ -0,0 +1,62 @@
+package com.duoc.advanced;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+import com.duoc.jobs.ServidorTrabajador;
+import com.duoc.jobs.TrabajadorChunks;
+import com.duoc.jobs.TransporteChunks;
+import com.duoc.jobs.TransporteEnMemoria;
+import com.duoc.jobs.TransporteSocket;
+
+/**
+ * Configuración del modo remoto de consolidacionDiariaWorkerStep (ventas.remoto.transporte):
+ * <ul>
+ *   <li>ninguno: cada partición valida y acumula en su propio hilo (modo por defecto).</li>
+ *   <li>memoria: las particiones leen y envían los chunks a ventas.remoto.trabajadores hilos por una cola en memoria.</li>
+ *   <li>socket: envían los chunks por TCP a los nodos de ventas.remoto.direcciones (host:puerto, separados por comas),
+ *       iniciados con ventas.modo=trabajador. Sin direcciones, se inicia un trabajador en un puerto de loopback
+ *       del mismo proceso. Un chunk sin respuesta en ventas.remoto.timeout-ms falla y sigue la política de reintentos
+ *       del Step.</li>
+ * </ul>
+ */
+@Configuration
+public class RemotoConfiguration {
+
+    // Solo se crea cuando un Step en modo remoto lo necesita
+    @Bean(destroyMethod = "close")
+    @Lazy
+    public TransporteChunks transporteChunks(@Value("${ventas.remoto.transporte:ninguno}") String transporte,
+                                             @Value("${ventas.remoto.trabajadores:4}") int trabajadores,
+                                             @Value("${ventas.remoto.capacidad-cola:16}") int capacidadCola,
+                                             @Value("${ventas.remoto.direcciones:}") String direcciones,
+                                             @Value("${ventas.remoto.timeout-ms:30000}") int timeoutMs,
+                                             TrabajadorChunks trabajador,
+                                             ServidorTrabajador servidor) throws IOException {
+        switch (transporte) {
+            case "memoria":
+                return new TransporteEnMemoria(trabajador, trabajadores, capacidadCola);
+            case "socket":
+                List<InetSocketAddress> nodos = new ArrayList<>();
+                for (String direccion : direcciones.split(",")) {
+                    if (!direccion.isBlank()) {
+                        String[] partes = direccion.trim().split(":");
+                        nodos.add(new InetSocketAddress(partes[0], Integer.parseInt(partes[1])));
+                    }
+                }
+                if (nodos.isEmpty()) {
+                    nodos.add(new InetSocketAddress("127.0.0.1", servidor.iniciar(0))); // Trabajador local por loopback
+                }
+                return new TransporteSocket(nodos, timeoutMs);
+            default:
+                throw new IllegalArgumentException("ventas.remoto.transporte debe ser ninguno, memoria o socket: " + transporte);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.duoc.advanced;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.stereotype.Component;
+
+import com.duoc.business.Venta;
+
+/**
+ * Cuenta cuántas veces se procesa cada registro para medir el costo de los rollbacks.
+ * Cuando una excepción del procesador provoca rollback, Spring Batch vuelve a procesar el chunk ítem por ítem;
+ * la diferencia entre las llamadas al procesador y los registros leídos es el trabajo repetido.
+ * Al final de cada partición deja en su ExecutionContext las claves "procesos" y "reprocesos".
+ */
+@Component
+public class ReprocesoListener implements ItemProcessListener<Venta, Venta>, StepExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReprocesoListener.class);
+    private final Map<Long, LongAdder> procesos = new ConcurrentHashMap<>(); // Llamadas al procesador por StepExecution
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        procesos.put(stepExecution.getId(), new LongAdder());
+    }
+
+    @Override
+    public void beforeProcess(Venta item) {
+        LongAdder contador = procesos.get(StepSynchronizationManager.getContext().getStepExecution().getId());
+        if (contador != null) {
+            contador.increment();
+        }
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        LongAdder contador = procesos.remove(stepExecution.getId());
+        long llamadas = contador == null ? 0 : contador.sum();
+        long reprocesos = Math.max(0, llamadas - stepExecution.getReadCount());
+        stepExecution.getExecutionContext().putLong("procesos", llamadas);
+        stepExecution.getExecutionContext().putLong("reprocesos", reprocesos);
+        logger.info("{}: {} procesados, {} reprocesados, {} rollbacks, {} omitidos en el procesamiento, {} rechazados por reglas",
+                stepExecution.getStepName(), llamadas, reprocesos, stepExecution.getRollbackCount(),
+                stepExecution.getProcessSkipCount(),
+                stepExecution.getExecutionContext().getLong(FileVerificationSkipper.RECHAZADOS, 0));
+        return stepExecution.getExitStatus();
+    }
+}
@@ -3,50 +3,70 @@ package com.duoc.advanced;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.batch.core.SkipListener;
-import org.springframework.batch.item.Chunk;
-import org.springframework.batch.item.file.FlatFileItemWriter;
 import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import com.duoc.business.InformeVenta;
 import com.duoc.business.Venta;
+import com.duoc.business.VentaRechazada;
+import com.duoc.items.VentaParseException;
 
-import java.util.List;
+import io.micrometer.core.instrument.Counter;
 
+/**
+ * Envía los registros omitidos, tanto en la lectura como en el procesamiento, al archivo de errores.
+ * Cada rechazo guarda la línea y la posición de origen y el motivo de la omisión.
+ * Cuenta los omitidos en la métrica ventas.omitidos, por fase (lectura o procesamiento) y tipo de excepción.
+ * Se cuentan aquí y no en la política de FileVerificationSkipper porque Spring Batch puede consultarla
+ * más de una vez por el mismo registro; este listener se llama una sola vez por registro omitido en cada chunk.
+ * Spring Batch lo llama dentro de la transacción del chunk, así que el rechazo y la métrica pasan por
+ * {@link FileVerificationSkipper#registrarOmitido(VentaRechazada, Counter)} y solo se aplican si el chunk se confirma.
+ */
 @Component
-public class VentaSkipListener implements SkipListener<Venta, InformeVenta> {
+public class VentaSkipListener implements SkipListener<Venta, Venta> {
 
     private static final Logger logger = LoggerFactory.getLogger(VentaSkipListener.class);
-    private final FlatFileItemWriter<Venta> errorItemWriter;
+    private final FileVerificationSkipper skipper;
+    private final boolean logPorItem; // Registra en el log cada registro omitido
 
-    public VentaSkipListener(FlatFileItemWriter<Venta> errorItemWriter) {
+    public VentaSkipListener(FileVerificationSkipper skipper,
+                             @Value("${ventas.log.por-item:true}") boolean logPorItem) {
         logger.info("Creando VentaSkipListener.");
-        this.errorItemWriter = errorItemWriter;
+        this.skipper = skipper;
+        this.logPorItem = logPorItem;
     }
 
     @Override
     public void onSkipInProcess(Venta item, Throwable t) {
-        logger.info("Tipo de excepción en SkipListener: {}", t.getClass().getName());
-        logger.warn("SkipListener activado - Error al procesar registro: {}", item);
-        try {
-            errorItemWriter.write(new Chunk<>(List.of(item)));
-            logger.info("Registro escrito en errores.csv: {}", item);
-        } catch (Exception e) {
-            logger.error("Error al escribir registro omitido en archivo de errores: ", e);
+        if (logPorItem) {
+            logger.debug("Registro omitido en la posición {}: {}", item.getPosicion(), t.getMessage());
         }
+        skipper.registrarOmitido(VentaRechazada.de(item, t.getMessage()), contador("procesamiento", t));
     }
 
     @Override
     public void onSkipInRead(Throwable t) {
-        logger.info("Entro a onSkipInRead: {}", t.getClass().getName());
-        if (t instanceof FlatFileParseException) {
-            FlatFileParseException ffpe = (FlatFileParseException) t;
-            logger.warn("Línea omitida debido a un error en la lectura: {}", ffpe.getInput());
+        if (t instanceof FlatFileParseException ffpe) {
+            if (logPorItem) {
+                logger.debug("Línea omitida debido a un error en la lectura: {}", ffpe.getInput());
+            }
+            long posicion = ffpe instanceof VentaParseException vpe ? vpe.getPosicion() : -1;
+            String motivo = ffpe.getCause() != null ? ffpe.getCause().getMessage() : ffpe.getMessage();
+            skipper.registrarOmitido(VentaRechazada.deLinea(posicion, motivo, ffpe.getInput()), contador("lectura", t));
+        } else {
+            contador("lectura", t).increment(); // Sin registro que escribir
+            logger.warn("Error de lectura omitido sin línea de origen: {}", t.getMessage());
         }
     }
 
+    private Counter contador(String fase, Throwable t) {
+        Throwable causa = t instanceof FlatFileParseException && t.getCause() != null ? t.getCause() : t;
+        return skipper.contador(fase, t.getClass().getSimpleName(), causa.getClass().getSimpleName());
+    }
+
     @Override
-    public void onSkipInWrite(InformeVenta item, Throwable t) {
+    public void onSkipInWrite(Venta item, Throwable t) {
+        contador("escritura", t).increment();
         logger.error("Error al escribir registro: ", t);
     }
     
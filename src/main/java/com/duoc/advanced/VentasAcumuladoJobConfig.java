@@ -0,0 +1,37 @@
+package com.duoc.advanced;
+
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+
+import com.duoc.jobs.VentasAcumuladoTasklet;
+
+/**
+ * Configuración del Job "ventasAcumuladoJob", que suma informes diarios de ventasJob al acumulado de un período
+ * (semana, mes) sin volver a leer los archivos de ventas de cada día.
+ */
+@Configuration
+public class VentasAcumuladoJobConfig {
+
+    // Job de un solo Step; se identifica por el período y los informes que agrega
+    @Bean
+    public Job ventasAcumuladoJob(JobRepository jobRepository, Step acumuladoStep) {
+        return new JobBuilder("ventasAcumuladoJob", jobRepository)
+                .start(acumuladoStep)
+                .build();
+    }
+
+    // Mezcla el acumulado del período con los informes nuevos en una sola pasada
+    @Bean
+    public Step acumuladoStep(JobRepository jobRepository, JdbcTransactionManager transactionManager,
+                              VentasAcumuladoTasklet tasklet) {
+        return new StepBuilder("acumuladoStep", jobRepository)
+                .tasklet(tasklet, transactionManager)
+                .build();
+    }
+}
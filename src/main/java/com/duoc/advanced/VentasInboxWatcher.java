@@ -0,0 +1,234 @@
+package com.duoc.advanced;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Modo de ingesta continua: vigila una bandeja de entrada y procesa cada archivo de ventas que llega,
+ * sin volver a levantar el contexto de Spring por cada archivo.
+ * <ul>
+ *   <li>Cada archivo se reclama moviéndolo a la carpeta "procesando"; el movimiento es atómico, por lo que
+ *       un archivo se procesa una sola vez aunque lleguen varios eventos por él.</li>
+ *   <li>Los archivos se procesan en paralelo hasta el límite de concurrencia, cada uno en su propio Job,
+ *       con la huella de su contenido como parámetro identificador: un archivo que llega con el nombre de uno anterior
+ *       y otro contenido (el ventas.csv de cada día) es un Job nuevo.</li>
+ *   <li>Al terminar, el archivo pasa a "archivados" si el Job se completó o a "rechazados" si falló o ya se había
+ *       procesado el mismo contenido. Volver a dejar un archivo rechazado en la bandeja reinicia su Job desde las
+ *       particiones pendientes.</li>
+ *   <li>Al iniciar se retoman los archivos que quedaron en "procesando" por una detención anterior.</li>
+ * </ul>
+ */
+@Component
+public class VentasInboxWatcher implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(VentasInboxWatcher.class);
+
+    private final JobRunner jobRunner;
+    private final Path entrada; // Bandeja donde las tiendas dejan los archivos
+    private final Path procesando; // Archivos reclamados, con su Job en curso
+    private final Path archivados; // Archivos procesados con éxito
+    private final Path rechazados; // Archivos cuyo Job falló o que ya se habían procesado
+    private final Path salida; // Informes y archivos de errores de cada archivo
+    private final int concurrencia; // Archivos procesados a la vez
+    private final long esperaEstableMs; // Tiempo sin cambios de tamaño para considerar que el archivo terminó de copiarse
+    private final PathMatcher patron;
+
+    private final Set<Path> pendientes = ConcurrentHashMap.newKeySet(); // Nombres de archivo ya encolados
+    private volatile WatchService watchService;
+    private volatile ExecutorService ejecutor;
+
+    public VentasInboxWatcher(JobRunner jobRunner,
+                              @Value("${ventas.bandeja.entrada:bandeja/entrada}") String entrada,
+                              @Value("${ventas.bandeja.procesando:bandeja/procesando}") String procesando,
+                              @Value("${ventas.bandeja.archivados:bandeja/archivados}") String archivados,
+                              @Value("${ventas.bandeja.rechazados:bandeja/rechazados}") String rechazados,
+                              @Value("${ventas.bandeja.salida:bandeja/salida}") String salida,
+                              @Value("${ventas.bandeja.concurrencia:2}") int concurrencia,
+                              @Value("${ventas.bandeja.espera-estable-ms:500}") long esperaEstableMs,
+                              @Value("${ventas.bandeja.patron:*.csv}") String patron) {
+        this.jobRunner = jobRunner;
+        this.entrada = Paths.get(entrada).toAbsolutePath();
+        this.procesando = Paths.get(procesando).toAbsolutePath();
+        this.archivados = Paths.get(archivados).toAbsolutePath();
+        this.rechazados = Paths.get(rechazados).toAbsolutePath();
+        this.salida = Paths.get(salida).toAbsolutePath();
+        this.concurrencia = concurrencia;
+        this.esperaEstableMs = esperaEstableMs;
+        this.patron = FileSystems.getDefault().getPathMatcher("glob:" + patron);
+    }
+
+    /**
+     * Vigila la bandeja de entrada hasta que se detiene la aplicación.
+     *
+     * @throws IOException Si no se pueden crear las carpetas o registrar la bandeja.
+     */
+    public void vigilar() throws IOException {
+        for (Path carpeta : new Path[] {entrada, procesando, archivados, rechazados, salida}) {
+            Files.createDirectories(carpeta);
+        }
+        AtomicInteger hilos = new AtomicInteger();
+        ThreadFactory fabrica = tarea -> new Thread(tarea, "Bandeja-" + hilos.incrementAndGet());
+        ejecutor = Executors.newFixedThreadPool(concurrencia, fabrica);
+        watchService = FileSystems.getDefault().newWatchService();
+        entrada.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        logger.info("Vigilando la bandeja {} con {} archivos en paralelo", entrada, concurrencia);
+
+        retomar(); // Archivos reclamados por una ejecución anterior que no alcanzó a terminarlos
+        escanear(); // Archivos que llegaron con la aplicación detenida
+        try {
+            while (true) {
+                WatchKey clave = watchService.take();
+                for (WatchEvent<?> evento : clave.pollEvents()) {
+                    if (evento.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        escanear(); // Se perdieron eventos: se revisa la bandeja completa
+                    } else {
+                        encolar(entrada.resolve((Path) evento.context()));
+                    }
+                }
+                if (!clave.reset()) {
+                    logger.error("La bandeja {} dejó de estar disponible", entrada);
+                    return;
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            logger.info("Se detiene la vigilancia de la bandeja {}", entrada);
+        }
+    }
+
+    /**
+     * Deja de vigilar la bandeja y espera a que terminen los Jobs en curso.
+     */
+    @Override
+    public void destroy() throws Exception {
+        if (watchService != null) {
+            watchService.close();
+        }
+        if (ejecutor != null) {
+            ejecutor.shutdown();
+            if (!ejecutor.awaitTermination(1, TimeUnit.MINUTES)) {
+                logger.warn("Quedaron archivos en proceso; se retomarán en el próximo inicio desde {}", procesando);
+            }
+        }
+    }
+
+    private void retomar() throws IOException {
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(procesando)) {
+            for (Path archivo : archivos) {
+                if (patron.matches(archivo.getFileName()) && pendientes.add(archivo.getFileName())) {
+                    logger.info("Retomando {}", archivo.getFileName());
+                    ejecutor.execute(() -> {
+                        try {
+                            procesar(archivo);
+                        } finally {
+                            pendientes.remove(archivo.getFileName());
+                        }
+                    });
+                }
+            }
+        }
+    }
+
+    private void escanear() throws IOException {
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(entrada)) {
+            for (Path archivo : archivos) {
+                encolar(archivo);
+            }
+        }
+    }
+
+    // Encola un archivo de la bandeja si cumple el patrón y no está ya encolado
+    private void encolar(Path archivo) {
+        if (!Files.isRegularFile(archivo) || !patron.matches(archivo.getFileName())) {
+            return;
+        }
+        if (pendientes.add(archivo.getFileName())) {
+            ejecutor.execute(() -> {
+                try {
+                    reclamar(archivo);
+                } finally {
+                    pendientes.remove(archivo.getFileName());
+                }
+                if (Files.exists(archivo) && !ejecutor.isShutdown()) {
+                    encolar(archivo); // Llegó otro archivo con el mismo nombre mientras se procesaba el anterior
+                }
+            });
+        }
+    }
+
+    // Espera a que el archivo termine de copiarse, lo mueve a "procesando" y ejecuta su Job
+    private void reclamar(Path archivo) {
+        try {
+            long tamano = -1;
+            while (tamano != Files.size(archivo)) {
+                tamano = Files.size(archivo);
+                Thread.sleep(esperaEstableMs);
+            }
+            Path reclamado = procesando.resolve(archivo.getFileName());
+            Files.move(archivo, reclamado, StandardCopyOption.ATOMIC_MOVE);
+            procesar(reclamado);
+        } catch (NoSuchFileException e) {
+            logger.debug("{} ya no está en la bandeja", archivo.getFileName());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.error("No se pudo reclamar {}: ", archivo.getFileName(), e);
+        }
+    }
+
+    // Ejecuta el Job de un archivo reclamado y lo archiva o rechaza según el resultado
+    private void procesar(Path archivo) {
+        String nombre = archivo.getFileName().toString();
+        String base = nombre.contains(".") ? nombre.substring(0, nombre.lastIndexOf('.')) : nombre;
+        Path destino = rechazados;
+        try {
+            long inicio = System.currentTimeMillis();
+            JobExecution ejecucion = jobRunner.runVentasJob(archivo,
+                    salida.resolve(base + "-output.csv"), salida.resolve(base + "-errores.csv"));
+            if (ejecucion.getStatus() == BatchStatus.COMPLETED) {
+                destino = archivados;
+            }
+            logger.info("{} procesado en {} ms con estado {}", nombre, System.currentTimeMillis() - inicio, ejecucion.getStatus());
+        } catch (JobInstanceAlreadyCompleteException e) {
+            logger.warn("{} tiene el mismo contenido que un archivo ya procesado, no se vuelve a procesar", nombre);
+        } catch (Exception e) {
+            logger.error("Error al procesar {}: ", nombre, e);
+        }
+        try {
+            Path movido = destino.resolve(nombre);
+            if (Files.exists(movido)) {
+                movido = destino.resolve(base + "-" + System.currentTimeMillis() + nombre.substring(base.length()));
+            }
+            Files.move(archivo, movido, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.error("No se pudo mover {} a {}: ", nombre, destino, e);
+        }
+    }
+}
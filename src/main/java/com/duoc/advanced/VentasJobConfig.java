@@ -1,5 +1,8 @@
 package com.duoc.advanced;
 
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemWriteListener;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.SkipListener;
 import org.springframework.batch.core.Step;
@@ -7,83 +10,193 @@ import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.FaultTolerantStepBuilder;
 import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
-import org.springframework.batch.item.file.FlatFileItemWriter;
-import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.support.CompositeItemProcessor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.ComponentScan;
-import org.springframework.context.annotation.ComponentScans;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.PropertySource;
 import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
-import com.duoc.business.InformeVenta;
+import com.duoc.business.InvalidDataException;
 import com.duoc.business.Venta;
-import com.duoc.items.ErrorItemWriter;
+import com.duoc.items.VentasAggregator;
+import com.duoc.items.VentasAgregadorExterno;
+import com.duoc.items.VentasDeduplicador;
 import com.duoc.items.VentasItemProcessor;
 import com.duoc.items.VentasItemReader;
+import com.duoc.items.VentasMappedItemReader;
 import com.duoc.jobs.CustomDecider;
+import com.duoc.jobs.VentasEnvioItemWriter;
+import com.duoc.jobs.VentasFilePartitioner;
+import com.duoc.jobs.VentasStepExecutionSplitter;
 
 
 @Configuration // Indica que esta clase contiene la configuración de beans de Spring
-@EnableBatchProcessing // Habilita el procesamiento batch en el contexto de Spring
-@Import(DataSourceConfiguration.class) // Importa la configuración de la base de datos
-@ComponentScans({
-    @ComponentScan(basePackages = "com.duoc.items"),
-    @ComponentScan(basePackages = "com.duoc.jobs")
-})
+@EnableBatchProcessing(taskExecutorRef = "jobLauncherTaskExecutor") // Habilita el procesamiento batch; el JobLauncher lanza los Jobs con su propio TaskExecutor
+@Import({DataSourceConfiguration.class, JobRepositoryConfiguration.class, MetricasConfiguration.class}) // Importa la configuración de la base de datos, del JobRepository y de las métricas
+@PropertySource("classpath:application.properties") // Carga la configuración del proceso de ventas
 public class VentasJobConfig {
 
+    public static final String WORKER_STEP = "consolidacionDiariaWorkerStep";
+
     // Configuración del Job con ID incremental y Decisor para manejo de finalización
     @Bean
-    public Job ventasJob(JobRepository jobRepository, Step step, CustomDecider decider, JobCompletionListener listener) {
+    public Job ventasJob(JobRepository jobRepository, Step consolidacionDiariaStep, CustomDecider decider, JobCompletionListener listener) {
         return new JobBuilder("ventasJob", jobRepository) // Crea un Job con el nombre "ventasJob" usando el JobRepository
                 .incrementer(new RunIdIncrementer()) // Agrega un incrementador de ID de ejecución
                 .listener(listener) // Registra un listener para el Job
-                .start(step) // Establece el Step inicial para el Job
-                .next(decider) // Usa un Decider para determinar el flujo del Job
-                .on("COMPLETED").end() // Si el Decider devuelve "COMPLETED", termina el Job
-                .from(decider).on("RETRY").to(step) // Si el Decider devuelve "RETRY", vuelve a ejecutar el Step
+                .start(consolidacionDiariaStep) // Establece el Step inicial para el Job
+                .on("*").to(decider) // El Decider evalúa el Step tanto si terminó como si falló
+                .from(decider).on("COMPLETED").end() // Si el Decider devuelve "COMPLETED", termina el Job
+                .from(decider).on("RETRY").to(consolidacionDiariaStep) // Si el Decider devuelve "RETRY", vuelve a ejecutar las particiones pendientes
+                .from(decider).on("FAILED").fail() // Sin intentos restantes, el Job termina con error
                 .end() // Finaliza la configuración del flujo
                 .build(); // Construye y devuelve el Job configurado
     }
 
-    // Step configurado para procesamiento paralelo, reintentos y política de repetición
+    // Divide el Step en particiones; en un reintento omite las que ya terminaron
+    @Bean
+    public VentasStepExecutionSplitter ventasStepExecutionSplitter(JobRepository jobRepository, VentasFilePartitioner partitioner,
+                                                                   @Value("${ventas.agregacion.modo:memoria}") String agregacion) {
+        // Con la agregación externa una partición fallida continúa desde su último volcado a disco
+        return new VentasStepExecutionSplitter(jobRepository, WORKER_STEP, partitioner, "externa".equals(agregacion));
+    }
+
+    // Step principal: divide el archivo en particiones y las ejecuta en paralelo con el TaskExecutor
     @Bean
-    public Step consolidacionDiariaStep(JobRepository jobRepository, 
-                                        JdbcTransactionManager transactionManager,
-                                        VentasItemReader itemReader, 
-                                        VentasItemProcessor itemProcessor,
-                                        FlatFileItemWriter<InformeVenta> itemWriter,
-                                        ErrorItemWriter errorItemWriter,
-                                        FileVerificationSkipper fileVerificationSkipper,
-                                        SkipListener<Venta, InformeVenta> skipListener,
+    public Step consolidacionDiariaStep(JobRepository jobRepository,
+                                        VentasFilePartitioner partitioner,
+                                        VentasStepExecutionSplitter splitter,
+                                        Step consolidacionDiariaWorkerStep,
                                         StepExecutionListener errorFileStepExecutionListener,
-                                        ThreadPoolTaskExecutor taskExecutor
+                                        InformeVentasStepExecutionListener informeVentasStepExecutionListener,
+                                        TaskExecutor taskExecutor,
+                                        @Value("${ventas.particiones:5}") int particiones
                                         ) {
         return new StepBuilder("consolidacionDiariaStep", jobRepository) // Crea un Step llamado "consolidacionDiariaStep"
-                .<Venta, InformeVenta>chunk(new SimpleCompletionPolicy(2), transactionManager) // Define el tamaño del chunk y la política de transacción
-                .reader(itemReader) // Configura el lector de ítems
-                .processor(itemProcessor) // Configura el procesador de ítems
-                .writer(itemWriter) // Configura el escritor de ítems
+                .partitioner(consolidacionDiariaWorkerStep.getName(), partitioner) // Divide el archivo en rangos de líneas completas
+                .splitter(splitter) // Un reintento ejecuta solo las particiones que no terminaron
+                .step(consolidacionDiariaWorkerStep) // Step que procesa cada partición
+                .gridSize(particiones) // Cantidad de particiones
+                .taskExecutor(taskExecutor) // Ejecuta las particiones en paralelo, una por hilo
+                .listener(errorFileStepExecutionListener) // Abre y cierra el archivo de errores una sola vez para todas las particiones
+                .listener(informeVentasStepExecutionListener) // Escribe el informe consolidado por producto al terminar todas las particiones
+                .build(); // Construye y devuelve el Step configurado
+    }
+
+    // Step de cada partición: lectura, validación y acumulación con tolerancia a fallos
+    @Bean
+    public Step consolidacionDiariaWorkerStep(JobRepository jobRepository,
+                                              JdbcTransactionManager transactionManager,
+                                              VentasItemReader itemReader,
+                                              VentasMappedItemReader mappedItemReader,
+                                              @Value("${ventas.lector:flatfile}") String lector,
+                                              VentasItemProcessor itemProcessor,
+                                              VentasDeduplicador deduplicador,
+                                              @Value("${ventas.dedup.activo:false}") boolean deduplicar,
+                                              VentasAggregator ventasAggregator,
+                                              VentasAgregadorExterno agregadorExterno,
+                                              @Value("${ventas.agregacion.modo:memoria}") String agregacion,
+                                              FileVerificationSkipper fileVerificationSkipper,
+                                              SkipListener<Venta, Venta> skipListener,
+                                              AdaptiveCompletionPolicy completionPolicy,
+                                              ReprocesoListener reprocesoListener,
+                                              MetricasListener metricasListener,
+                                              @Value("${ventas.validacion.sin-rollback:true}") boolean sinRollback,
+                                              VentasEnvioItemWriter envioItemWriter,
+                                              @Value("${ventas.remoto.transporte:ninguno}") String transporte,
+                                              @Value("${ventas.repositorio.modo:estandar}") String repositorio
+                                              ) {
+        // En el modo remoto la partición solo lee (y deduplica); la validación y la acumulación las hacen los trabajadores
+        boolean remoto = !"ninguno".equals(transporte);
+        // Agregación externa: totales en memoria hasta ventas.agregacion.memoria-mb y corridas ordenadas en disco
+        boolean externa = "externa".equals(agregacion);
+        if (!externa && !"memoria".equals(agregacion)) {
+            throw new IllegalArgumentException("ventas.agregacion.modo debe ser memoria o externa: " + agregacion);
+        }
+        if (externa && (remoto || deduplicar)) {
+            // Un reintento vuelve a leer desde el último volcado: los id ya registrados se filtrarían y sus totales se perderían
+            throw new IllegalArgumentException("ventas.agregacion.modo=externa no se puede combinar con ventas.remoto.transporte ni con ventas.dedup.activo");
+        }
+        if (deduplicar && "agrupado".equals(repositorio)) {
+            // Los id se registran en cada commit y el punto de reinicio se escribe hasta un intervalo después: tras una caída,
+            // las filas entre los dos se volverían a leer ya registradas, se filtrarían y sus totales se perderían
+            throw new IllegalArgumentException("ventas.repositorio.modo=agrupado no se puede combinar con ventas.dedup.activo");
+        }
+        // Con deduplicación, las ventas ya consolidadas se filtran antes de validarlas
+        ItemProcessor<Venta, Venta> processor = remoto ? (deduplicar ? deduplicador : null)
+                : deduplicar ? new CompositeItemProcessor<>(deduplicador, itemProcessor) : itemProcessor;
+        FaultTolerantStepBuilder<Venta, Venta> builder = new StepBuilder(WORKER_STEP, jobRepository) // Crea el Step de las particiones
+                .<Venta, Venta>chunk(completionPolicy, transactionManager) // Tamaño de chunk adaptativo y la política de transacción
+                .reader("mapeado".equals(lector) ? mappedItemReader : itemReader) // Lector propio de la partición (StepScope)
+                .processor(processor) // Configura el procesador de ítems (deduplicación opcional y validación)
+                .writer(remoto ? envioItemWriter : externa ? agregadorExterno : ventasAggregator) // Acumula los totales de la partición (o los recibe de los trabajadores) y los guarda en cada commit (o en cada volcado); el informe se escribe al final del Step
                 .faultTolerant() // Habilita la tolerancia a fallos en el Step
                 .skipPolicy(fileVerificationSkipper) // Asigna una política de salto personalizada
                 .listener(skipListener)  // Añade un SkipListener para manejar errores
-                .listener(errorFileStepExecutionListener) // Añade un listener para ejecutar acciones específicas en el Step
-                .taskExecutor(taskExecutor) // Configura la ejecución en paralelo con un TaskExecutor
+                .listener(completionPolicy); // Mide cada chunk para ajustar el tamaño del siguiente
+        if (sinRollback && !remoto) {
+            // Las ventas inválidas se omiten en el momento y van directo al archivo de errores,
+            // sin hacer rollback del chunk ni volver a procesar los demás registros
+            builder.noRollback(InvalidDataException.class);
+        }
+        if (deduplicar) {
+            // Registra los id en el índice al confirmar cada chunk y libera las reservas en los rollbacks
+            builder.listener((ItemProcessListener<Venta, Venta>) deduplicador)
+                    .listener((ItemWriteListener<Venta>) deduplicador)
+                    .listener((ChunkListener) deduplicador)
+                    .listener((StepExecutionListener) deduplicador);
+        }
+        return builder
+                .listener((ItemProcessListener<Venta, Venta>) reprocesoListener) // Cuenta las llamadas al procesador
+                .listener((StepExecutionListener) reprocesoListener) // Reporta reprocesos y rollbacks de cada partición
+                .listener((ChunkListener) metricasListener) // Mide filas leídas, rollbacks y el tiempo de commit de cada chunk
+                .listener((StepExecutionListener) metricasListener)
+                .listener((ItemWriteListener<Venta>) metricasListener)
                 .build(); // Construye y devuelve el Step configurado
     }
 
-    // Configura el TaskExecutor para procesamiento paralelo
+    // Configura el TaskExecutor para procesamiento paralelo: pool de hilos del sistema o hilos virtuales
     @Bean
-    public ThreadPoolTaskExecutor taskExecutor() {
+    public TaskExecutor taskExecutor(@Value("${ventas.executor.modo:plataforma}") String modo,
+                                     @Value("${ventas.executor.hilos:5}") int hilos,
+                                     @Value("${ventas.executor.hilos-maximo:10}") int hilosMaximo,
+                                     @Value("${ventas.executor.cola:25}") int cola,
+                                     @Value("${ventas.executor.limite-virtual:50}") int limiteVirtual) {
+        if ("virtual".equals(modo)) {
+            // Un hilo virtual por partición; al llegar al límite, el envío de la siguiente espera su turno en vez de rechazarse
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("Batch-Virtual-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(limiteVirtual);
+            executor.setTaskTerminationTimeout(60_000); // Al cerrar el contexto espera hasta un minuto a las particiones en curso
+            return executor;
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor(); // Crea un TaskExecutor para la ejecución en paralelo
-        executor.setCorePoolSize(5); // Define el tamaño inicial del pool de hilos
-        executor.setMaxPoolSize(10); // Define el tamaño máximo del pool de hilos
-        executor.setQueueCapacity(25); // Define la capacidad de la cola
+        executor.setCorePoolSize(hilos); // Define el tamaño inicial del pool de hilos
+        executor.setMaxPoolSize(Math.max(hilos, hilosMaximo)); // Define el tamaño máximo del pool de hilos
+        executor.setQueueCapacity(cola); // Define la capacidad de la cola
         executor.setThreadNamePrefix("Batch-Thread-"); // Prefijo de nombre de hilo para identificar los hilos del batch
         executor.initialize(); // Inicializa el TaskExecutor
         return executor;
     }
+
+    // TaskExecutor del JobLauncher: cada Job lanzado de forma asíncrona tiene su propio hilo (virtual en el modo virtual),
+    // de modo que no ocupa un hilo ni un permiso de las particiones. A lo sumo ventas.executor.limite-jobs Jobs se ejecutan
+    // a la vez; el lanzamiento de los demás espera su turno. Al cerrar el contexto espera hasta un minuto a los Jobs en curso
+    @Bean
+    public SimpleAsyncTaskExecutor jobLauncherTaskExecutor(@Value("${ventas.executor.modo:plataforma}") String modo,
+                                                           @Value("${ventas.executor.limite-jobs:2}") int limiteJobs) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("Job-");
+        executor.setVirtualThreads("virtual".equals(modo));
+        executor.setConcurrencyLimit(limiteJobs);
+        executor.setTaskTerminationTimeout(60_000);
+        return executor;
+    }
 }
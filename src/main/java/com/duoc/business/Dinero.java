@@ -0,0 +1,180 @@
+package com.duoc.business;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Importes en centavos (long), la representación de los precios y totales de ventas.
+ * Las sumas son exactas: un informe da el mismo total que con BigDecimal, sin el error acumulado de double,
+ * y sin crear objetos por fila. Las operaciones lanzan ArithmeticException si el resultado no cabe en un long
+ * (unos 92 billones de unidades), en lugar de dar la vuelta en silencio.
+ */
+public final class Dinero {
+
+    private static final int MAXIMO_DIGITOS_ENTEROS = 16; // Con 16 dígitos enteros los centavos siempre caben en un long
+
+    private Dinero() {}
+
+    /**
+     * Convierte un importe decimal a centavos.
+     *
+     * @param texto El importe, sin espacios.
+     * @return Los centavos.
+     * @throws NumberFormatException Si el texto no es un número o el importe no cabe en un long.
+     * @see #parsear(CharSequence, int, int)
+     */
+    public static long parsear(CharSequence texto) {
+        return parsear(texto, 0, texto.length());
+    }
+
+    /**
+     * Convierte a centavos el importe decimal entre dos posiciones de un texto, sin crear un String.
+     * La forma habitual ([signo]dígitos[.dígitos]) se lee dígito a dígito; los decimales después del segundo
+     * se redondean al centavo (HALF_UP, como BigDecimal). Otras formas, como la notación exponencial que escribe
+     * Double.toString, pasan por BigDecimal con el mismo redondeo.
+     *
+     * @param texto El texto que contiene el importe.
+     * @param desde Posición del primer carácter del importe.
+     * @param hasta Posición siguiente al último carácter del importe.
+     * @return Los centavos.
+     * @throws NumberFormatException Si el texto no es un número o el importe no cabe en un long.
+     */
+    public static long parsear(CharSequence texto, int desde, int hasta) {
+        int i = desde;
+        boolean negativo = false;
+        if (i < hasta && (texto.charAt(i) == '-' || texto.charAt(i) == '+')) {
+            negativo = texto.charAt(i) == '-';
+            i++;
+        }
+        long centavos = 0;
+        int enteros = 0;
+        int decimales = -1; // -1 hasta encontrar el punto
+        boolean redondear = false;
+        for (; i < hasta; i++) {
+            char c = texto.charAt(i);
+            if (c == '.' && decimales < 0) {
+                decimales = 0;
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                return parsearDecimal(texto, desde, hasta); // Forma atípica
+            }
+            if (decimales < 0) {
+                if (++enteros > MAXIMO_DIGITOS_ENTEROS) {
+                    return parsearDecimal(texto, desde, hasta);
+                }
+                centavos = centavos * 10 + (c - '0');
+            } else if (decimales < 2) {
+                centavos = centavos * 10 + (c - '0');
+                decimales++;
+            } else if (decimales++ == 2) {
+                redondear = c >= '5'; // HALF_UP solo depende del primer dígito descartado
+            }
+        }
+        if (enteros == 0 && decimales <= 0) {
+            return parsearDecimal(texto, desde, hasta); // Sin dígitos
+        }
+        for (int d = Math.max(decimales, 0); d < 2; d++) {
+            centavos *= 10;
+        }
+        if (redondear) {
+            centavos++;
+        }
+        return negativo ? -centavos : centavos;
+    }
+
+    // Camino lento para las formas que no lee parsear (exponentes, más de 16 dígitos enteros) y para los errores
+    private static long parsearDecimal(CharSequence texto, int desde, int hasta) {
+        String importe = texto.subSequence(desde, hasta).toString();
+        long centavos;
+        try {
+            centavos = new BigDecimal(importe).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException("Importe inválido: '" + importe + "'");
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Importe fuera de rango: '" + importe + "'");
+        }
+        if (centavos == Long.MIN_VALUE) {
+            throw new NumberFormatException("Importe fuera de rango: '" + importe + "'"); // Reservado para Venta.SIN_PRECIO
+        }
+        return centavos;
+    }
+
+    /**
+     * Total de una venta.
+     *
+     * @param precio El precio unitario en centavos.
+     * @param cantidad La cantidad vendida.
+     * @return El precio por la cantidad, en centavos.
+     * @throws ArithmeticException Si el total no cabe en un long.
+     */
+    public static long multiplicar(long precio, long cantidad) {
+        try {
+            return Math.multiplyExact(precio, cantidad);
+        } catch (ArithmeticException e) {
+            throw new ArithmeticException("Desbordamiento al calcular " + formatear(precio) + " x " + cantidad);
+        }
+    }
+
+    /**
+     * Indica si el total de una venta cabe en un long, es decir si {@link #multiplicar} no lanza una excepción.
+     * Compara la mitad alta del producto de 128 bits con el signo de la mitad baja, sin crear la excepción.
+     *
+     * @param precio El precio unitario en centavos.
+     * @param cantidad La cantidad vendida.
+     * @return true si precio * cantidad cabe en un long.
+     */
+    public static boolean cabe(long precio, long cantidad) {
+        return Math.multiplyHigh(precio, cantidad) == (precio * cantidad) >> 63;
+    }
+
+    /**
+     * Suma dos importes.
+     *
+     * @throws ArithmeticException Si la suma no cabe en un long.
+     */
+    public static long sumar(long a, long b) {
+        try {
+            return Math.addExact(a, b);
+        } catch (ArithmeticException e) {
+            throw new ArithmeticException("Desbordamiento al sumar " + formatear(a) + " + " + formatear(b));
+        }
+    }
+
+    /**
+     * Formatea un importe con dos decimales y punto decimal (1234.50, -0.05), sin BigDecimal.
+     *
+     * @param centavos El importe en centavos.
+     * @return El texto del importe.
+     */
+    public static String formatear(long centavos) {
+        return formatear(centavos, new StringBuilder(24)).toString();
+    }
+
+    /**
+     * Agrega un importe con dos decimales al final de un StringBuilder.
+     *
+     * @param centavos El importe en centavos.
+     * @param destino Donde se agrega el texto.
+     * @return El mismo destino.
+     */
+    public static StringBuilder formatear(long centavos, StringBuilder destino) {
+        long unidades = centavos / 100;
+        int resto = (int) Math.abs(centavos % 100);
+        if (centavos < 0 && unidades == 0) {
+            destino.append('-'); // -0.05: la parte entera no lleva el signo
+        }
+        destino.append(unidades).append('.');
+        if (resto < 10) {
+            destino.append('0');
+        }
+        return destino.append(resto);
+    }
+
+    /**
+     * El importe como double, para compararlo con los límites de las reglas de validación.
+     */
+    public static double aDouble(long centavos) {
+        return centavos / 100.0; // División correctamente redondeada: el mismo double que Double.parseDouble del importe
+    }
+}
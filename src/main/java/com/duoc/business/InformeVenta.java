@@ -2,8 +2,11 @@ package com.duoc.business;
 
 public class InformeVenta {
     private String producto;
-    private int cantidadTotal;
-    private double totalVentas;
+    private long cantidadTotal;
+    private long totalCentavos; // Total de ventas en centavos (ver Dinero)
+    private String categoria; // Datos de referencia del producto, si el informe se enriqueció
+    private Double tasaImpuesto;
+    private String moneda;
 
     public InformeVenta() {}
     
@@ -11,25 +14,47 @@ public class InformeVenta {
         return producto;
     }
 
-    public int getCantidadTotal() {
+    public long getCantidadTotal() {
         return cantidadTotal;
     }
 
-    public double getTotalVentas() {
-        return totalVentas;
+    public long getTotalCentavos() {
+        return totalCentavos;
     }
 
     public void setProducto(String producto) {
         this.producto = producto;
     }
 
-    public void setCantidadTotal(int cantidadTotal) {
+    public void setCantidadTotal(long cantidadTotal) {
         this.cantidadTotal = cantidadTotal;
     }
     
-    public void setTotalVentas(double totalVentas) {
-        this.totalVentas = totalVentas;
+    public void setTotalCentavos(long totalCentavos) {
+        this.totalCentavos = totalCentavos;
     }
 
-    
+    public String getCategoria() {
+        return categoria;
+    }
+
+    public Double getTasaImpuesto() {
+        return tasaImpuesto;
+    }
+
+    public String getMoneda() {
+        return moneda;
+    }
+
+    public void setCategoria(String categoria) {
+        this.categoria = categoria;
+    }
+
+    public void setTasaImpuesto(Double tasaImpuesto) {
+        this.tasaImpuesto = tasaImpuesto;
+    }
+
+    public void setMoneda(String moneda) {
+        this.moneda = moneda;
+    }
 }
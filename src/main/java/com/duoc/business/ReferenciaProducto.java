@@ -0,0 +1,34 @@
+package com.duoc.business;
+
+/**
+ * Datos de referencia de un producto (tabla producto_referencia) con los que se enriquece el informe consolidado.
+ */
+public class ReferenciaProducto {
+    private final String producto;
+    private final String categoria;
+    private final double tasaImpuesto;
+    private final String moneda;
+
+    public ReferenciaProducto(String producto, String categoria, double tasaImpuesto, String moneda) {
+        this.producto = producto;
+        this.categoria = categoria;
+        this.tasaImpuesto = tasaImpuesto;
+        this.moneda = moneda;
+    }
+
+    public String getProducto() {
+        return producto;
+    }
+
+    public String getCategoria() {
+        return categoria;
+    }
+
+    public double getTasaImpuesto() {
+        return tasaImpuesto;
+    }
+
+    public String getMoneda() {
+        return moneda;
+    }
+}
@@ -1,10 +1,14 @@
 package com.duoc.business;
 
 public class Venta {
+    /** Valor de precioCentavos cuando el campo precio venía vacío. */
+    public static final long SIN_PRECIO = Long.MIN_VALUE;
+
     private Long id;
     private String producto;
     private int cantidad;
-    private Double precio;
+    private long precioCentavos = SIN_PRECIO; // Precio unitario en centavos (ver Dinero)
+    private long posicion; // Posición en bytes de la línea en el archivo de entrada
 
     public Venta() {}
 
@@ -17,8 +21,22 @@ public class Venta {
     public int getCantidad() {
         return cantidad;
     }
-    public Double getPrecio() {
-        return precio;
+    public long getPrecioCentavos() {
+        return precioCentavos;
+    }
+    public boolean tienePrecio() {
+        return precioCentavos != SIN_PRECIO;
+    }
+    /**
+     * @return El total de la venta (cantidad * precio) en centavos.
+     * @throws IllegalStateException Si la venta no tiene precio.
+     * @throws ArithmeticException Si el total no cabe en un long; ReglasValidacion rechaza esas ventas antes de acumularlas.
+     */
+    public long importeCentavos() {
+        if (!tienePrecio()) {
+            throw new IllegalStateException("Venta sin precio en la posición " + posicion);
+        }
+        return Dinero.multiplicar(precioCentavos, cantidad);
     }
     public void setId(Long id) {
         this.id = id;
@@ -29,7 +47,13 @@ public class Venta {
     public void setCantidad(int cantidad) {
         this.cantidad = cantidad;
     }
-    public void setPrecio(Double precio) {
-        this.precio = precio;
-    }   
+    public void setPrecioCentavos(long precioCentavos) {
+        this.precioCentavos = precioCentavos;
+    }
+    public long getPosicion() {
+        return posicion;
+    }
+    public void setPosicion(long posicion) {
+        this.posicion = posicion;
+    }
 }
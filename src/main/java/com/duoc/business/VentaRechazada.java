@@ -0,0 +1,75 @@
+package com.duoc.business;
+
+/**
+ * Registro omitido durante la consolidación, tal como se escribe en errores.csv.
+ * Guarda la posición en bytes de la línea en el archivo de entrada, el motivo del rechazo y el registro, siempre sin
+ * espacios ni fin de línea en los extremos: los campos leídos si la línea se pudo leer ({@link #de}), o la línea tal
+ * como está en el archivo si no ({@link #deLinea}).
+ * La posición identifica el registro aunque el archivo se lea por particiones, que no conocen su número de línea.
+ */
+public class VentaRechazada {
+    private long posicion;
+    private String motivo;
+    private String registro;
+
+    public VentaRechazada() {}
+
+    public VentaRechazada(long posicion, String motivo, String registro) {
+        this.posicion = posicion;
+        this.motivo = motivo == null ? "" : motivo.replace(',', ';').replace('\n', ' '); // El motivo ocupa una sola columna
+        this.registro = registro;
+    }
+
+    /**
+     * Crea el rechazo de una venta que no pasó la validación, reconstruyendo su línea CSV.
+     *
+     * @param venta  La venta rechazada.
+     * @param motivo El motivo del rechazo.
+     * @return El registro para el archivo de errores.
+     */
+    public static VentaRechazada de(Venta venta, String motivo) {
+        String registro = texto(venta.getId()) + "," + texto(venta.getProducto()) + ","
+                + venta.getCantidad() + "," + (venta.tienePrecio() ? Dinero.formatear(venta.getPrecioCentavos()) : "");
+        return new VentaRechazada(venta.getPosicion(), motivo, registro);
+    }
+
+    /**
+     * Crea el rechazo de una línea que no se pudo leer como venta.
+     *
+     * @param posicion La posición en bytes de la línea en el archivo de entrada, o -1 si no se conoce.
+     * @param motivo   El motivo del rechazo.
+     * @param linea    La línea leída del archivo.
+     * @return El registro para el archivo de errores.
+     */
+    public static VentaRechazada deLinea(long posicion, String motivo, String linea) {
+        return new VentaRechazada(posicion, motivo, linea == null ? "" : linea.strip()); // Sin el \r de los archivos CRLF
+    }
+
+    private static String texto(Object valor) {
+        return valor == null ? "" : valor.toString();
+    }
+
+    public long getPosicion() {
+        return posicion;
+    }
+
+    public String getMotivo() {
+        return motivo;
+    }
+
+    public String getRegistro() {
+        return registro;
+    }
+
+    public void setPosicion(long posicion) {
+        this.posicion = posicion;
+    }
+
+    public void setMotivo(String motivo) {
+        this.motivo = motivo;
+    }
+
+    public void setRegistro(String registro) {
+        this.registro = registro;
+    }
+}
@@ -0,0 +1,105 @@
+package com.duoc.items;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.file.FlatFileHeaderCallback;
+import org.springframework.batch.item.file.FlatFileItemWriter;
+import org.springframework.core.io.WritableResource;
+
+/**
+ * FlatFileItemWriter que comprime la salida cuando el archivo termina en .gz o .zst (ver {@link Compresion}).
+ * Sin compresión se comporta igual que FlatFileItemWriter. Con compresión las líneas se formatean con el mismo
+ * LineAggregator y se escriben en un flujo comprimido, sin pasar por un archivo intermedio; no se guarda la
+ * posición para reiniciar ni se deshace la escritura con la transacción, porque un archivo comprimido no se
+ * puede truncar. Si se permite anexar, cada apertura agrega un miembro gzip o un frame zstd al final del archivo,
+ * sin repetir el encabezado, y el resultado se sigue leyendo como un solo archivo.
+ */
+public abstract class ArchivoPlanoItemWriter<T> extends FlatFileItemWriter<T> {
+
+    private WritableResource recurso;
+    private FlatFileHeaderCallback encabezado;
+    private boolean anexar;
+    private Compresion compresion = Compresion.NINGUNA;
+    private Writer salida; // Flujo comprimido abierto, null sin compresión
+
+    @Override
+    public void setResource(WritableResource recurso) {
+        super.setResource(recurso);
+        this.recurso = recurso;
+    }
+
+    @Override
+    public void setHeaderCallback(FlatFileHeaderCallback encabezado) {
+        super.setHeaderCallback(encabezado);
+        this.encabezado = encabezado;
+    }
+
+    @Override
+    public void setAppendAllowed(boolean anexar) {
+        super.setAppendAllowed(anexar);
+        this.anexar = anexar;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        compresion = Compresion.deExtension(recurso.getFilename() == null ? "" : recurso.getFilename());
+        if (compresion == Compresion.NINGUNA) {
+            super.open(executionContext);
+            return;
+        }
+        try {
+            File archivo = recurso.getFile();
+            boolean continuar = anexar && archivo.length() > 0; // El encabezado ya está en el archivo
+            if (archivo.getParentFile() != null) {
+                Files.createDirectories(archivo.getParentFile().toPath());
+            }
+            salida = new OutputStreamWriter(compresion.comprimir(new FileOutputStream(archivo, anexar)), StandardCharsets.UTF_8);
+            if (!continuar && encabezado != null) {
+                encabezado.writeHeader(salida);
+                salida.write(lineSeparator);
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("No se pudo abrir el archivo comprimido " + recurso.getDescription(), e);
+        }
+    }
+
+    @Override
+    public void write(Chunk<? extends T> items) throws Exception {
+        if (salida == null) {
+            super.write(items);
+        } else {
+            salida.write(doWrite(items));
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) {
+        if (salida == null) {
+            super.update(executionContext);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (salida == null) {
+            super.close();
+            return;
+        }
+        try {
+            salida.close(); // Completa el miembro gzip o el frame zstd
+        } catch (IOException e) {
+            throw new ItemStreamException("No se pudo cerrar el archivo comprimido " + recurso.getDescription(), e);
+        } finally {
+            salida = null;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.duoc.items;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import com.duoc.business.ReferenciaProducto;
+
+/**
+ * Datos de referencia de los productos (tabla producto_referencia).
+ * <p>
+ * El informe consolidado ya tiene una fila por producto, así que cada producto se busca una sola vez por informe:
+ * {@link #buscar(Collection)} resuelve todos los productos juntos, en consultas IN de ventas.catalogo.tamano-lote
+ * productos. No se guardan entre informes; los cambios de la tabla se ven en el siguiente Job.
+ */
+@Component
+public class CatalogoProductos {
+
+    private static final String SELECCION = "SELECT producto, categoria, tasa_impuesto, moneda FROM producto_referencia";
+    private static final RowMapper<ReferenciaProducto> MAPEO = (rs, fila) -> new ReferenciaProducto(
+            rs.getString(1), rs.getString(2), rs.getDouble(3), rs.getString(4));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int tamanoLote; // Productos por consulta IN
+
+    public CatalogoProductos(DataSource dataSource, @Value("${ventas.catalogo.tamano-lote:500}") int tamanoLote) {
+        if (tamanoLote < 1) {
+            throw new IllegalArgumentException("ventas.catalogo.tamano-lote debe ser mayor que 0");
+        }
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.tamanoLote = tamanoLote;
+    }
+
+    /**
+     * Busca la referencia de varios productos con una consulta por cada lote de ventas.catalogo.tamano-lote productos.
+     *
+     * @param productos Los productos a buscar; se ignoran los repetidos.
+     * @return La referencia de cada producto encontrado; los productos sin referencia no aparecen.
+     */
+    public Map<String, ReferenciaProducto> buscar(Collection<String> productos) {
+        List<String> distintos = new ArrayList<>(new LinkedHashSet<>(productos));
+        Map<String, ReferenciaProducto> referencias = new HashMap<>();
+        for (int desde = 0; desde < distintos.size(); desde += tamanoLote) {
+            List<String> lote = distintos.subList(desde, Math.min(desde + tamanoLote, distintos.size()));
+            String marcadores = String.join(", ", Collections.nCopies(lote.size(), "?"));
+            for (ReferenciaProducto referencia : jdbcTemplate.query(SELECCION + " WHERE producto IN (" + marcadores + ")", MAPEO, lote.toArray())) {
+                referencias.put(referencia.getProducto(), referencia);
+            }
+        }
+        return referencias;
+    }
+}
@@ -0,0 +1,104 @@
+package com.duoc.items;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.core.io.Resource;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+
+/**
+ * Formatos de compresión de los archivos de ventas.
+ * La entrada se reconoce por sus primeros bytes (no por la extensión) y la salida por la extensión del archivo.
+ * Un archivo gzip puede tener varios miembros y uno zstd varios frames: ambos se leen como un único flujo,
+ * lo que permite comprimir por bloques independientes (ver {@link IndiceBloques}).
+ */
+public enum Compresion {
+
+    NINGUNA(""),
+    GZIP(".gz"),
+    ZSTD(".zst");
+
+    /** Tamaño de los buffers de compresión y descompresión. */
+    public static final int TAMANO_BUFFER = 256 * 1024;
+
+    private final String extension;
+
+    Compresion(String extension) {
+        this.extension = extension;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    /**
+     * Reconoce la compresión de un recurso por sus primeros bytes.
+     *
+     * @param recurso El recurso a revisar.
+     * @return GZIP (1f 8b), ZSTD (28 b5 2f fd) o NINGUNA.
+     * @throws IOException Si el recurso no se puede leer.
+     */
+    public static Compresion detectar(Resource recurso) throws IOException {
+        byte[] cabecera;
+        try (InputStream entrada = recurso.getInputStream()) {
+            cabecera = entrada.readNBytes(4);
+        }
+        if (cabecera.length >= 2 && (cabecera[0] & 0xff) == 0x1f && (cabecera[1] & 0xff) == 0x8b) {
+            return GZIP;
+        }
+        if (cabecera.length == 4 && (cabecera[0] & 0xff) == 0x28 && (cabecera[1] & 0xff) == 0xb5
+                && (cabecera[2] & 0xff) == 0x2f && (cabecera[3] & 0xff) == 0xfd) {
+            return ZSTD;
+        }
+        return NINGUNA;
+    }
+
+    /**
+     * Compresión que corresponde a la extensión de un archivo de salida.
+     *
+     * @param nombre El nombre o la ruta del archivo.
+     * @return GZIP para .gz, ZSTD para .zst y NINGUNA para cualquier otra extensión.
+     */
+    public static Compresion deExtension(String nombre) {
+        if (nombre.endsWith(GZIP.extension)) {
+            return GZIP;
+        }
+        return nombre.endsWith(ZSTD.extension) ? ZSTD : NINGUNA;
+    }
+
+    /**
+     * Envuelve un flujo comprimido para leerlo descomprimido.
+     *
+     * @param entrada El flujo comprimido, sin buffer.
+     * @return El flujo descomprimido; cerrarlo cierra también la entrada.
+     */
+    public InputStream descomprimir(InputStream entrada) throws IOException {
+        return switch (this) {
+            case NINGUNA -> entrada;
+            case GZIP -> new GZIPInputStream(entrada, TAMANO_BUFFER);
+            case ZSTD -> new ZstdInputStream(new BufferedInputStream(entrada, TAMANO_BUFFER));
+        };
+    }
+
+    /**
+     * Envuelve un flujo de salida para escribir comprimido.
+     * Al cerrar el flujo devuelto se completa el miembro gzip o el frame zstd.
+     *
+     * @param salida El flujo de destino.
+     * @return El flujo que comprime lo que se escribe en él.
+     */
+    public OutputStream comprimir(OutputStream salida) throws IOException {
+        return switch (this) {
+            case NINGUNA -> salida;
+            case GZIP -> new GZIPOutputStream(salida, TAMANO_BUFFER);
+            case ZSTD -> new ZstdOutputStream(new BufferedOutputStream(salida, TAMANO_BUFFER));
+        };
+    }
+}
@@ -0,0 +1,231 @@
+package com.duoc.items;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import com.duoc.business.Dinero;
+
+/**
+ * Corrida de totales por producto ordenada por producto, el archivo temporal de la agregación externa
+ * ({@link VentasAgregadorExterno}).
+ * <p>
+ * Formato binario: int "VRUN" y, por fila, el producto con codificación de prefijo (bytes UTF-8 compartidos con el
+ * producto anterior más uno, largo y bytes del resto, en enteros de largo variable), la cantidad en zigzag de largo
+ * variable y el total en centavos también en zigzag de largo variable. Un prefijo 0 marca el fin, seguido de la cantidad de filas como long,
+ * así que una corrida truncada se detecta al leerla. Con productos de nombres parecidos (SKU, tienda-producto)
+ * cada fila ocupa unos pocos bytes más que sus dos números.
+ */
+public final class CorridaVentas {
+
+    private static final int MAGICO = 0x5652554E; // "VRUN"
+    private static final int TAMANO_BUFFER = 64 * 1024;
+
+    private CorridaVentas() {}
+
+    /**
+     * Mezcla corridas ordenadas por producto y entrega una fila por producto con la suma de sus cantidades y totales
+     * (exacta, en centavos).
+     * Se lee una fila a la vez de cada corrida (mezcla de k vías), por lo que la memoria no depende de su tamaño.
+     *
+     * @param corridas Las corridas a mezclar.
+     * @param destino Recibe los productos en orden.
+     * @return La cantidad de productos entregados.
+     * @throws Exception Si una corrida no se puede leer o el destino falla.
+     */
+    public static long mezclar(List<Path> corridas, Destino destino) throws Exception {
+        PriorityQueue<Lector> cola = new PriorityQueue<>(Math.max(1, corridas.size()),
+                (a, b) -> a.producto().compareTo(b.producto()));
+        long productos = 0;
+        try {
+            for (Path corrida : corridas) {
+                Lector lector = new Lector(corrida);
+                if (lector.avanzar()) {
+                    cola.add(lector);
+                } else {
+                    lector.close();
+                }
+            }
+            while (!cola.isEmpty()) {
+                String producto = cola.peek().producto();
+                long cantidad = 0;
+                long total = 0;
+                while (!cola.isEmpty() && cola.peek().producto().equals(producto)) {
+                    Lector lector = cola.poll();
+                    cantidad += lector.cantidad();
+                    total = Dinero.sumar(total, lector.total());
+                    if (lector.avanzar()) {
+                        cola.add(lector); // Vuelve a la cola con su siguiente producto
+                    } else {
+                        lector.close();
+                    }
+                }
+                destino.aceptar(producto, cantidad, total);
+                productos++;
+            }
+        } finally {
+            for (Lector lector : cola) {
+                lector.close();
+            }
+        }
+        return productos;
+    }
+
+    /**
+     * Receptor de las filas de una mezcla.
+     */
+    @FunctionalInterface
+    public interface Destino {
+        void aceptar(String producto, long cantidad, long total) throws Exception;
+    }
+
+    /**
+     * Escribe una corrida; las filas deben llegar ordenadas por producto y sin repetirlo.
+     */
+    public static final class Escritor implements Closeable {
+        private final DataOutputStream salida;
+        private byte[] anterior = new byte[0];
+        private String productoAnterior;
+        private long filas;
+
+        public Escritor(Path archivo) throws IOException {
+            this.salida = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(archivo), TAMANO_BUFFER));
+            salida.writeInt(MAGICO);
+        }
+
+        public void escribir(String producto, long cantidad, long total) throws IOException {
+            if (productoAnterior != null && producto.compareTo(productoAnterior) <= 0) {
+                throw new IllegalStateException("Corrida fuera de orden: " + producto + " después de " + productoAnterior);
+            }
+            byte[] bytes = producto.getBytes(StandardCharsets.UTF_8);
+            int comun = Arrays.mismatch(anterior, bytes);
+            if (comun < 0) {
+                comun = bytes.length; // Solo ocurre con el primer producto vacío
+            }
+            escribirVariable(comun + 1L);
+            escribirVariable(bytes.length - comun);
+            salida.write(bytes, comun, bytes.length - comun);
+            escribirVariable((cantidad << 1) ^ (cantidad >> 63));
+            escribirVariable((total << 1) ^ (total >> 63));
+            anterior = bytes;
+            productoAnterior = producto;
+            filas++;
+        }
+
+        public long filas() {
+            return filas;
+        }
+
+        @Override
+        public void close() throws IOException {
+            salida.writeByte(0); // Fin de las filas
+            salida.writeLong(filas);
+            salida.close();
+        }
+
+        private void escribirVariable(long valor) throws IOException {
+            while ((valor & ~0x7FL) != 0) {
+                salida.writeByte((int) ((valor & 0x7F) | 0x80));
+                valor >>>= 7;
+            }
+            salida.writeByte((int) valor);
+        }
+    }
+
+    /**
+     * Lee una corrida fila por fila.
+     */
+    public static final class Lector implements Closeable {
+        private final Path archivo;
+        private final DataInputStream entrada;
+        private byte[] bytes = new byte[64];
+        private int largo;
+        private String producto;
+        private long cantidad;
+        private long total;
+        private long filas;
+
+        public Lector(Path archivo) throws IOException {
+            this.archivo = archivo;
+            this.entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(archivo), TAMANO_BUFFER));
+            if (entrada.readInt() != MAGICO) {
+                entrada.close();
+                throw new IOException(archivo + " no es una corrida de agregación");
+            }
+        }
+
+        /**
+         * Lee la siguiente fila.
+         *
+         * @return false al llegar al final de la corrida.
+         * @throws IOException Si la corrida está truncada.
+         */
+        public boolean avanzar() throws IOException {
+            try {
+                long comun = leerVariable();
+                if (comun == 0) {
+                    long esperadas = entrada.readLong();
+                    if (esperadas != filas) {
+                        throw new IOException(archivo + ": se leyeron " + filas + " de " + esperadas + " filas");
+                    }
+                    return false;
+                }
+                int resto = (int) leerVariable();
+                largo = (int) comun - 1 + resto;
+                if (largo > bytes.length) {
+                    bytes = Arrays.copyOf(bytes, Math.max(largo, bytes.length * 2));
+                }
+                entrada.readFully(bytes, (int) comun - 1, resto);
+                producto = new String(bytes, 0, largo, StandardCharsets.UTF_8);
+                long zigzag = leerVariable();
+                cantidad = (zigzag >>> 1) ^ -(zigzag & 1);
+                zigzag = leerVariable();
+                total = (zigzag >>> 1) ^ -(zigzag & 1);
+                filas++;
+                return true;
+            } catch (EOFException e) {
+                throw new IOException(archivo + ": corrida incompleta después de " + filas + " filas", e);
+            }
+        }
+
+        public String producto() {
+            return producto;
+        }
+
+        public long cantidad() {
+            return cantidad;
+        }
+
+        /** @return El total en centavos. */
+        public long total() {
+            return total;
+        }
+
+        @Override
+        public void close() throws IOException {
+            entrada.close();
+        }
+
+        private long leerVariable() throws IOException {
+            long valor = 0;
+            for (int desplazamiento = 0; desplazamiento < 64; desplazamiento += 7) {
+                byte b = entrada.readByte();
+                valor |= (long) (b & 0x7F) << desplazamiento;
+                if (b >= 0) {
+                    return valor;
+                }
+            }
+            throw new IOException(archivo + ": entero de largo variable inválido");
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.duoc.items;
+
+import com.duoc.business.Venta;
+
+/**
+ * Recibe las ventas que no cumplen las {@link ReglasValidacion} y decide si se pueden omitir.
+ */
+public interface DestinoRechazos {
+
+    /**
+     * Registra una venta rechazada por una regla.
+     *
+     * @param venta La venta rechazada.
+     * @param codigo El código devuelto por {@link ReglasValidacion#validar(Venta)}.
+     * @return true si la venta se omite; false si se superó el máximo de omisiones y el Step debe fallar.
+     */
+    boolean omitir(Venta venta, int codigo);
+}
@@ -1,27 +1,27 @@
 package com.duoc.items;
 
-import org.springframework.batch.item.file.FlatFileItemWriter;
-import org.springframework.batch.item.file.transform.BeanWrapperFieldExtractor;
 import org.springframework.batch.item.file.transform.DelimitedLineAggregator;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.stereotype.Component;
+import org.springframework.core.io.WritableResource;
 
-import com.duoc.business.Venta;
+import com.duoc.business.VentaRechazada;
 
-@Component
-public class ErrorItemWriter extends FlatFileItemWriter<Venta> {
+/**
+ * Escritor del archivo de errores de un JobExecution. Lo crea el ErrorSink para cada canal.
+ * Si el archivo termina en .gz o .zst, los errores se escriben comprimidos.
+ */
+public class ErrorItemWriter extends ArchivoPlanoItemWriter<VentaRechazada> {
 
-    public ErrorItemWriter() {
-        setResource(new FileSystemResource("errores.csv")); // Define el archivo de salida de errores
+    public ErrorItemWriter(WritableResource recurso) {
+        setResource(recurso); // Define el archivo de salida de errores
+        setTransactional(false); // Lo escribe solo el hilo del ErrorSink, fuera de las transacciones de los chunks
+
+        // Configura el encabezado del archivo
+        setHeaderCallback(writer -> writer.write("Posicion,Motivo,Registro"));
 
         // Configura el agregador de líneas delimitadas y el extractor de campos
-        DelimitedLineAggregator<Venta> lineAggregator = new DelimitedLineAggregator<>();
+        DelimitedLineAggregator<VentaRechazada> lineAggregator = new DelimitedLineAggregator<>();
         lineAggregator.setDelimiter(","); // Define el delimitador como coma
-
-        BeanWrapperFieldExtractor<Venta> fieldExtractor = new BeanWrapperFieldExtractor<>();
-        fieldExtractor.setNames(new String[]{"id", "producto", "cantidad", "precio"}); // Define los nombres de los campos
-
-        lineAggregator.setFieldExtractor(fieldExtractor); // Configura el agregador de líneas con el extractor
+        lineAggregator.setFieldExtractor(new VentaRechazadaFieldExtractor()); // Extrae los campos (posicion, motivo, registro) sin reflexión
         setLineAggregator(lineAggregator); // Asigna el agregador de líneas al escritor
     }
-}
\ No newline at end of file
+}
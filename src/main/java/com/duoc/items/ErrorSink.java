@@ -0,0 +1,228 @@
+package com.duoc.items;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.WritableResource;
+import org.springframework.stereotype.Component;
+
+import com.duoc.business.VentaRechazada;
+
+/**
+ * Canal asíncrono hacia el archivo de errores.
+ * Los hilos de las particiones dejan los registros omitidos en una cola acotada y un único hilo escritor
+ * los vacía en lotes sobre el ErrorItemWriter, que no es seguro para varios hilos.
+ * Si la cola se llena, {@link #registrar(long, VentaRechazada)} espera a que haya espacio (contrapresión),
+ * salvo que el hilo escritor haya fallado o terminado: entonces lanza ItemStreamException en lugar de bloquear la partición.
+ * Cada JobExecution tiene su propio canal y su propio archivo, por lo que varios Jobs pueden ejecutarse a la vez.
+ */
+@Component
+public class ErrorSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(ErrorSink.class);
+
+    private final Map<Long, Canal> canales = new ConcurrentHashMap<>(); // Un canal por JobExecution
+    private final int capacidadCola;
+    private final int tamanoLote;
+
+    public ErrorSink(@Value("${ventas.errores.capacidad-cola:10000}") int capacidadCola,
+                     @Value("${ventas.errores.tamano-lote:1000}") int tamanoLote) {
+        this.capacidadCola = capacidadCola;
+        this.tamanoLote = tamanoLote;
+    }
+
+    /**
+     * Abre el archivo de errores del Job e inicia su hilo escritor.
+     *
+     * @param jobExecutionId El JobExecution dueño del canal.
+     * @param recurso El archivo de errores.
+     * @param anexar true para agregar al final del archivo existente (reintentos), false para reemplazarlo.
+     */
+    public void abrir(long jobExecutionId, WritableResource recurso, boolean anexar) {
+        Canal canal = new Canal(new ErrorItemWriter(recurso), capacidadCola, tamanoLote);
+        canal.errorItemWriter.setAppendAllowed(anexar); // Un reintento conserva los errores de las particiones ya terminadas
+        canal.errorItemWriter.open(new ExecutionContext());
+        if (canales.putIfAbsent(jobExecutionId, canal) != null) {
+            canal.errorItemWriter.close();
+            throw new ItemStreamException("El archivo de errores del JobExecution " + jobExecutionId + " ya está abierto");
+        }
+        canal.iniciar("Error-Writer-" + jobExecutionId);
+    }
+
+    /**
+     * Encola un registro omitido. Espera si la cola está llena.
+     *
+     * @param jobExecutionId El JobExecution que omitió el registro.
+     * @param rechazo El registro a escribir en el archivo de errores.
+     * @throws ItemStreamException Si el canal no está abierto o su hilo escritor falló o terminó.
+     */
+    public void registrar(long jobExecutionId, VentaRechazada rechazo) {
+        Canal canal = canales.get(jobExecutionId);
+        if (canal == null) {
+            throw new ItemStreamException("El archivo de errores no está abierto");
+        }
+        canal.registrar(rechazo);
+    }
+
+    /**
+     * Espera a que todos los registros encolados del Job estén escritos en el archivo.
+     *
+     * @param jobExecutionId El JobExecution dueño del canal.
+     */
+    public void vaciar(long jobExecutionId) {
+        Canal canal = canales.get(jobExecutionId);
+        if (canal != null) {
+            canal.vaciar();
+        }
+    }
+
+    /**
+     * Escribe los registros pendientes del Job, detiene su hilo escritor y cierra el archivo.
+     *
+     * @param jobExecutionId El JobExecution dueño del canal.
+     */
+    public void cerrar(long jobExecutionId) {
+        Canal canal = canales.remove(jobExecutionId);
+        if (canal != null) {
+            canal.cerrar();
+        }
+    }
+
+    // Cola, hilo escritor y archivo de errores de un JobExecution
+    private static final class Canal {
+
+        private final ErrorItemWriter errorItemWriter;
+        private final BlockingQueue<VentaRechazada> cola;
+        private final int tamanoLote;
+
+        private final Object monitor = new Object();
+        private long registrados; // Registros aceptados en la cola
+        private long escritos; // Registros ya escritos en el archivo
+        private volatile Thread escritor;
+        private volatile boolean abierto;
+        private volatile Exception falla;
+
+        private Canal(ErrorItemWriter errorItemWriter, int capacidadCola, int tamanoLote) {
+            this.errorItemWriter = errorItemWriter;
+            this.cola = new ArrayBlockingQueue<>(capacidadCola);
+            this.tamanoLote = tamanoLote;
+        }
+
+        private void iniciar(String nombreHilo) {
+            abierto = true;
+            escritor = new Thread(this::escribir, nombreHilo);
+            escritor.setDaemon(true);
+            escritor.start();
+        }
+
+        private void registrar(VentaRechazada rechazo) {
+            comprobarEscritor();
+            synchronized (monitor) {
+                registrados++;
+            }
+            boolean encolado = false;
+            try {
+                while (!(encolado = cola.offer(rechazo, 100, TimeUnit.MILLISECONDS))) {
+                    comprobarEscritor(); // Con la cola llena y el escritor detenido, put esperaría para siempre
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ItemStreamException("Interrumpido al registrar un error", e);
+            } finally {
+                if (!encolado) {
+                    synchronized (monitor) {
+                        registrados--;
+                    }
+                }
+            }
+        }
+
+        // Falla si el canal se cerró o el hilo escritor ya no vacía la cola
+        private void comprobarEscritor() {
+            if (falla != null) {
+                throw new ItemStreamException("Falló la escritura del archivo de errores", falla);
+            }
+            Thread hilo = escritor;
+            if (!abierto || hilo == null || !hilo.isAlive()) {
+                throw new ItemStreamException("El archivo de errores no está abierto");
+            }
+        }
+
+        private void vaciar() {
+            synchronized (monitor) {
+                while (escritos < registrados && falla == null && escritor != null && escritor.isAlive()) {
+                    try {
+                        monitor.wait(100);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new ItemStreamException("Interrumpido al vaciar el archivo de errores", e);
+                    }
+                }
+            }
+            if (falla != null) {
+                throw new ItemStreamException("Falló la escritura del archivo de errores", falla);
+            }
+        }
+
+        private synchronized void cerrar() {
+            try {
+                vaciar();
+            } finally {
+                abierto = false;
+                Thread hilo = escritor;
+                escritor = null;
+                if (hilo != null) {
+                    try { // El hilo termina solo al encontrar la cola vacía; no se interrumpe para no cerrar el canal del archivo
+                        hilo.join();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                errorItemWriter.close();
+                logger.info("Archivo de errores cerrado con {} registros", escritos);
+            }
+        }
+
+        // Bucle del hilo escritor: espera el primer registro y escribe en un solo lote todo lo que haya en la cola
+        private void escribir() {
+            List<VentaRechazada> lote = new ArrayList<>(tamanoLote);
+            while (abierto || !cola.isEmpty()) {
+                try {
+                    VentaRechazada primero = cola.poll(100, TimeUnit.MILLISECONDS);
+                    if (primero == null) {
+                        continue;
+                    }
+                    lote.add(primero);
+                    cola.drainTo(lote, tamanoLote - 1);
+                    errorItemWriter.write(new Chunk<>(lote));
+                    synchronized (monitor) {
+                        escritos += lote.size();
+                        monitor.notifyAll();
+                    }
+                    lote.clear();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    logger.error("Error al escribir registros omitidos en el archivo de errores: ", e);
+                    falla = e;
+                    synchronized (monitor) {
+                        monitor.notifyAll();
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.duoc.items;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+
+/**
+ * Índice de un archivo de ventas comprimido por bloques: varios miembros gzip (o frames zstd) seguidos,
+ * cada uno con líneas completas, y un archivo ".idx" al lado con la posición de cada bloque en el archivo
+ * comprimido y en el texto descomprimido.
+ * <p>
+ * Como cada bloque se descomprime por separado, una partición puede empezar a leer en el bloque que contiene su
+ * primer byte sin descomprimir los anteriores, y los cortes entre bloques sirven como límites de partición porque
+ * siempre caen al inicio de una línea. El archivo sigue siendo un gzip o zstd válido para cualquier otra herramienta.
+ * <p>
+ * Formato del índice: int "VID2", int bloques y, por bloque, dos long (posición comprimida y descomprimida),
+ * seguidos del largo total descomprimido y del tamaño del archivo comprimido. Un índice que no corresponde al
+ * archivo (otro tamaño, o más antiguo que el archivo porque este se volvió a escribir) se ignora: el archivo se lee
+ * desde el inicio como si no tuviera índice, en vez de saltar a posiciones que ya no son inicios de bloque.
+ */
+public final class IndiceBloques {
+
+    /** Extensión del índice, que se agrega al nombre del archivo comprimido. */
+    public static final String EXTENSION = ".idx";
+    /** Bytes descomprimidos por bloque al comprimir, salvo indicación contraria. */
+    public static final int BYTES_POR_BLOQUE = 4 * 1024 * 1024;
+
+    private static final int MAGICO = 0x56494432; // "VID2"
+
+    private static final Logger logger = LoggerFactory.getLogger(IndiceBloques.class);
+
+    private final long[] comprimidos; // Posición de cada bloque en el archivo comprimido
+    private final long[] descomprimidos; // Posición de cada bloque en el texto descomprimido
+    private final long largo; // Largo total descomprimido
+    private final long tamano; // Tamaño del archivo comprimido al escribir el índice
+
+    private IndiceBloques(long[] comprimidos, long[] descomprimidos, long largo, long tamano) {
+        this.comprimidos = comprimidos;
+        this.descomprimidos = descomprimidos;
+        this.largo = largo;
+        this.tamano = tamano;
+    }
+
+    /**
+     * Lee el índice que acompaña a un archivo comprimido.
+     *
+     * @param recurso El archivo comprimido.
+     * @return El índice, o null si el archivo no tiene uno o el que tiene no le corresponde.
+     * @throws IOException Si el índice existe pero no se puede leer.
+     */
+    public static IndiceBloques leer(Resource recurso) throws IOException {
+        if (recurso.getFilename() == null) {
+            return null;
+        }
+        Resource indice = recurso.createRelative(recurso.getFilename() + EXTENSION);
+        if (!indice.exists()) {
+            return null;
+        }
+        IndiceBloques leido;
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(indice.getInputStream()))) {
+            int magico = entrada.readInt();
+            if (magico != MAGICO) {
+                throw new IOException("El índice " + indice.getDescription() + " no tiene el formato esperado");
+            }
+            int bloques = entrada.readInt();
+            long[] comprimidos = new long[bloques];
+            long[] descomprimidos = new long[bloques];
+            for (int i = 0; i < bloques; i++) {
+                comprimidos[i] = entrada.readLong();
+                descomprimidos[i] = entrada.readLong();
+            }
+            long largo = entrada.readLong();
+            leido = new IndiceBloques(comprimidos, descomprimidos, largo, entrada.readLong());
+        }
+        if (leido.tamano != recurso.contentLength()
+                || recurso.isFile() && recurso.lastModified() > indice.lastModified()) { // El archivo se escribió después que su índice
+            logger.warn("El índice {} no corresponde al archivo actual; se ignora", indice.getDescription());
+            return null;
+        }
+        return leido;
+    }
+
+    /** @return El largo total del texto descomprimido. */
+    public long largo() {
+        return largo;
+    }
+
+    /** @return La cantidad de bloques del archivo. */
+    public int bloques() {
+        return comprimidos.length;
+    }
+
+    /**
+     * Bloque que contiene una posición del texto descomprimido.
+     *
+     * @param posicion La posición en el texto descomprimido.
+     * @return El índice del último bloque que empieza en la posición o antes.
+     */
+    public int bloque(long posicion) {
+        int i = Arrays.binarySearch(descomprimidos, posicion);
+        return Math.max(0, i >= 0 ? i : -i - 2);
+    }
+
+    public long comprimido(int bloque) {
+        return comprimidos[bloque];
+    }
+
+    public long descomprimido(int bloque) {
+        return descomprimidos[bloque];
+    }
+
+    /**
+     * Primer corte entre bloques en la posición indicada o después.
+     *
+     * @param posicion La posición en el texto descomprimido.
+     * @return El inicio del primer bloque que empieza en la posición o después, o el largo total si no hay más bloques.
+     */
+    public long siguienteCorte(long posicion) {
+        int i = Arrays.binarySearch(descomprimidos, posicion);
+        int siguiente = i >= 0 ? i : -i - 1;
+        return siguiente < descomprimidos.length ? descomprimidos[siguiente] : largo;
+    }
+
+    /**
+     * Comprime un archivo de ventas por bloques de líneas completas y escribe su índice.
+     *
+     * @param origen El archivo sin comprimir.
+     * @param destino El archivo comprimido; el índice se escribe en el mismo directorio con extensión ".idx".
+     * @param compresion GZIP o ZSTD.
+     * @param bytesPorBloque Bytes descomprimidos aproximados de cada bloque.
+     * @return El índice del archivo escrito.
+     * @throws IOException Si no se puede leer el origen o escribir el destino.
+     */
+    public static IndiceBloques comprimir(Path origen, Path destino, Compresion compresion, int bytesPorBloque) throws IOException {
+        if (compresion == Compresion.NINGUNA) {
+            throw new IllegalArgumentException("Se necesita una compresión para escribir por bloques");
+        }
+        long[] comprimidos = new long[16];
+        long[] descomprimidos = new long[16];
+        int bloques = 0;
+        long leidos = 0;
+        byte[] buffer = new byte[Compresion.TAMANO_BUFFER];
+        try (InputStream entrada = Files.newInputStream(origen);
+             Contador salida = new Contador(new BufferedOutputStream(Files.newOutputStream(destino), Compresion.TAMANO_BUFFER))) {
+            OutputStream bloque = null;
+            long finBloque = 0;
+            int n;
+            while ((n = entrada.readNBytes(buffer, 0, buffer.length)) > 0) {
+                int desde = 0;
+                while (desde < n) {
+                    if (bloque == null) {
+                        if (bloques == comprimidos.length) {
+                            comprimidos = Arrays.copyOf(comprimidos, bloques * 2);
+                            descomprimidos = Arrays.copyOf(descomprimidos, bloques * 2);
+                        }
+                        comprimidos[bloques] = salida.escritos;
+                        descomprimidos[bloques] = leidos;
+                        bloques++;
+                        bloque = compresion.comprimir(salida.sinCerrar());
+                        finBloque = leidos + bytesPorBloque;
+                    }
+                    int hasta = n;
+                    boolean cerrar = false;
+                    if (leidos + (n - desde) >= finBloque) { // El bloque se cierra en el primer salto de línea desde su tamaño
+                        for (int i = (int) Math.max(desde, desde + finBloque - 1 - leidos); i < n; i++) {
+                            if (buffer[i] == '\n') {
+                                hasta = i + 1;
+                                cerrar = true;
+                                break;
+                            }
+                        }
+                    }
+                    bloque.write(buffer, desde, hasta - desde);
+                    leidos += hasta - desde;
+                    desde = hasta;
+                    if (cerrar) {
+                        bloque.close(); // Completa el miembro o frame; la salida sigue abierta
+                        bloque = null;
+                    }
+                }
+            }
+            if (bloque != null) {
+                bloque.close();
+            }
+        }
+        IndiceBloques indice = new IndiceBloques(Arrays.copyOf(comprimidos, bloques), Arrays.copyOf(descomprimidos, bloques),
+                leidos, Files.size(destino));
+        indice.escribir(destino.resolveSibling(destino.getFileName() + EXTENSION));
+        return indice;
+    }
+
+    private void escribir(Path archivo) throws IOException {
+        try (DataOutputStream salida = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(archivo)))) {
+            salida.writeInt(MAGICO);
+            salida.writeInt(comprimidos.length);
+            for (int i = 0; i < comprimidos.length; i++) {
+                salida.writeLong(comprimidos[i]);
+                salida.writeLong(descomprimidos[i]);
+            }
+            salida.writeLong(largo);
+            salida.writeLong(tamano);
+        }
+    }
+
+    // Cuenta los bytes escritos para registrar dónde empieza cada bloque
+    private static final class Contador extends FilterOutputStream {
+
+        private long escritos;
+
+        private Contador(OutputStream salida) {
+            super(salida);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            escritos++;
+        }
+
+        @Override
+        public void write(byte[] b, int desde, int largo) throws IOException {
+            out.write(b, desde, largo);
+            escritos += largo;
+        }
+
+        // Vista que no cierra el archivo al cerrar el compresor de un bloque
+        private OutputStream sinCerrar() {
+            return new FilterOutputStream(this) {
+                @Override
+                public void write(byte[] b, int desde, int largo) throws IOException {
+                    out.write(b, desde, largo);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package com.duoc.items;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Índice persistente de los id de venta ya consolidados, para no contar dos veces una venta reenviada.
+ * Es una tabla hash de long con direccionamiento abierto (sondeo lineal) guardada en un archivo mapeado en memoria:
+ * cada consulta cuesta O(1) sin ir a la base de datos y la tabla no ocupa el heap. El archivo se mapea la primera
+ * vez que se usa, no al iniciar la aplicación.
+ * <p>
+ * Cada entrada guarda el id (long) y el día en que se registró (int), 12 bytes por posición. Un id registrado hace
+ * más de {@code ventas.dedup.retencion-dias} días se considera vencido: ya no filtra y su posición se reutiliza.
+ * Las entradas vencidas se descartan al crecer la tabla, que se reconstruye con el doble de posiciones cuando se ocupa
+ * el 75%, de modo que después de crecer queda entre el 37% y el 50% ocupada.
+ * Con 100 millones de id vigentes la tabla tiene 2^28 posiciones: 3 GiB de archivo mapeado (unos 32 bytes por id),
+ * de los que solo las páginas consultadas quedan en memoria.
+ * <p>
+ * Además del índice confirmado, lleva las reservas de los chunks en curso (ver {@link VentasDeduplicador}),
+ * para que dos particiones no acepten el mismo id a la vez antes de confirmarlo.
+ * <p>
+ * Formato (little-endian): cabecera de 64 bytes (int "VDUP", short versión, long posiciones en el byte 8,
+ * long ocupadas en el byte 16), columna de id (long por posición) y columna de días (int por posición, 0 = libre).
+ */
+@Component
+public class IndiceDeduplicacion implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndiceDeduplicacion.class);
+    private static final int MAGICO = 0x50554456; // "VDUP" en little-endian
+    private static final short VERSION = 1;
+    private static final int CABECERA = 64;
+    private static final int BITS_REGION = 30; // Regiones mapeadas de 1 GiB; ninguna entrada queda entre dos regiones
+    private static final long REGION = 1L << BITS_REGION;
+
+    private final Path archivo;
+    private final int retencionDias;
+    private final long posicionesIniciales;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Object> reservas = new ConcurrentHashMap<>(); // id reservado → fila que lo reservó
+
+    private volatile MappedByteBuffer[] regiones; // null hasta el primer uso
+    private volatile int diaActual; // Día de hoy (epoch day), recalculado al pasar la medianoche
+    private volatile long finDiaActual; // Instante en milisegundos en que termina el día actual
+    private long posiciones; // Potencia de 2
+    private long ocupadas; // Posiciones con un id, vigente o vencido
+
+    public IndiceDeduplicacion(@Value("${ventas.dedup.archivo:dedup/ventas-ids.vdup}") String archivo,
+                               @Value("${ventas.dedup.retencion-dias:30}") int retencionDias,
+                               @Value("${ventas.dedup.posiciones-iniciales:1048576}") long posicionesIniciales) {
+        this.archivo = Paths.get(archivo);
+        this.retencionDias = retencionDias;
+        this.posicionesIniciales = Long.highestOneBit(Math.max(16, posicionesIniciales - 1) << 1);
+    }
+
+    /**
+     * Reserva un id para la fila que lo está procesando.
+     *
+     * @param id El id de la venta.
+     * @param fila Identifica la fila que reserva; volver a reservar con la misma fila (reproceso) no es un duplicado.
+     * @return false si el id ya está confirmado dentro del período de retención o reservado por otra fila.
+     */
+    public boolean reservar(long id, Object fila) {
+        // Primero la reserva y después el índice: si otra fila confirmó el id y liberó su reserva antes de
+        // este putIfAbsent, el id ya está en el índice cuando se consulta
+        Object anterior = reservas.putIfAbsent(id, fila);
+        if (anterior != null && !anterior.equals(fila)) {
+            return false;
+        }
+        if (contiene(id)) {
+            if (anterior == null) {
+                reservas.remove(id, fila);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Libera la reserva de un id si todavía pertenece a la fila indicada.
+     */
+    public void liberar(long id, Object fila) {
+        reservas.remove(id, fila);
+    }
+
+    /**
+     * Indica si el id está confirmado y vigente.
+     */
+    public boolean contiene(long id) {
+        if (regiones == null) {
+            abrir(); // Carga diferida
+        }
+        lock.readLock().lock();
+        try {
+            long hoy = hoy();
+            long mascara = posiciones - 1;
+            for (long p = mezclar(id) & mascara; ; p = (p + 1) & mascara) {
+                int dia = dia(p);
+                if (dia == 0) {
+                    return false;
+                }
+                if (id(p) == id) {
+                    return vigente(dia, hoy);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Registra los id de un chunk ya confirmado con la fecha de hoy.
+     *
+     * @param ids Los id a registrar.
+     * @param cantidad Cuántos id del arreglo se registran.
+     */
+    public void confirmar(long[] ids, int cantidad) {
+        if (cantidad == 0) {
+            return;
+        }
+        if (regiones == null) {
+            abrir();
+        }
+        lock.writeLock().lock();
+        try {
+            int hoy = hoy();
+            for (int i = 0; i < cantidad; i++) {
+                if (ocupadas + 1 > posiciones * 3 / 4) {
+                    crecer(hoy);
+                }
+                insertar(ids[i], hoy);
+            }
+            escribirCabecera();
+        } catch (IOException e) {
+            throw new ItemStreamException("No se pudo ampliar el índice de deduplicación " + archivo, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Escribe en disco las páginas modificadas.
+     */
+    @Override
+    public void destroy() {
+        lock.writeLock().lock();
+        try {
+            if (regiones != null) {
+                for (MappedByteBuffer region : regiones) {
+                    region.force();
+                }
+                logger.info("Índice de deduplicación guardado con {} id en {} posiciones", ocupadas, posiciones);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Mapea el archivo la primera vez, creándolo vacío si no existe
+    private void abrir() {
+        lock.writeLock().lock();
+        try {
+            if (regiones != null) {
+                return;
+            }
+            if (!Files.exists(archivo)) {
+                if (archivo.getParent() != null) {
+                    Files.createDirectories(archivo.getParent());
+                }
+                Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+                crearArchivo(temporal, posicionesIniciales);
+                Files.move(temporal, archivo, StandardCopyOption.ATOMIC_MOVE);
+            }
+            mapear(archivo);
+            logger.info("Índice de deduplicación {} cargado: {} id en {} posiciones", archivo, ocupadas, posiciones);
+        } catch (IOException e) {
+            throw new ItemStreamException("No se pudo abrir el índice de deduplicación " + archivo, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void mapear(Path ruta) throws IOException {
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long tamano = canal.size();
+            MappedByteBuffer[] mapeadas = new MappedByteBuffer[(int) ((tamano + REGION - 1) >>> BITS_REGION)];
+            for (int i = 0; i < mapeadas.length; i++) {
+                long inicio = (long) i << BITS_REGION;
+                mapeadas[i] = canal.map(FileChannel.MapMode.READ_WRITE, inicio, Math.min(REGION, tamano - inicio));
+                mapeadas[i].order(ByteOrder.LITTLE_ENDIAN);
+            }
+            if (mapeadas[0].getInt(0) != MAGICO || mapeadas[0].getShort(4) != VERSION) {
+                throw new IOException("El archivo " + ruta + " no es un índice de deduplicación");
+            }
+            long cantidad = mapeadas[0].getLong(8);
+            if (tamano != tamano(cantidad)) {
+                throw new IOException("Índice de deduplicación incompleto: " + tamano + " de " + tamano(cantidad) + " bytes");
+            }
+            regiones = mapeadas;
+            posiciones = cantidad;
+            ocupadas = mapeadas[0].getLong(16);
+        }
+    }
+
+    private static void crearArchivo(Path ruta, long posiciones) throws IOException {
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            java.nio.ByteBuffer cabecera = ByteBuffer.allocate(CABECERA).order(ByteOrder.LITTLE_ENDIAN);
+            cabecera.putInt(MAGICO).putShort(VERSION).putShort((short) 0).putLong(posiciones).putLong(0).rewind();
+            canal.write(cabecera, 0);
+            canal.write(ByteBuffer.allocate(1), tamano(posiciones) - 1); // Archivo disperso: las columnas empiezan en cero
+        }
+    }
+
+    // Reconstruye la tabla con el doble de posiciones, sin las entradas vencidas
+    private void crecer(int hoy) throws IOException {
+        long vigentes = 0;
+        for (long p = 0; p < posiciones; p++) {
+            int dia = dia(p);
+            if (dia != 0 && vigente(dia, hoy)) {
+                vigentes++;
+            }
+        }
+        long nuevas = Long.highestOneBit(Math.max(posicionesIniciales, vigentes * 2) - 1) << 1;
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        crearArchivo(temporal, nuevas);
+        MappedByteBuffer[] anteriores = regiones;
+        long posicionesAnteriores = posiciones;
+        mapear(temporal);
+        ocupadas = 0;
+        for (long p = 0; p < posicionesAnteriores; p++) {
+            int dia = leerDia(anteriores, posicionesAnteriores, p);
+            if (dia != 0 && vigente(dia, hoy)) {
+                insertar(leerId(anteriores, p), dia);
+            }
+        }
+        escribirCabecera();
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.info("Índice de deduplicación ampliado de {} a {} posiciones con {} id vigentes", posicionesAnteriores, nuevas, ocupadas);
+    }
+
+    // Inserta o renueva un id; reutiliza la primera posición vencida del recorrido si el id no está
+    private void insertar(long id, int diaRegistro) {
+        int hoy = hoy();
+        long mascara = posiciones - 1;
+        long vencida = -1;
+        for (long p = mezclar(id) & mascara; ; p = (p + 1) & mascara) {
+            int dia = dia(p);
+            if (dia == 0) {
+                long destino = vencida >= 0 ? vencida : p;
+                if (vencida < 0) {
+                    ocupadas++;
+                }
+                escribir(destino, id, diaRegistro);
+                return;
+            }
+            if (id(p) == id) {
+                escribir(p, id, Math.max(dia, diaRegistro));
+                return;
+            }
+            if (vencida < 0 && !vigente(dia, hoy)) {
+                vencida = p;
+            }
+        }
+    }
+
+    private boolean vigente(int dia, long hoy) {
+        return dia > hoy - retencionDias;
+    }
+
+    // El día se recalcula solo al pasar la medianoche: LocalDate.now() costaría más que la consulta misma
+    private int hoy() {
+        if (System.currentTimeMillis() >= finDiaActual) {
+            LocalDate hoy = LocalDate.now();
+            diaActual = (int) hoy.toEpochDay();
+            finDiaActual = hoy.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+        return diaActual;
+    }
+
+    private void escribirCabecera() {
+        regiones[0].putLong(16, ocupadas);
+    }
+
+    private long id(long posicion) {
+        return leerId(regiones, posicion);
+    }
+
+    private int dia(long posicion) {
+        return leerDia(regiones, posiciones, posicion);
+    }
+
+    private void escribir(long posicion, long id, int dia) {
+        long byteId = CABECERA + posicion * 8;
+        regiones[(int) (byteId >>> BITS_REGION)].putLong((int) (byteId & (REGION - 1)), id);
+        long byteDia = CABECERA + posiciones * 8 + posicion * 4;
+        regiones[(int) (byteDia >>> BITS_REGION)].putInt((int) (byteDia & (REGION - 1)), dia);
+    }
+
+    private static long leerId(MappedByteBuffer[] regiones, long posicion) {
+        long byteId = CABECERA + posicion * 8;
+        return regiones[(int) (byteId >>> BITS_REGION)].getLong((int) (byteId & (REGION - 1)));
+    }
+
+    private static int leerDia(MappedByteBuffer[] regiones, long posiciones, long posicion) {
+        long byteDia = CABECERA + posiciones * 8 + posicion * 4;
+        return regiones[(int) (byteDia >>> BITS_REGION)].getInt((int) (byteDia & (REGION - 1)));
+    }
+
+    private static long tamano(long posiciones) {
+        return CABECERA + posiciones * 12;
+    }
+
+    // Mezcla los bits del id (fmix64 de MurmurHash3) para que id consecutivos no formen cadenas largas
+    private static long mezclar(long id) {
+        long h = id;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,146 @@
+package com.duoc.items;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Vista de solo lectura de un informe consolidado en formato columnar (.vcol), escrito por VentasColumnarItemWriter.
+ * El archivo (de hasta 2 GB) se mapea en memoria y las columnas se leen directamente desde los bytes, sin interpretar texto;
+ * solo los nombres del diccionario de productos se convierten a String, una vez por entrada.
+ * <p>
+ * Formato (little-endian):
+ * <pre>
+ * Cabecera, 96 bytes:
+ *   0  int    "VCOL"                 8  int    filas              16 long   cantidad mínima
+ *   4  short  versión (2)           12  int    entradas diccionario 24 long  cantidad máxima
+ *   6  short  reservado                                             32 long   total mínimo
+ *   40 long   total máximo          48 long   posición diccionario  56 long   posición columna producto
+ *   64 long   posición columna cantidadTotal                         72 long   posición columna totalCentavos
+ *   80 long   tamaño del archivo    88 long   reservado
+ * Diccionario: por entrada, int con el largo en bytes y el nombre en UTF-8.
+ * Columnas, alineadas a 8 bytes: producto (int, índice en el diccionario), cantidadTotal (long), totalCentavos (long).
+ * </pre>
+ * Los totales están en centavos ({@link com.duoc.business.Dinero}); la versión 1, con totales double, ya no se lee.
+ */
+public final class InformeColumnar {
+
+    static final int MAGICO = 0x4C4F4356; // "VCOL" en little-endian
+    static final short VERSION = 2;
+    static final int TAMANO_CABECERA = 96;
+
+    private final int filas;
+    private final String[] diccionario;
+    private final long cantidadMinima;
+    private final long cantidadMaxima;
+    private final long totalMinimo;
+    private final long totalMaximo;
+    private final IntBuffer productos;
+    private final LongBuffer cantidades;
+    private final LongBuffer totales;
+
+    private InformeColumnar(ByteBuffer archivo) throws IOException {
+        if (archivo.capacity() < TAMANO_CABECERA || archivo.getInt(0) != MAGICO) {
+            throw new IOException("No es un informe columnar");
+        }
+        if (archivo.getShort(4) != VERSION) {
+            throw new IOException("Versión de informe columnar no soportada: " + archivo.getShort(4));
+        }
+        if (archivo.getLong(80) != archivo.capacity()) {
+            throw new IOException("Informe columnar incompleto: " + archivo.capacity() + " de " + archivo.getLong(80) + " bytes");
+        }
+        filas = archivo.getInt(8);
+        cantidadMinima = archivo.getLong(16);
+        cantidadMaxima = archivo.getLong(24);
+        totalMinimo = archivo.getLong(32);
+        totalMaximo = archivo.getLong(40);
+
+        diccionario = new String[archivo.getInt(12)];
+        int posicion = (int) archivo.getLong(48);
+        for (int i = 0; i < diccionario.length; i++) {
+            int largo = archivo.getInt(posicion);
+            diccionario[i] = new String(bytes(archivo, posicion + 4, largo), StandardCharsets.UTF_8);
+            posicion += 4 + largo;
+        }
+        productos = columna(archivo, archivo.getLong(56), filas * 4L).asIntBuffer();
+        cantidades = columna(archivo, archivo.getLong(64), filas * 8L).asLongBuffer();
+        totales = columna(archivo, archivo.getLong(72), filas * 8L).asLongBuffer();
+    }
+
+    /**
+     * Mapea un informe columnar en memoria.
+     *
+     * @param archivo El archivo .vcol.
+     * @return La vista del informe.
+     * @throws IOException Si el archivo no se puede leer o no tiene el formato esperado.
+     */
+    public static InformeColumnar abrir(Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            ByteBuffer mapeado = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size()); // El mapeo sigue válido al cerrar el canal
+            return new InformeColumnar(mapeado.order(ByteOrder.LITTLE_ENDIAN));
+        }
+    }
+
+    public int filas() {
+        return filas;
+    }
+
+    public String producto(int fila) {
+        return diccionario[productos.get(fila)];
+    }
+
+    public long cantidadTotal(int fila) {
+        return cantidades.get(fila);
+    }
+
+    /** @return El total de la fila en centavos. */
+    public long totalCentavos(int fila) {
+        return totales.get(fila);
+    }
+
+    /** @return La columna cantidadTotal completa, para recorrerla sin pasar por InformeVenta. */
+    public LongBuffer cantidades() {
+        return cantidades.duplicate();
+    }
+
+    /** @return La columna totalCentavos completa, para recorrerla sin pasar por InformeVenta. */
+    public LongBuffer totales() {
+        return totales.duplicate();
+    }
+
+    public long cantidadMinima() {
+        return cantidadMinima;
+    }
+
+    public long cantidadMaxima() {
+        return cantidadMaxima;
+    }
+
+    public long totalMinimo() {
+        return totalMinimo;
+    }
+
+    public long totalMaximo() {
+        return totalMaximo;
+    }
+
+    // Vista little-endian de una columna del archivo
+    private static ByteBuffer columna(ByteBuffer archivo, long posicion, long largo) throws IOException {
+        if (posicion + largo > archivo.capacity()) {
+            throw new IOException("Columna fuera del archivo en la posición " + posicion);
+        }
+        return archivo.slice((int) posicion, (int) largo).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static byte[] bytes(ByteBuffer archivo, int posicion, int largo) {
+        byte[] destino = new byte[largo];
+        archivo.get(posicion, destino);
+        return destino;
+    }
+}
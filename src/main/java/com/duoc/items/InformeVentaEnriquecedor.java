@@ -0,0 +1,58 @@
+package com.duoc.items;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.stereotype.Component;
+
+import com.duoc.business.InformeVenta;
+import com.duoc.business.ReferenciaProducto;
+
+/**
+ * Completa cada InformeVenta con la categoría, la tasa de impuesto y la moneda de su producto,
+ * tomadas del {@link CatalogoProductos}. Los productos sin referencia quedan con esos campos vacíos.
+ * Para varios informes conviene {@link #enriquecer(List)}, que busca todos los productos juntos:
+ * el costo es una consulta por lote de productos distintos, no una por fila.
+ */
+@Component
+public class InformeVentaEnriquecedor implements ItemProcessor<InformeVenta, InformeVenta> {
+
+    private final CatalogoProductos catalogo;
+
+    public InformeVentaEnriquecedor(CatalogoProductos catalogo) {
+        this.catalogo = catalogo;
+    }
+
+    @Override
+    public InformeVenta process(InformeVenta informe) {
+        enriquecer(List.of(informe));
+        return informe;
+    }
+
+    /**
+     * Enriquece varios informes con una sola búsqueda en el catálogo.
+     *
+     * @param informes Los informes a completar; se modifican en el lugar.
+     * @return Cuántos informes encontraron la referencia de su producto.
+     */
+    public int enriquecer(List<? extends InformeVenta> informes) {
+        List<String> productos = new ArrayList<>(informes.size());
+        for (InformeVenta informe : informes) {
+            productos.add(informe.getProducto());
+        }
+        Map<String, ReferenciaProducto> referencias = catalogo.buscar(productos);
+        int encontrados = 0;
+        for (InformeVenta informe : informes) {
+            ReferenciaProducto referencia = referencias.get(informe.getProducto());
+            if (referencia != null) {
+                informe.setCategoria(referencia.getCategoria());
+                informe.setTasaImpuesto(referencia.getTasaImpuesto());
+                informe.setMoneda(referencia.getMoneda());
+                encontrados++;
+            }
+        }
+        return encontrados;
+    }
+}
@@ -0,0 +1,38 @@
+package com.duoc.items;
+
+import org.springframework.batch.item.file.transform.FieldExtractor;
+
+import com.duoc.business.Dinero;
+import com.duoc.business.InformeVenta;
+
+/**
+ * Extrae los campos producto, cantidadTotal y totalCentavos de un InformeVenta llamando directamente
+ * a sus getters, en lugar de usar BeanWrapperFieldExtractor. El total se formatea con dos decimales ({@link Dinero}).
+ * Con referencia agrega categoria, tasaImpuesto y moneda (vacíos si el producto no tiene referencia).
+ */
+public class InformeVentaFieldExtractor implements FieldExtractor<InformeVenta> {
+
+    private final boolean conReferencia;
+
+    public InformeVentaFieldExtractor() {
+        this(false);
+    }
+
+    public InformeVentaFieldExtractor(boolean conReferencia) {
+        this.conReferencia = conReferencia;
+    }
+
+    @Override
+    public Object[] extract(InformeVenta informe) {
+        if (conReferencia) {
+            return new Object[] { informe.getProducto(), informe.getCantidadTotal(), Dinero.formatear(informe.getTotalCentavos()),
+                    texto(informe.getCategoria()), informe.getTasaImpuesto() == null ? "" : informe.getTasaImpuesto(),
+                    texto(informe.getMoneda()) };
+        }
+        return new Object[] { informe.getProducto(), informe.getCantidadTotal(), Dinero.formatear(informe.getTotalCentavos()) };
+    }
+
+    private static String texto(String valor) {
+        return valor == null ? "" : valor;
+    }
+}
@@ -0,0 +1,207 @@
+package com.duoc.items;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.springframework.core.io.FileSystemResource;
+
+import com.duoc.business.Dinero;
+
+/**
+ * Mezcla de informes consolidados ordenados por producto (el formato de output.csv).
+ * Cada archivo se recorre una sola vez y en memoria queda solo la fila actual de cada uno: una cola de prioridad
+ * elige el menor producto entre los k archivos y suma sus filas con el mismo producto (mezcla de k vías).
+ * Las entradas pueden estar comprimidas con gzip o zstd; las columnas después del total (referencia del producto)
+ * se ignoran. Los totales se suman en centavos ({@link Dinero}), así que el acumulado de un período es exacto;
+ * los informes anteriores con totales en formato double se redondean al centavo al leerlos.
+ * El resultado empieza con una línea "# incluye dia huella ruta" por cada archivo diario que ya contiene, con el día
+ * que consolida y la huella SHA-256 de su contenido ({@link Recursos#huella}), seguida del encabezado y las filas,
+ * y se escribe con extensión .tmp antes de reemplazar el anterior, de modo que nunca queda a medias.
+ */
+public final class MezclaInformes {
+
+    /** Encabezado del informe consolidado. */
+    public static final String ENCABEZADO = "Producto,Cantidad Total,Total Ventas";
+    private static final String INCLUYE = "# incluye ";
+
+    private MezclaInformes() {}
+
+    /**
+     * Archivos diarios que ya contiene un acumulado.
+     *
+     * @param acumulado El archivo acumulado; puede no existir.
+     * @return Los archivos de la cabecera del acumulado, vacía si no existe.
+     * @throws IOException Si el acumulado no se puede leer o una línea de la cabecera no tiene día, huella y ruta.
+     */
+    public static List<Incluido> incluidos(Path acumulado) throws IOException {
+        List<Incluido> incluidos = new ArrayList<>();
+        if (!Files.exists(acumulado)) {
+            return incluidos;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(acumulado, StandardCharsets.UTF_8)) {
+            String linea;
+            while ((linea = reader.readLine()) != null && linea.startsWith("#")) {
+                if (linea.startsWith(INCLUYE)) {
+                    incluidos.add(Incluido.parsear(linea.substring(INCLUYE.length())));
+                }
+            }
+        }
+        return incluidos;
+    }
+
+    /**
+     * Mezcla informes ordenados por producto en uno solo, sumando la cantidad y el total de cada producto.
+     *
+     * @param entradas Los informes a mezclar, cada uno ordenado por producto.
+     * @param salida El archivo de destino; se reemplaza al terminar.
+     * @param incluidos Los archivos diarios que contiene el resultado, para su cabecera.
+     * @return Las filas leídas y escritas.
+     * @throws IOException Si un archivo no se puede leer o no está ordenado por producto.
+     */
+    public static Resultado mezclar(List<Path> entradas, Path salida, List<Incluido> incluidos) throws IOException {
+        PriorityQueue<Cursor> cola = new PriorityQueue<>((a, b) -> a.producto.compareTo(b.producto));
+        Path temporal = salida.resolveSibling(salida.getFileName() + ".tmp");
+        long leidas = 0;
+        long escritas = 0;
+        try {
+            for (Path entrada : entradas) {
+                Cursor cursor = new Cursor(entrada);
+                if (cursor.avanzar()) {
+                    cola.add(cursor);
+                } else {
+                    cursor.reader.close();
+                }
+            }
+            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                    Files.newOutputStream(temporal), StandardCharsets.UTF_8), Compresion.TAMANO_BUFFER)) {
+                for (Incluido incluido : incluidos) {
+                    writer.write(INCLUYE);
+                    writer.write(incluido.dia().toString());
+                    writer.write(' ');
+                    writer.write(incluido.huella());
+                    writer.write(' ');
+                    writer.write(incluido.ruta());
+                    writer.newLine();
+                }
+                writer.write(ENCABEZADO);
+                writer.newLine();
+                while (!cola.isEmpty()) {
+                    String producto = cola.peek().producto;
+                    long cantidad = 0;
+                    long total = 0;
+                    while (!cola.isEmpty() && cola.peek().producto.equals(producto)) {
+                        Cursor cursor = cola.poll();
+                        cantidad += cursor.cantidad;
+                        total = Dinero.sumar(total, cursor.total);
+                        leidas++;
+                        if (cursor.avanzar()) {
+                            cola.add(cursor); // Vuelve a la cola con su siguiente producto
+                        } else {
+                            cursor.reader.close();
+                        }
+                    }
+                    writer.write(producto);
+                    writer.write(',');
+                    writer.write(Long.toString(cantidad));
+                    writer.write(',');
+                    writer.write(Dinero.formatear(total)); // Mismo formato que VentasItemWriter
+                    writer.newLine();
+                    escritas++;
+                }
+            }
+            Files.move(temporal, salida, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            for (Cursor cursor : cola) {
+                cursor.reader.close();
+            }
+            Files.deleteIfExists(temporal);
+        }
+        return new Resultado(leidas, escritas);
+    }
+
+    /**
+     * Archivo diario contenido en un acumulado: el día que consolida, la huella SHA-256 de su contenido y su ruta.
+     */
+    public record Incluido(LocalDate dia, String huella, String ruta) {
+
+        // "dia huella ruta"; la ruta puede tener espacios
+        private static Incluido parsear(String texto) throws IOException {
+            String[] campos = texto.split(" ", 3);
+            if (campos.length < 3) {
+                throw new IOException("Se esperaba \"" + INCLUYE + "dia huella ruta\": " + texto);
+            }
+            try {
+                return new Incluido(LocalDate.parse(campos[0]), campos[1], campos[2]);
+            } catch (DateTimeParseException e) {
+                throw new IOException("Día inválido en \"" + INCLUYE + texto + "\"", e);
+            }
+        }
+    }
+
+    /**
+     * Filas leídas de todas las entradas y filas escritas en el resultado de una mezcla.
+     */
+    public record Resultado(long leidas, long escritas) {
+    }
+
+    // Fila actual de un informe
+    private static final class Cursor {
+        private final Path archivo;
+        private final BufferedReader reader;
+        private String producto;
+        private long cantidad;
+        private long total; // Centavos
+        private long linea;
+
+        private Cursor(Path archivo) throws IOException {
+            this.archivo = archivo;
+            Compresion compresion = Compresion.detectar(new FileSystemResource(archivo));
+            this.reader = new BufferedReader(new InputStreamReader(
+                    compresion.descomprimir(Files.newInputStream(archivo)), StandardCharsets.UTF_8), Compresion.TAMANO_BUFFER);
+            String primera;
+            do {
+                primera = reader.readLine(); // Cabecera de archivos incluidos y encabezado
+                linea++;
+            } while (primera != null && primera.startsWith("#"));
+        }
+
+        // Lee la siguiente fila; false al llegar al final
+        private boolean avanzar() throws IOException {
+            String fila = reader.readLine();
+            linea++;
+            if (fila == null || fila.isEmpty()) {
+                return false;
+            }
+            int coma1 = fila.indexOf(',');
+            int coma2 = coma1 < 0 ? -1 : fila.indexOf(',', coma1 + 1);
+            if (coma2 < 0) {
+                throw new IOException(archivo + ", línea " + linea + ": se esperaban producto, cantidad y total");
+            }
+            int coma3 = fila.indexOf(',', coma2 + 1);
+            String siguiente = fila.substring(0, coma1);
+            if (producto != null && siguiente.compareTo(producto) < 0) {
+                throw new IOException(archivo + ", línea " + linea + ": el informe no está ordenado por producto");
+            }
+            try {
+                cantidad = Long.parseLong(fila, coma1 + 1, coma2, 10);
+                total = Dinero.parsear(fila, coma2 + 1, coma3 < 0 ? fila.length() : coma3);
+            } catch (NumberFormatException e) {
+                throw new IOException(archivo + ", línea " + linea + ": " + e.getMessage(), e);
+            }
+            producto = siguiente;
+            return true;
+        }
+    }
+}
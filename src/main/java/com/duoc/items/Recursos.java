@@ -0,0 +1,133 @@
+package com.duoc.items;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import org.springframework.core.io.Resource;
+
+/**
+ * Utilidades para abrir los archivos de entrada a partir de una posición en bytes.
+ * Los archivos del sistema se posicionan directamente con el FileChannel; el resto de los
+ * recursos (por ejemplo, dentro de un jar) se recorren hasta la posición pedida.
+ * <p>
+ * Los archivos comprimidos (gzip o zstd, ver {@link Compresion}) se descomprimen al leerlos y las posiciones
+ * se cuentan sobre el texto descomprimido. Si el archivo tiene un {@link IndiceBloques}, la lectura empieza
+ * en el bloque que contiene la posición; si no, se descomprime desde el inicio hasta la posición.
+ * Además calcula la huella del contenido de un archivo (o de un texto), con la que se reconoce un archivo ya procesado aunque
+ * llegue con otra ruta, o uno nuevo que reutiliza la ruta de otro.
+ */
+public final class Recursos {
+
+    private Recursos() {}
+
+    /**
+     * Abre el recurso posicionado en el byte indicado.
+     *
+     * @param recurso  El recurso a leer.
+     * @param posicion La posición en bytes (descomprimidos) desde la que se comienza a leer.
+     * @return Un InputStream posicionado en el byte indicado, sin buffer si el recurso no está comprimido.
+     * @throws IOException Si el recurso no se puede abrir o es más corto que la posición.
+     */
+    public static InputStream abrir(Resource recurso, long posicion) throws IOException {
+        Compresion compresion = Compresion.detectar(recurso);
+        if (compresion == Compresion.NINGUNA) {
+            return abrirSinComprimir(recurso, posicion);
+        }
+        IndiceBloques indice = IndiceBloques.leer(recurso);
+        int bloque = indice == null ? -1 : indice.bloque(posicion);
+        long comprimido = bloque < 0 ? 0 : indice.comprimido(bloque);
+        long descomprimido = bloque < 0 ? 0 : indice.descomprimido(bloque);
+        InputStream entrada = compresion.descomprimir(abrirSinComprimir(recurso, comprimido));
+        saltar(entrada, posicion - descomprimido, recurso, posicion);
+        return entrada;
+    }
+
+    /**
+     * Largo del contenido del recurso, descomprimido si está comprimido.
+     *
+     * @param recurso El recurso a medir.
+     * @return El largo en bytes, o -1 si el recurso está comprimido y no tiene índice de bloques.
+     * @throws IOException Si el recurso no se puede leer.
+     */
+    public static long largo(Resource recurso) throws IOException {
+        if (Compresion.detectar(recurso) == Compresion.NINGUNA) {
+            return recurso.contentLength();
+        }
+        IndiceBloques indice = IndiceBloques.leer(recurso);
+        return indice == null ? -1 : indice.largo();
+    }
+
+    /**
+     * Huella SHA-256 del contenido de un archivo, tal como está en disco (sin descomprimir).
+     * Se lee por bloques, sin cargar el archivo completo en memoria.
+     *
+     * @param archivo El archivo.
+     * @return La huella en hexadecimal, 64 caracteres.
+     * @throws IOException Si el archivo no se puede leer.
+     */
+    public static String huella(Path archivo) throws IOException {
+        MessageDigest sha256 = sha256();
+        ByteBuffer bloque = ByteBuffer.allocateDirect(1 << 20);
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            while (canal.read(bloque) >= 0) {
+                sha256.update(bloque.flip());
+                bloque.clear();
+            }
+        }
+        return HexFormat.of().formatHex(sha256.digest());
+    }
+
+    /**
+     * Huella SHA-256 de un texto, codificado en UTF-8.
+     *
+     * @param texto El texto.
+     * @return La huella en hexadecimal, 64 caracteres.
+     */
+    public static String huella(CharSequence texto) {
+        return HexFormat.of().formatHex(sha256().digest(texto.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no está disponible", e); // Toda JVM debe incluirlo
+        }
+    }
+
+    private static InputStream abrirSinComprimir(Resource recurso, long posicion) throws IOException {
+        if (recurso.isFile()) {
+            FileChannel canal = FileChannel.open(recurso.getFile().toPath(), StandardOpenOption.READ);
+            canal.position(posicion); // Salta directamente a la posición sin leer los bytes previos
+            return Channels.newInputStream(canal);
+        }
+        InputStream entrada = recurso.getInputStream();
+        saltar(entrada, posicion, recurso, posicion);
+        return entrada;
+    }
+
+    // Avanza el flujo la cantidad de bytes indicada, leyendo si skip no avanza
+    private static void saltar(InputStream entrada, long bytes, Resource recurso, long posicion) throws IOException {
+        long restantes = bytes;
+        while (restantes > 0) {
+            long saltados = entrada.skip(restantes);
+            if (saltados <= 0) {
+                if (entrada.read() < 0) {
+                    entrada.close();
+                    throw new IOException("El recurso " + recurso.getDescription() + " termina antes del byte " + posicion);
+                }
+                saltados = 1;
+            }
+            restantes -= saltados;
+        }
+    }
+}
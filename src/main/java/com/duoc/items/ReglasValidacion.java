@@ -0,0 +1,273 @@
+package com.duoc.items;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import com.duoc.business.Dinero;
+import com.duoc.business.Venta;
+
+/**
+ * Reglas de validación de las ventas, leídas de un archivo de configuración (ventas.reglas.archivo) y compiladas
+ * una sola vez en una cadena plana de predicados. Validar una venta recorre la cadena y devuelve un código:
+ * {@link #VALIDA} o el número de la regla que no cumplió, sin lanzar excepciones, de modo que rechazar una venta
+ * cuesta lo mismo que aceptarla. Cambiar las reglas solo requiere editar el archivo y reiniciar.
+ * <p>
+ * Una regla por línea; las líneas vacías y las que empiezan con # se ignoran. Campos: id, producto, cantidad, precio.
+ * <pre>
+ * requerido producto                     El campo no puede estar vacío
+ * cantidad &gt; 0                          También &gt;=, &lt; y &lt;=; un campo vacío no cumple ninguna comparación
+ * precio entre 0.01 100000               Rango con ambos extremos incluidos
+ * producto en Producto A | Producto B    Lista de productos permitidos
+ * precio[Producto A] entre 100 500       Rango que solo se aplica a un producto
+ * </pre>
+ * Los rangos por producto de un mismo campo se compilan en una sola regla que busca el producto en un mapa,
+ * por lo que su costo no depende de cuántos productos tengan rango.
+ * <p>
+ * Después de las reglas del archivo la cadena termina siempre con la regla {@value #IMPORTE}: una venta cuyo importe
+ * (precio por cantidad) no cabe en centavos se rechaza como dato inválido, con el motivo "Importe fuera de rango",
+ * en vez de hacer fallar el Step al acumularla.
+ */
+@Component
+public class ReglasValidacion {
+
+    /** Código de una venta que cumple todas las reglas. */
+    public static final int VALIDA = 0;
+    /** Nombre de la regla fija que rechaza las ventas cuyo importe no cabe en un long. */
+    public static final String IMPORTE = "importe en rango";
+
+    private static final Logger logger = LoggerFactory.getLogger(ReglasValidacion.class);
+
+    private final Regla[] reglas; // Cadena compilada, en el orden del archivo
+    private final List<String> motivos = new ArrayList<>(); // Motivo de cada código, desde el 1
+    private final List<String> nombres = new ArrayList<>(); // Línea de origen de cada código, desde el 1
+
+    @Autowired
+    public ReglasValidacion(@Value("${ventas.reglas.archivo:classpath:reglas-ventas.conf}") Resource archivo) throws IOException {
+        this(leer(archivo));
+        logger.info("{} reglas de validación compiladas desde {}", reglas.length, archivo.getDescription());
+    }
+
+    /**
+     * Compila una lista de reglas con el formato del archivo de configuración.
+     *
+     * @param lineas Las reglas, una por elemento.
+     * @throws IllegalArgumentException Si una regla no tiene el formato esperado.
+     */
+    public ReglasValidacion(List<String> lineas) {
+        List<Regla> compiladas = new ArrayList<>();
+        Map<Campo, Map<String, Rango>> porProducto = new HashMap<>(); // Campo → producto → rango
+        for (String linea : lineas) {
+            String regla = linea.strip();
+            if (regla.isEmpty() || regla.startsWith("#")) {
+                continue;
+            }
+            try {
+                Regla compilada = compilar(regla, porProducto);
+                if (compilada != null) {
+                    compiladas.add(compilada);
+                }
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Regla de validación inválida: '" + regla + "' (" + e.getMessage() + ")", e);
+            }
+        }
+        int importe = codigo(IMPORTE, "Importe fuera de rango"); // Al final: los códigos del archivo no cambian
+        compiladas.add(venta -> !venta.tienePrecio() || Dinero.cabe(venta.getPrecioCentavos(), venta.getCantidad())
+                ? VALIDA : importe);
+        this.reglas = compiladas.toArray(new Regla[0]);
+    }
+
+    /**
+     * Valida una venta con la cadena compilada.
+     *
+     * @param venta La venta a validar.
+     * @return {@link #VALIDA}, o el código de la primera regla que no cumple.
+     */
+    public int validar(Venta venta) {
+        for (Regla regla : reglas) {
+            int codigo = regla.validar(venta);
+            if (codigo != VALIDA) {
+                return codigo;
+            }
+        }
+        return VALIDA;
+    }
+
+    /** @return El motivo de rechazo de un código, tal como se escribe en el archivo de errores. */
+    public String motivo(int codigo) {
+        return motivos.get(codigo - 1);
+    }
+
+    /** @return La regla, tal como está escrita en el archivo, que corresponde a un código. */
+    public String nombre(int codigo) {
+        return nombres.get(codigo - 1);
+    }
+
+    private Regla compilar(String regla, Map<Campo, Map<String, Rango>> porProducto) {
+        if (regla.startsWith("requerido ")) {
+            Campo campo = Campo.de(regla.substring("requerido ".length()));
+            int codigo = codigo(regla, campo.titulo + " es obligatorio");
+            return venta -> campo.vacio(venta) ? codigo : VALIDA;
+        }
+        int corchete = regla.indexOf('[');
+        if (corchete > 0 && corchete < regla.indexOf(' ')) { // Rango por producto: precio[Producto A] entre 100 500
+            int cierre = regla.indexOf(']');
+            Campo campo = Campo.de(regla.substring(0, corchete));
+            String producto = regla.substring(corchete + 1, cierre);
+            String[] resto = regla.substring(cierre + 1).strip().split("\\s+");
+            if (resto.length != 3 || !"entre".equals(resto[0])) {
+                throw new IllegalArgumentException("se esperaba: campo[producto] entre minimo maximo");
+            }
+            ToDoubleFunction<Venta> numero = campo.numerico();
+            int codigo = codigo(regla, campo.titulo + " de " + producto + " debe estar entre " + resto[1] + " y " + resto[2]);
+            boolean nueva = !porProducto.containsKey(campo);
+            Map<String, Rango> rangos = porProducto.computeIfAbsent(campo, c -> new HashMap<>());
+            rangos.put(producto, new Rango(Double.parseDouble(resto[1]), Double.parseDouble(resto[2]), codigo));
+            if (!nueva) {
+                return null; // Los rangos de este campo ya tienen su regla compilada; el nuevo solo se agrega a su mapa
+            }
+            return venta -> {
+                Rango rango = rangos.get(venta.getProducto());
+                if (rango == null) {
+                    return VALIDA;
+                }
+                double valor = numero.applyAsDouble(venta);
+                return valor >= rango.minimo() && valor <= rango.maximo() ? VALIDA : rango.codigo();
+            };
+        }
+        String[] partes = regla.split("\\s+", 3);
+        if (partes.length < 3) {
+            throw new IllegalArgumentException("se esperaba: campo operador valor");
+        }
+        String nombreCampo = partes[0];
+        String operador = partes[1];
+        String valor = partes[2].strip();
+        Campo campo = Campo.de(nombreCampo);
+        switch (operador) {
+            case "en" -> {
+                if (campo != Campo.PRODUCTO) {
+                    throw new IllegalArgumentException("la lista de permitidos solo se aplica a producto");
+                }
+                Set<String> permitidos = new HashSet<>();
+                for (String producto : valor.split("\\|")) {
+                    permitidos.add(producto.strip());
+                }
+                int codigo = codigo(regla, "Producto no permitido");
+                return venta -> permitidos.contains(venta.getProducto()) ? VALIDA : codigo;
+            }
+            case "entre" -> {
+                String[] extremos = valor.split("\\s+");
+                if (extremos.length != 2) {
+                    throw new IllegalArgumentException("se esperaba: campo entre minimo maximo");
+                }
+                ToDoubleFunction<Venta> numero = campo.numerico();
+                double minimo = Double.parseDouble(extremos[0]);
+                double maximo = Double.parseDouble(extremos[1]);
+                int codigo = codigo(regla, campo.titulo + " debe estar entre " + extremos[0] + " y " + extremos[1]);
+                return venta -> {
+                    double numeroVenta = numero.applyAsDouble(venta);
+                    return numeroVenta >= minimo && numeroVenta <= maximo ? VALIDA : codigo;
+                };
+            }
+            default -> {
+                ToDoubleFunction<Venta> numero = campo.numerico();
+                double limite = Double.parseDouble(valor);
+                // Las comparaciones con NaN (campo vacío) son falsas, así que un campo vacío no cumple
+                return switch (operador) {
+                    case ">" -> {
+                        int codigo = codigo(regla, campo.titulo + " debe ser mayor que " + valor);
+                        yield venta -> numero.applyAsDouble(venta) > limite ? VALIDA : codigo;
+                    }
+                    case ">=" -> {
+                        int codigo = codigo(regla, campo.titulo + " debe ser mayor o igual que " + valor);
+                        yield venta -> numero.applyAsDouble(venta) >= limite ? VALIDA : codigo;
+                    }
+                    case "<" -> {
+                        int codigo = codigo(regla, campo.titulo + " debe ser menor que " + valor);
+                        yield venta -> numero.applyAsDouble(venta) < limite ? VALIDA : codigo;
+                    }
+                    case "<=" -> {
+                        int codigo = codigo(regla, campo.titulo + " debe ser menor o igual que " + valor);
+                        yield venta -> numero.applyAsDouble(venta) <= limite ? VALIDA : codigo;
+                    }
+                    default -> throw new IllegalArgumentException("operador desconocido " + operador);
+                };
+            }
+        }
+    }
+
+    // Asigna el siguiente código a una regla
+    private int codigo(String regla, String motivo) {
+        nombres.add(regla);
+        motivos.add(motivo);
+        return motivos.size();
+    }
+
+    private static List<String> leer(Resource archivo) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(archivo.getInputStream(), StandardCharsets.UTF_8))) {
+            return reader.lines().toList();
+        }
+    }
+
+    // Eslabón de la cadena compilada: devuelve VALIDA o su código de rechazo
+    @FunctionalInterface
+    private interface Regla {
+        int validar(Venta venta);
+    }
+
+    private record Rango(double minimo, double maximo, int codigo) {}
+
+    // Campos de la venta que pueden usar las reglas
+    private enum Campo {
+        ID("Id"), PRODUCTO("Producto"), CANTIDAD("Cantidad"), PRECIO("Precio");
+
+        private final String titulo;
+
+        Campo(String titulo) {
+            this.titulo = titulo;
+        }
+
+        static Campo de(String nombre) {
+            try {
+                return valueOf(nombre.strip().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("campo desconocido " + nombre);
+            }
+        }
+
+        // Acceso al valor numérico del campo, NaN si está vacío; cada campo tiene su propia lambda
+        ToDoubleFunction<Venta> numerico() {
+            return switch (this) {
+                case ID -> venta -> venta.getId() == null ? Double.NaN : venta.getId();
+                case CANTIDAD -> Venta::getCantidad;
+                case PRECIO -> venta -> venta.tienePrecio() ? Dinero.aDouble(venta.getPrecioCentavos()) : Double.NaN;
+                case PRODUCTO -> throw new IllegalArgumentException("producto no es un campo numérico");
+            };
+        }
+
+        boolean vacio(Venta venta) {
+            return switch (this) {
+                case ID -> venta.getId() == null;
+                case PRODUCTO -> venta.getProducto() == null || venta.getProducto().isBlank();
+                case CANTIDAD -> false;
+                case PRECIO -> !venta.tienePrecio();
+            };
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.duoc.items;
+
+import org.springframework.batch.item.file.mapping.FieldSetMapper;
+import org.springframework.batch.item.file.transform.FieldSet;
+import org.springframework.util.NumberUtils;
+
+import com.duoc.business.Dinero;
+import com.duoc.business.Venta;
+
+/**
+ * Mapea una línea del CSV de ventas a un objeto Venta llamando directamente a sus setters.
+ * Reemplaza a BeanWrapperFieldSetMapper con las mismas reglas de conversión: los valores se recortan,
+ * id y precio vacíos quedan sin valor (null y Venta.SIN_PRECIO) y una cantidad vacía o un número inválido lanzan
+ * una excepción, que el lector reporta como FlatFileParseException. El precio se lee en centavos con {@link Dinero}.
+ */
+public class VentaFieldSetMapper implements FieldSetMapper<Venta> {
+
+    @Override
+    public Venta mapFieldSet(FieldSet fieldSet) {
+        Venta venta = new Venta();
+        venta.setId(numero(fieldSet.readString(0), Long.class, "id"));
+        venta.setProducto(fieldSet.readString(1));
+        Integer cantidad = numero(fieldSet.readString(2), Integer.class, "cantidad");
+        if (cantidad == null) {
+            throw new NumberFormatException("Valor vacío para el campo cantidad");
+        }
+        venta.setCantidad(cantidad);
+        String precio = fieldSet.readString(3);
+        if (precio != null && !precio.isEmpty()) {
+            try {
+                venta.setPrecioCentavos(Dinero.parsear(precio)); // En centavos, sin pasar por double
+            } catch (NumberFormatException e) {
+                throw new NumberFormatException("Valor inválido para el campo precio: '" + precio + "'");
+            }
+        }
+        return venta;
+    }
+
+    // Convierte el texto ya recortado al tipo numérico indicado; un texto vacío se considera null
+    private static <T extends Number> T numero(String texto, Class<T> tipo, String campo) {
+        if (texto == null || texto.isEmpty()) {
+            return null;
+        }
+        try {
+            return NumberUtils.parseNumber(texto, tipo);
+        } catch (IllegalArgumentException e) {
+            throw new NumberFormatException("Valor inválido para el campo " + campo + ": '" + texto + "'");
+        }
+    }
+}
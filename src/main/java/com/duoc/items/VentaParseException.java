@@ -0,0 +1,23 @@
+package com.duoc.items;
+
+import org.springframework.batch.item.file.FlatFileParseException;
+
+/**
+ * Error de lectura de una línea del archivo de ventas.
+ * En lugar del número de línea de FlatFileParseException, que queda en 0, guarda la posición en bytes de la línea
+ * en el archivo: una partición empieza a leer a la mitad del archivo y no sabe en qué línea está, pero la posición
+ * identifica el registro igual.
+ */
+public class VentaParseException extends FlatFileParseException {
+
+    private final long posicion;
+
+    public VentaParseException(String message, Throwable cause, String input, long posicion) {
+        super(message, cause, input, 0);
+        this.posicion = posicion;
+    }
+
+    public long getPosicion() {
+        return posicion;
+    }
+}
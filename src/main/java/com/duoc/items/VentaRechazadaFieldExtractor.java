@@ -0,0 +1,17 @@
+package com.duoc.items;
+
+import org.springframework.batch.item.file.transform.FieldExtractor;
+
+import com.duoc.business.VentaRechazada;
+
+/**
+ * Extrae los campos posicion, motivo y registro de una VentaRechazada llamando directamente a sus getters.
+ * El registro original va al final, de modo que sus comas no desplazan las demás columnas.
+ */
+public class VentaRechazadaFieldExtractor implements FieldExtractor<VentaRechazada> {
+
+    @Override
+    public Object[] extract(VentaRechazada rechazo) {
+        return new Object[] { rechazo.getPosicion(), rechazo.getMotivo(), rechazo.getRegistro() };
+    }
+}
@@ -0,0 +1,201 @@
+package com.duoc.items;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.stereotype.Component;
+
+import com.duoc.business.Dinero;
+import com.duoc.business.InformeVenta;
+import com.duoc.business.Venta;
+
+/**
+ * Acumula los totales por producto de las ventas válidas del Step.
+ * Cada producto tiene un único acumulador: la cantidad en un contador segmentado (LongAdder) y el total en centavos
+ * en un AtomicLong con suma comprobada ({@link Dinero#sumar}), por lo que los hilos suman sin bloquearse, sin crear
+ * un InformeVenta por fila y sin perder centavos ni desbordar el total en silencio.
+ * Cada partición tiene su propia instancia (StepScope). En cada commit los totales se guardan en el ExecutionContext
+ * de la partición junto con la posición del lector, por lo que un reintento continúa desde el último chunk
+ * confirmado sin volver a sumar lo ya acumulado. Los arreglos del ExecutionContext se conservan entre commits y cada
+ * producto tiene su posición fija en ellos: un commit solo reescribe los productos que cambiaron en sus chunks, no
+ * copia todos los productos de la partición. El informe consolidado combina esas copias con {@link #combinar(ExecutionContext)}.
+ */
+@Component
+@StepScope
+public class VentasAggregator implements ItemStreamWriter<Venta> {
+
+    private static final String NOMBRE = "ventasAggregator."; // Prefijo de las claves en el ExecutionContext
+    private static final String PRODUCTOS = NOMBRE + "productos";
+    private static final String CANTIDADES = NOMBRE + "cantidades";
+    private static final String TOTALES = NOMBRE + "totales";
+    private static final String VERSION = NOMBRE + "version";
+
+    private final Map<String, Acumulado> acumulados = new ConcurrentHashMap<>(); // Un acumulador por producto
+    private final Queue<Acumulado> cambiados = new ConcurrentLinkedQueue<>(); // Productos con sumas aún no guardadas
+    // Copia guardada en el ExecutionContext; las posiciones después de "usados" están libres
+    private String[] productos = new String[0];
+    private long[] cantidades = new long[0];
+    private long[] totales = new long[0];
+    private int usados;
+    private long version; // Cambia en cada commit con productos modificados, para marcar el contexto como modificado
+
+    @Override
+    public synchronized void open(ExecutionContext executionContext) throws ItemStreamException {
+        acumulados.clear();
+        cambiados.clear();
+        productos = new String[0];
+        cantidades = new long[0];
+        totales = new long[0];
+        usados = 0;
+        version = executionContext.getLong(VERSION, 0);
+        combinar(executionContext); // Un reintento parte con los totales del último commit
+    }
+
+    @Override
+    public synchronized void update(ExecutionContext executionContext) throws ItemStreamException {
+        if (cambiados.isEmpty()) {
+            return; // Nada que guardar: el contexto conserva los arreglos del commit anterior
+        }
+        Acumulado acumulado;
+        while ((acumulado = cambiados.poll()) != null) {
+            acumulado.cambiado = false; // Antes de leer las sumas: una venta posterior lo vuelve a encolar
+            if (acumulado.posicion < 0) {
+                if (usados == productos.length) {
+                    int capacidad = Math.max(16, usados * 2);
+                    productos = Arrays.copyOf(productos, capacidad);
+                    cantidades = Arrays.copyOf(cantidades, capacidad);
+                    totales = Arrays.copyOf(totales, capacidad);
+                }
+                acumulado.posicion = usados++;
+                productos[acumulado.posicion] = acumulado.producto;
+            }
+            cantidades[acumulado.posicion] = acumulado.cantidad.sum();
+            totales[acumulado.posicion] = acumulado.total.get();
+        }
+        executionContext.put(PRODUCTOS, productos);
+        executionContext.put(CANTIDADES, cantidades);
+        executionContext.put(TOTALES, totales);
+        // Al final: ExecutionContext queda modificado según el último put, y los arreglos pueden ser los mismos
+        executionContext.putLong(VERSION, ++version);
+    }
+
+    @Override
+    public void write(Chunk<? extends Venta> chunk) {
+        for (Venta venta : chunk) {
+            acumular(venta);
+        }
+    }
+
+    /**
+     * Suma la cantidad y el total (cantidad * precio, en centavos) de la venta en el acumulador de su producto.
+     * Solo se asigna memoria la primera vez que aparece un producto.
+     *
+     * @param venta La venta ya validada.
+     */
+    public void acumular(Venta venta) {
+        String producto = venta.getProducto() == null ? "" : venta.getProducto();
+        Acumulado acumulado = acumulado(producto);
+        acumulado.cantidad.add(venta.getCantidad());
+        acumulado.total.accumulateAndGet(venta.importeCentavos(), Dinero::sumar);
+        marcar(acumulado);
+    }
+
+    /**
+     * Suma a los acumuladores los totales guardados en el ExecutionContext de una partición.
+     * No hace nada si la partición todavía no confirmó ningún chunk.
+     *
+     * @param executionContext El ExecutionContext de la partición.
+     */
+    public void combinar(ExecutionContext executionContext) {
+        if (!executionContext.containsKey(PRODUCTOS)) {
+            return;
+        }
+        String[] productos = (String[]) executionContext.get(PRODUCTOS);
+        long[] cantidades = (long[]) executionContext.get(CANTIDADES);
+        long[] totales = (long[]) executionContext.get(TOTALES);
+        for (int i = 0; i < productos.length && productos[i] != null; i++) { // Las posiciones libres quedan en null
+            sumar(productos[i], cantidades[i], totales[i]);
+        }
+    }
+
+    /**
+     * Suma totales ya calculados de un producto, por ejemplo los de un chunk procesado en otro nodo.
+     *
+     * @param producto El producto.
+     * @param cantidad La cantidad a sumar.
+     * @param total El total a sumar, en centavos.
+     */
+    public void sumar(String producto, long cantidad, long total) {
+        Acumulado acumulado = acumulado(producto);
+        acumulado.cantidad.add(cantidad);
+        acumulado.total.accumulateAndGet(total, Dinero::sumar);
+        marcar(acumulado);
+    }
+
+    // Acumulador de un producto; solo se asigna memoria la primera vez que aparece
+    private Acumulado acumulado(String producto) {
+        Acumulado acumulado = acumulados.get(producto);
+        if (acumulado == null) {
+            acumulado = acumulados.computeIfAbsent(producto.intern(), Acumulado::new); // Clave canónica del producto
+        }
+        return acumulado;
+    }
+
+    // Encola el producto para el próximo update, una sola vez por commit
+    private void marcar(Acumulado acumulado) {
+        if (!acumulado.cambiado) {
+            acumulado.cambiado = true;
+            cambiados.add(acumulado); // Dos hilos pueden encolarlo a la vez: update lo reescribe dos veces, sin error
+        }
+    }
+
+    /**
+     * Construye el informe consolidado, una fila por producto, ordenado por nombre de producto.
+     *
+     * @return La lista de informes por producto.
+     */
+    public List<InformeVenta> informes() {
+        List<InformeVenta> informes = new ArrayList<>(acumulados.size());
+        acumulados.forEach((producto, acumulado) -> {
+            InformeVenta informe = new InformeVenta();
+            informe.setProducto(producto);
+            informe.setCantidadTotal(acumulado.cantidad.sum());
+            informe.setTotalCentavos(acumulado.total.get());
+            informes.add(informe);
+        });
+        informes.sort((a, b) -> a.getProducto().compareTo(b.getProducto()));
+        return informes;
+    }
+
+    /**
+     * Cantidad de productos distintos acumulados.
+     */
+    public int productos() {
+        return acumulados.size();
+    }
+
+    // Contadores de un producto
+    private static final class Acumulado {
+        private final String producto;
+        private final LongAdder cantidad = new LongAdder();
+        private final AtomicLong total = new AtomicLong(); // Centavos
+        private volatile boolean cambiado; // Está en la cola de cambiados
+        private int posicion = -1; // Posición en los arreglos del ExecutionContext; solo la usa update
+
+        private Acumulado(String producto) {
+            this.producto = producto;
+        }
+    }
+}
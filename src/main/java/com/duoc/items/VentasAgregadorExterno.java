@@ -0,0 +1,209 @@
+package com.duoc.items;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.duoc.business.Dinero;
+import com.duoc.business.Venta;
+
+/**
+ * Acumula los totales por producto de una partición con memoria acotada (ventas.agregacion.modo=externa), para archivos
+ * con más productos distintos de los que caben en el heap.
+ * <ul>
+ *   <li>Los totales se suman en una tabla hash en memoria. Al confirmar un chunk, si la tabla supera
+ *       ventas.agregacion.memoria-mb, se ordena y se vuelca como una {@link CorridaVentas} y la tabla se vacía.
+ *       La tabla puede pasarse del presupuesto como mucho en los productos nuevos de un chunk.</li>
+ *   <li>Al juntar {@value #MAXIMO_CORRIDAS} corridas se mezclan en una sola, así que una partición nunca abre más archivos.</li>
+ *   <li>Al terminar la partición se vuelca lo que queda y el ExecutionContext guarda las rutas de sus corridas;
+ *       el informe consolidado las mezcla con las de las demás particiones.</li>
+ * </ul>
+ * En cada volcado el ExecutionContext guarda una copia de sí mismo ({@link #REINICIO}): un reintento continúa desde
+ * el último volcado, no desde el último commit, porque los totales que aún estaban en memoria se pierden. Las filas
+ * entre ambos se vuelven a leer y sus rechazos pueden repetirse en el archivo de errores.
+ */
+@Component
+@StepScope
+public class VentasAgregadorExterno implements ItemStreamWriter<Venta>, StepExecutionListener {
+
+    /** Clave del ExecutionContext con las rutas de las corridas de la partición. */
+    public static final String CORRIDAS = "agregacion.corridas";
+    /** Clave del ExecutionContext con la copia del contexto en el último volcado, desde la que continúa un reintento. */
+    public static final String REINICIO = "agregacion.reinicio";
+
+    static final int MAXIMO_CORRIDAS = 32;
+    private static final Logger logger = LoggerFactory.getLogger(VentasAgregadorExterno.class);
+
+    private final Path directorio;
+    private final long presupuesto; // Bytes estimados de la tabla en memoria antes de volcarla
+    private final Map<String, Acumulado> acumulados = new HashMap<>();
+    private final List<String> corridas = new ArrayList<>(); // Corridas vigentes de la partición
+    private final Set<String> reemplazadas = new HashSet<>(); // Corridas ya mezcladas; se borran al terminar la partición
+    private long memoria; // Bytes estimados de la tabla
+    private int volcados;
+    private final String nombre; // Prefijo de las corridas de esta ejecución de la partición
+
+    public VentasAgregadorExterno(@Value("${ventas.agregacion.directorio:}") String directorio,
+                                  @Value("${ventas.agregacion.memoria-mb:64}") long memoriaMb,
+                                  @Value("#{stepExecution}") StepExecution stepExecution) {
+        // Una carpeta por instancia del Job y partición; InformeVentasStepExecutionListener borra la del Job al terminar
+        this.directorio = directorioJob(directorio, stepExecution.getJobExecution().getJobInstance().getInstanceId())
+                .resolve(stepExecution.getStepName().replace(':', '-')).toAbsolutePath();
+        this.presupuesto = memoriaMb * 1024 * 1024;
+        this.nombre = "corrida-" + stepExecution.getId();
+    }
+
+    /**
+     * Carpeta de las corridas de una instancia del Job.
+     *
+     * @param directorio La carpeta de ventas.agregacion.directorio; vacía usa la carpeta temporal del sistema.
+     * @param jobInstanceId La instancia del Job.
+     * @return La carpeta con una subcarpeta por partición.
+     */
+    public static Path directorioJob(String directorio, long jobInstanceId) {
+        Path base = directorio.isBlank()
+                ? Paths.get(System.getProperty("java.io.tmpdir"), "ventas-agregacion") : Paths.get(directorio);
+        return base.resolve("job-" + jobInstanceId);
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        acumulados.clear();
+        memoria = 0;
+        corridas.clear();
+        if (executionContext.containsKey(CORRIDAS)) {
+            corridas.addAll(Arrays.asList((String[]) executionContext.get(CORRIDAS))); // Reintento desde el último volcado
+        }
+        try {
+            Files.createDirectories(directorio);
+        } catch (IOException e) {
+            throw new ItemStreamException("No se pudo crear la carpeta de agregación " + directorio, e);
+        }
+    }
+
+    @Override
+    public void write(Chunk<? extends Venta> chunk) {
+        for (Venta venta : chunk) {
+            String producto = venta.getProducto() == null ? "" : venta.getProducto();
+            Acumulado acumulado = acumulados.get(producto);
+            if (acumulado == null) {
+                acumulado = new Acumulado();
+                acumulados.put(producto, acumulado);
+                memoria += bytesEstimados(producto);
+            }
+            acumulado.cantidad += venta.getCantidad();
+            acumulado.total = Dinero.sumar(acumulado.total, venta.importeCentavos());
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        if (memoria < presupuesto) {
+            return; // Sin volcado, el punto de reinicio sigue siendo el anterior
+        }
+        volcar();
+        executionContext.put(CORRIDAS, corridas.toArray(new String[0]));
+        Map<String, Object> copia = new HashMap<>();
+        for (Map.Entry<String, Object> entrada : executionContext.entrySet()) {
+            if (!REINICIO.equals(entrada.getKey())) {
+                copia.put(entrada.getKey(), entrada.getValue());
+            }
+        }
+        executionContext.put(REINICIO, copia); // Ya incluye la posición del lector, que se actualiza antes que el escritor
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        if (stepExecution.getStatus() != BatchStatus.COMPLETED) {
+            return null; // Las corridas quedan para el reintento
+        }
+        if (!acumulados.isEmpty()) {
+            volcar();
+        }
+        for (String corrida : reemplazadas) {
+            try {
+                Files.deleteIfExists(Paths.get(corrida));
+            } catch (IOException e) {
+                logger.warn("No se pudo borrar la corrida {}: {}", corrida, e.getMessage());
+            }
+        }
+        stepExecution.getExecutionContext().put(CORRIDAS, corridas.toArray(new String[0]));
+        stepExecution.getExecutionContext().remove(REINICIO);
+        logger.info("{}: {} corridas en {} ({} volcados)", stepExecution.getStepName(), corridas.size(), directorio, volcados);
+        return null;
+    }
+
+    // Escribe la tabla ordenada como una corrida nueva y, si hay demasiadas, las mezcla en una
+    private void volcar() {
+        try {
+            String[] productos = acumulados.keySet().toArray(new String[0]);
+            Arrays.sort(productos);
+            Path corrida = directorio.resolve(nombre + "-" + (++volcados) + ".vrun");
+            try (CorridaVentas.Escritor escritor = new CorridaVentas.Escritor(corrida)) {
+                for (String producto : productos) {
+                    Acumulado acumulado = acumulados.get(producto);
+                    escritor.escribir(producto, acumulado.cantidad, acumulado.total);
+                }
+            }
+            corridas.add(corrida.toString());
+            acumulados.clear();
+            memoria = 0;
+            if (corridas.size() >= MAXIMO_CORRIDAS) {
+                compactar();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo volcar la agregación en " + directorio, e);
+        }
+    }
+
+    // Mezcla todas las corridas en una; las anteriores se conservan hasta que la partición termina, porque
+    // un reintento puede continuar desde un volcado que todavía las usa
+    private void compactar() throws IOException {
+        Path mezcla = directorio.resolve(nombre + "-" + (++volcados) + ".vrun");
+        List<Path> entradas = corridas.stream().map(Paths::get).toList();
+        try (CorridaVentas.Escritor escritor = new CorridaVentas.Escritor(mezcla)) {
+            CorridaVentas.mezclar(entradas, escritor::escribir);
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+        reemplazadas.addAll(corridas);
+        corridas.clear();
+        corridas.add(mezcla.toString());
+    }
+
+    // Estimación de lo que ocupa un producto en la tabla: String y su arreglo, nodo del HashMap, ranura y acumulado
+    static long bytesEstimados(String producto) {
+        return 112 + 2L * producto.length();
+    }
+
+    // Totales de un producto; cada partición escribe desde un solo hilo
+    private static final class Acumulado {
+        private long cantidad;
+        private long total; // Centavos
+    }
+}
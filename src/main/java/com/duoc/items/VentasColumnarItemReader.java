@@ -0,0 +1,53 @@
+package com.duoc.items;
+
+import java.nio.file.Path;
+
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+
+import com.duoc.business.InformeVenta;
+
+/**
+ * Lector de un informe consolidado en formato columnar (.vcol), escrito por {@link VentasColumnarItemWriter}.
+ * Devuelve las filas en el orden en que se escribieron. Al reiniciar retoma desde la última fila confirmada
+ * sin recorrer las anteriores, porque cada columna tiene ancho fijo.
+ */
+public class VentasColumnarItemReader extends AbstractItemCountingItemStreamItemReader<InformeVenta> {
+
+    private final Path archivo;
+    private InformeColumnar informe;
+    private int fila;
+
+    public VentasColumnarItemReader(Path archivo) {
+        setName("ventasColumnarItemReader");
+        this.archivo = archivo;
+    }
+
+    @Override
+    protected void doOpen() throws Exception {
+        informe = InformeColumnar.abrir(archivo);
+        fila = 0;
+    }
+
+    @Override
+    protected InformeVenta doRead() {
+        if (fila >= informe.filas()) {
+            return null;
+        }
+        InformeVenta venta = new InformeVenta();
+        venta.setProducto(informe.producto(fila));
+        venta.setCantidadTotal(informe.cantidadTotal(fila));
+        venta.setTotalCentavos(informe.totalCentavos(fila));
+        fila++;
+        return venta;
+    }
+
+    @Override
+    protected void jumpToItem(int itemIndex) {
+        fila = itemIndex;
+    }
+
+    @Override
+    protected void doClose() {
+        informe = null; // El mapeo se libera cuando el recolector descarta el buffer
+    }
+}
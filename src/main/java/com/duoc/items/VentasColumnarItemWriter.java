@@ -0,0 +1,189 @@
+package com.duoc.items;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.duoc.business.InformeVenta;
+
+/**
+ * Escritor del informe consolidado en formato columnar binario (ver {@link InformeColumnar}).
+ * Guarda las filas en arreglos primitivos y al cerrar escribe el archivo completo con un ByteBuffer directo
+ * sobre un FileChannel, sin formatear texto por fila: el producto se codifica con un diccionario y la cantidad y
+ * el total se escriben con ancho fijo. La cabecera lleva la cantidad de filas y los mínimos y máximos de cada columna.
+ * El archivo se escribe primero con extensión .tmp y luego se reemplaza, para que nunca se lea a medio escribir.
+ * La ruta es la del informe CSV con extensión .vcol (output.csv → output.vcol).
+ */
+@Component
+@StepScope
+public class VentasColumnarItemWriter implements ItemStreamWriter<InformeVenta> {
+
+    private static final int TAMANO_BUFFER = 64 * 1024;
+
+    private final Path archivo;
+    private final Map<String, Integer> codigos = new HashMap<>(); // Índice de cada producto en el diccionario
+    private final List<byte[]> diccionario = new ArrayList<>(); // Nombres en UTF-8, en orden de aparición
+
+    private int filas;
+    private int[] productos = new int[64];
+    private long[] cantidades = new long[64];
+    private long[] totales = new long[64]; // Centavos
+
+    public VentasColumnarItemWriter(@Value("#{jobParameters['salida'] ?: 'output.csv'}") String salida) {
+        this.archivo = rutaColumnar(Paths.get(salida));
+    }
+
+    /**
+     * Ruta del informe columnar que corresponde a un informe CSV.
+     *
+     * @param salida La ruta del informe CSV.
+     * @return La misma ruta con extensión .vcol, sin la extensión de compresión (output.csv.gz → output.vcol).
+     */
+    public static Path rutaColumnar(Path salida) {
+        String nombre = salida.getFileName().toString();
+        nombre = nombre.substring(0, nombre.length() - Compresion.deExtension(nombre).extension().length());
+        int punto = nombre.lastIndexOf('.');
+        return salida.resolveSibling((punto > 0 ? nombre.substring(0, punto) : nombre) + ".vcol");
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) {
+        filas = 0;
+        codigos.clear();
+        diccionario.clear();
+    }
+
+    @Override
+    public void write(Chunk<? extends InformeVenta> chunk) {
+        if (filas + chunk.size() > productos.length) {
+            int capacidad = Math.max(productos.length * 2, filas + chunk.size());
+            productos = Arrays.copyOf(productos, capacidad);
+            cantidades = Arrays.copyOf(cantidades, capacidad);
+            totales = Arrays.copyOf(totales, capacidad);
+        }
+        for (InformeVenta informe : chunk) {
+            productos[filas] = codigos.computeIfAbsent(informe.getProducto(), producto -> {
+                diccionario.add(producto.getBytes(StandardCharsets.UTF_8));
+                return diccionario.size() - 1;
+            });
+            cantidades[filas] = informe.getCantidadTotal();
+            totales[filas] = informe.getTotalCentavos();
+            filas++;
+        }
+    }
+
+    @Override
+    public void close() {
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try {
+            escribir(temporal);
+            Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new ItemStreamException("Error al escribir el informe columnar " + archivo, e);
+        }
+    }
+
+    private void escribir(Path destino) throws IOException {
+        long cantidadMinima = 0, cantidadMaxima = 0;
+        long totalMinimo = 0, totalMaximo = 0;
+        if (filas > 0) {
+            cantidadMinima = cantidadMaxima = cantidades[0];
+            totalMinimo = totalMaximo = totales[0];
+            for (int i = 1; i < filas; i++) {
+                cantidadMinima = Math.min(cantidadMinima, cantidades[i]);
+                cantidadMaxima = Math.max(cantidadMaxima, cantidades[i]);
+                totalMinimo = Math.min(totalMinimo, totales[i]);
+                totalMaximo = Math.max(totalMaximo, totales[i]);
+            }
+        }
+        long posicionDiccionario = InformeColumnar.TAMANO_CABECERA;
+        long largoDiccionario = 0;
+        for (byte[] nombre : diccionario) {
+            largoDiccionario += 4 + nombre.length;
+        }
+        long posicionProductos = alinear(posicionDiccionario + largoDiccionario);
+        long posicionCantidades = alinear(posicionProductos + filas * 4L);
+        long posicionTotales = posicionCantidades + filas * 8L;
+        long tamano = posicionTotales + filas * 8L;
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANO_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel canal = FileChannel.open(destino, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            buffer.putInt(InformeColumnar.MAGICO).putShort(InformeColumnar.VERSION).putShort((short) 0)
+                    .putInt(filas).putInt(diccionario.size())
+                    .putLong(cantidadMinima).putLong(cantidadMaxima)
+                    .putLong(totalMinimo).putLong(totalMaximo)
+                    .putLong(posicionDiccionario).putLong(posicionProductos)
+                    .putLong(posicionCantidades).putLong(posicionTotales)
+                    .putLong(tamano).putLong(0);
+            for (byte[] nombre : diccionario) {
+                asegurar(canal, buffer, 4 + nombre.length);
+                buffer.putInt(nombre.length).put(nombre);
+            }
+            relleno(canal, buffer, posicionProductos - posicionDiccionario - largoDiccionario);
+            for (int i = 0; i < filas; i++) {
+                asegurar(canal, buffer, 4);
+                buffer.putInt(productos[i]);
+            }
+            relleno(canal, buffer, posicionCantidades - posicionProductos - filas * 4L);
+            for (int i = 0; i < filas; i++) {
+                asegurar(canal, buffer, 8);
+                buffer.putLong(cantidades[i]);
+            }
+            for (int i = 0; i < filas; i++) {
+                asegurar(canal, buffer, 8);
+                buffer.putLong(totales[i]);
+            }
+            vaciar(canal, buffer);
+        }
+    }
+
+    // Escribe el buffer en el archivo si no quedan los bytes pedidos
+    private static void asegurar(FileChannel canal, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            vaciar(canal, buffer);
+        }
+        if (bytes > buffer.capacity()) {
+            throw new IOException("Nombre de producto demasiado largo: " + bytes + " bytes");
+        }
+    }
+
+    private static void relleno(FileChannel canal, ByteBuffer buffer, long bytes) throws IOException {
+        for (long i = 0; i < bytes; i++) {
+            asegurar(canal, buffer, 1);
+            buffer.put((byte) 0);
+        }
+    }
+
+    private static void vaciar(FileChannel canal, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static long alinear(long posicion) {
+        return (posicion + 7) & ~7L;
+    }
+}
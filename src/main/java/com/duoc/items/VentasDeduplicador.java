@@ -0,0 +1,121 @@
+package com.duoc.items;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.duoc.business.Venta;
+
+/**
+ * Etapa previa a VentasItemProcessor que filtra las ventas cuyo id ya se consolidó en este u otro Job
+ * (un archivo reenviado, o el mismo archivo con otro nombre), consultando el {@link IndiceDeduplicacion}.
+ * Una venta filtrada se cuenta en el filterCount de la partición.
+ * <p>
+ * El id se reserva al procesar la venta y solo se registra en el índice cuando el chunk que la escribió se confirma:
+ * si el chunk hace rollback, o la venta se omite por inválida, la reserva se libera y la venta se vuelve a aceptar
+ * en el reintento. La reserva identifica la fila (partición y posición en el archivo), de modo que volver a procesar
+ * la misma fila no la marca como duplicada, pero otra fila con el mismo id sí.
+ * Cada partición tiene su propia instancia (StepScope).
+ */
+@Component
+@StepScope
+public class VentasDeduplicador implements ItemProcessor<Venta, Venta>, ItemProcessListener<Venta, Venta>,
+        ItemWriteListener<Venta>, ChunkListener, StepExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(VentasDeduplicador.class);
+
+    private final IndiceDeduplicacion indice;
+    private final long particion; // StepExecution de la partición, para identificar sus reservas
+    private final List<Reserva> reservadas = new ArrayList<>(); // Reservas del chunk en curso
+    private long[] escritos = new long[256]; // Id escritos en el chunk en curso, se registran al confirmarlo
+    private int cantidadEscritos;
+    private long duplicados;
+
+    public VentasDeduplicador(IndiceDeduplicacion indice, @Value("#{stepExecution.id}") Long particion) {
+        this.indice = indice;
+        this.particion = particion;
+    }
+
+    @Override
+    public Venta process(Venta venta) {
+        if (venta.getId() == null) {
+            return venta;
+        }
+        Fila fila = new Fila(particion, venta.getPosicion());
+        if (!indice.reservar(venta.getId(), fila)) {
+            duplicados++;
+            return null; // Ya consolidada: se filtra sin validar
+        }
+        reservadas.add(new Reserva(venta.getId(), fila));
+        return venta;
+    }
+
+    // La venta se omitió por inválida: su id queda libre para otra fila
+    @Override
+    public void onProcessError(Venta venta, Exception e) {
+        if (venta.getId() != null) {
+            indice.liberar(venta.getId(), new Fila(particion, venta.getPosicion()));
+        }
+    }
+
+    @Override
+    public void afterWrite(Chunk<? extends Venta> items) {
+        if (cantidadEscritos + items.size() > escritos.length) {
+            escritos = Arrays.copyOf(escritos, Math.max(escritos.length * 2, cantidadEscritos + items.size()));
+        }
+        for (Venta venta : items) {
+            if (venta.getId() != null) {
+                escritos[cantidadEscritos++] = venta.getId();
+            }
+        }
+    }
+
+    // El chunk se confirmó: sus id quedan en el índice antes de soltar las reservas, para que no haya un momento sin ninguno
+    @Override
+    public void afterChunk(ChunkContext context) {
+        indice.confirmar(escritos, cantidadEscritos);
+        liberarReservas();
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        liberarReservas();
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        liberarReservas(); // Un Step detenido entre chunks no deja reservas
+        if (duplicados > 0) {
+            logger.info("{}: {} ventas ya consolidadas se filtraron", stepExecution.getStepName(), duplicados);
+        }
+        return stepExecution.getExitStatus();
+    }
+
+    private void liberarReservas() {
+        for (Reserva reserva : reservadas) {
+            indice.liberar(reserva.id(), reserva.fila());
+        }
+        reservadas.clear();
+        cantidadEscritos = 0;
+    }
+
+    // Fila que reservó un id: la partición y la posición de la línea en el archivo
+    private record Fila(long particion, long posicion) {}
+
+    private record Reserva(long id, Fila fila) {}
+}
@@ -2,33 +2,47 @@ package com.duoc.items;
 
 import org.slf4j.LoggerFactory;
 import org.springframework.batch.item.ItemProcessor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.slf4j.Logger;
 
-import com.duoc.business.InformeVenta;
 import com.duoc.business.InvalidDataException;
 import com.duoc.business.Venta;
 
+/**
+ * Valida cada venta antes de acumularla con las {@link ReglasValidacion} configuradas.
+ * Una venta inválida no lanza una excepción: su código de rechazo pasa al {@link DestinoRechazos}
+ * (FileVerificationSkipper), que la envía al archivo de errores, y el procesador la filtra devolviendo null.
+ * Solo cuando se supera el máximo de omisiones se lanza InvalidDataException para que falle el Step.
+ * Las válidas pasan sin copiarse al VentasAggregator, que consolida los totales por producto.
+ * Con ventas.log.por-item=false no se registra cada venta inválida en el log (el archivo de errores ya las contiene).
+ */
 @Component
-public class VentasItemProcessor implements ItemProcessor<Venta, InformeVenta> {
+public class VentasItemProcessor implements ItemProcessor<Venta, Venta> {
     private static final Logger logger = LoggerFactory.getLogger(VentasItemProcessor.class);
+    private final ReglasValidacion reglas;
+    private final DestinoRechazos rechazos;
+    private final boolean logPorItem; // Registra en el log cada venta inválida
+
+    public VentasItemProcessor(ReglasValidacion reglas, DestinoRechazos rechazos,
+                               @Value("${ventas.log.por-item:true}") boolean logPorItem) {
+        this.reglas = reglas;
+        this.rechazos = rechazos;
+        this.logPorItem = logPorItem;
+    }
 
     @Override
-    public InformeVenta process(Venta venta) throws Exception {
-        if (venta.getCantidad() <= 0) {
-            logger.warn("Cantidad inválida para producto {}: {}", venta.getProducto(), venta.getCantidad());
-            throw new InvalidDataException("Cantidad debe ser mayor que 0");
+    public Venta process(Venta venta) throws Exception {
+        int codigo = reglas.validar(venta);
+        if (codigo == ReglasValidacion.VALIDA) {
+            return venta; // La venta es válida, se acumula en el writer
         }
-
-        if (venta.getPrecio() == null || venta.getPrecio() <= 0) {
-            logger.warn("Precio inválido para producto {}: {}", venta.getProducto(), venta.getPrecio());
-            throw new InvalidDataException("Precio debe ser mayor que 0");
+        if (logPorItem) {
+            logger.warn("Venta inválida para producto {}: {}", venta.getProducto(), reglas.motivo(codigo));
         }
-
-        InformeVenta informe = new InformeVenta();
-        informe.setProducto(venta.getProducto());
-        informe.setCantidadTotal(venta.getCantidad());
-        informe.setTotalVentas(venta.getCantidad() * venta.getPrecio());
-        return informe;
+        if (!rechazos.omitir(venta, codigo)) {
+            throw new InvalidDataException(reglas.motivo(codigo)); // Se superó el máximo de omisiones
+        }
+        return null; // Filtrada: ya quedó registrada para el archivo de errores
     }
-}
\ No newline at end of file
+}
@@ -1,53 +1,151 @@
 package com.duoc.items;
 
-import org.springframework.batch.item.ItemReader;
-import org.springframework.batch.item.ItemStream;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.item.ItemStreamException;
-import org.springframework.batch.item.file.FlatFileItemReader;
-import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.mapping.DefaultLineMapper;
+import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
-import org.springframework.batch.item.ExecutionContext;
+
 import com.duoc.business.Venta;
 
+/**
+ * Lector del archivo de ventas para una partición del Step.
+ * Cada partición tiene su propia instancia (StepScope) que lee solo las líneas de su rango de bytes
+ * [inicio, fin), definido por el VentasFilePartitioner. Sin partición se lee el archivo completo.
+ * La posición en bytes de la siguiente línea se guarda en el ExecutionContext de la partición,
+ * por lo que un reinicio continúa desde el último chunk confirmado.
+ * Un archivo comprimido con gzip o zstd se descomprime al leerlo, sin pasar por el disco (ver {@link Recursos}).
+ */
 @Component
-public class VentasItemReader implements ItemReader<Venta>, ItemStream {
-
-    private final FlatFileItemReader<Venta> delegate; // El lector delegado
-
-    public VentasItemReader() {
-        // Configura el FlatFileItemReader interno
-        this.delegate = new FlatFileItemReaderBuilder<Venta>()
-                .name("ventasItemReader") // Define el nombre del lector
-                .resource(new ClassPathResource("consolidacion_diaria_ventas.csv")) // Ubicación del archivo CSV de entrada
-                .linesToSkip(1) // Omite la primera línea (encabezados)
-                .delimited() // Define el formato de los datos como delimitado
-                .names("id", "producto", "cantidad", "precio") // Define los nombres de los campos
-                .targetType(Venta.class) // Clase objetivo para el mapeo de los datos
-                .build();
-        this.delegate.setStrict(false); // Permite continuar en caso de error en el archivo
+@StepScope
+public class VentasItemReader implements ItemStreamReader<Venta> {
+
+    private static final String NOMBRE = "ventasItemReader."; // Prefijo de las claves en el ExecutionContext
+    private static final String POSICION = NOMBRE + "posicion";
+    private static final int TAMANO_BUFFER = 64 * 1024;
+
+    private final Resource recurso; // Archivo CSV de entrada
+    private final Long inicioParticion; // Primer byte de la partición, null si se lee el archivo completo
+    private final long finParticion; // Byte siguiente al último de la partición
+    private final DefaultLineMapper<Venta> lineMapper = lineMapper();
+
+    private InputStream entrada;
+    private byte[] bufferLinea = new byte[256];
+    private long posicion; // Posición en bytes de la siguiente línea a leer
+
+    public VentasItemReader(@Value("#{jobParameters['archivo'] ?: '${ventas.entrada:classpath:consolidacion_diaria_ventas.csv}'}") Resource recurso,
+                            @Value("#{stepExecutionContext['inicio']}") Long inicio,
+                            @Value("#{stepExecutionContext['fin']}") Long fin) {
+        this.recurso = recurso;
+        this.inicioParticion = inicio;
+        this.finParticion = fin == null ? Long.MAX_VALUE : fin;
+    }
+
+    /**
+     * Crea el mapeo de una línea del CSV de ventas a un objeto Venta.
+     * Lo comparten los lectores de ventas para que todos validen los campos de la misma forma.
+     *
+     * @return Un DefaultLineMapper configurado para las columnas id, producto, cantidad y precio.
+     */
+    static DefaultLineMapper<Venta> lineMapper() {
+        DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer(); // Define el formato de los datos como delimitado
+        tokenizer.setNames("id", "producto", "cantidad", "precio"); // Define los nombres de los campos
+        DefaultLineMapper<Venta> lineMapper = new DefaultLineMapper<>();
+        lineMapper.setLineTokenizer(tokenizer);
+        lineMapper.setFieldSetMapper(new VentaFieldSetMapper()); // Mapeo directo a Venta, sin reflexión
+        return lineMapper;
     }
 
     @Override
     public Venta read() throws Exception {
-        return delegate.read(); // Delegado para la lectura de cada ítem
+        long posicionLinea = posicion;
+        String texto = leerLinea();
+        if (texto == null) {
+            return null; // Fin de la partición
+        }
+        try {
+            Venta venta = lineMapper.mapLine(texto, 0); // La partición no conoce su número de línea
+            venta.setPosicion(posicionLinea);
+            return venta;
+        } catch (Exception e) {
+            throw new VentaParseException("Parsing error at byte: " + posicionLinea + " in resource=["
+                    + recurso.getDescription() + "], input=[" + texto + "]", e, texto, posicionLinea);
+        }
     }
 
-    // Implementa la apertura de ItemStream para abrir el recurso de archivo antes de leer
+    // Implementa la apertura de ItemStream: se posiciona en el inicio de la partición o en el último punto confirmado
     @Override
     public void open(ExecutionContext executionContext) throws ItemStreamException {
-        delegate.open(executionContext); // Abre el lector delegado
+        try {
+            if (executionContext.containsKey(POSICION)) {
+                posicion = executionContext.getLong(POSICION);
+                entrada = new BufferedInputStream(Recursos.abrir(recurso, posicion), TAMANO_BUFFER);
+            } else if (inicioParticion != null) {
+                posicion = inicioParticion;
+                entrada = new BufferedInputStream(Recursos.abrir(recurso, posicion), TAMANO_BUFFER);
+            } else {
+                posicion = 0;
+                entrada = new BufferedInputStream(Recursos.abrir(recurso, 0), TAMANO_BUFFER);
+                leerLinea(); // Omite la primera línea (encabezados)
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("No se pudo abrir el archivo " + recurso.getDescription(), e);
+        }
+    }
+
+    // Guarda la posición de la siguiente línea para poder reiniciar la partición
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.putLong(POSICION, posicion);
     }
 
     // Implementa el cierre de ItemStream para cerrar el recurso de archivo después de leer
     @Override
     public void close() throws ItemStreamException {
-        delegate.close(); // Cierra el lector delegado
+        try {
+            if (entrada != null) {
+                entrada.close();
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("No se pudo cerrar el archivo " + recurso.getDescription(), e);
+        } finally {
+            entrada = null;
+        }
     }
 
-    // Implementa la actualización del ExecutionContext si es necesario (opcional en este caso)
-    @Override
-    public void update(ExecutionContext executionContext) throws ItemStreamException {
-        delegate.update(executionContext);
+    // Lee la siguiente línea de la partición sin el salto de línea, o null si la partición terminó
+    private String leerLinea() throws IOException {
+        if (posicion >= finParticion) {
+            return null;
+        }
+        int largo = 0;
+        int b;
+        while ((b = entrada.read()) >= 0) {
+            posicion++;
+            if (b == '\n') {
+                break;
+            }
+            if (largo == bufferLinea.length) {
+                bufferLinea = Arrays.copyOf(bufferLinea, largo * 2);
+            }
+            bufferLinea[largo++] = (byte) b;
+        }
+        if (b < 0 && largo == 0) {
+            return null; // Fin del archivo
+        }
+        if (largo > 0 && bufferLinea[largo - 1] == '\r') {
+            largo--;
+        }
+        return new String(bufferLinea, 0, largo, StandardCharsets.UTF_8);
     }
 }
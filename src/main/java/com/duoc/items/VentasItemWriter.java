@@ -1,9 +1,9 @@
 package com.duoc.items;
 
-import org.springframework.batch.item.file.FlatFileItemWriter;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.item.file.FlatFileHeaderCallback;
-import org.springframework.batch.item.file.transform.BeanWrapperFieldExtractor;
 import org.springframework.batch.item.file.transform.DelimitedLineAggregator;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.stereotype.Component;
 
@@ -12,28 +12,35 @@ import com.duoc.business.InformeVenta;
 import java.io.IOException;
 import java.io.Writer;
 
+/**
+ * Escritor del informe consolidado. Cada ejecución del Step tiene su propia instancia (StepScope)
+ * para que los Jobs de distintos archivos de entrada escriban cada uno en su archivo de salida.
+ * Si el archivo de salida termina en .gz o .zst, el informe se escribe comprimido.
+ * Con ventas.catalogo.activo=true agrega las columnas de referencia del producto (categoría, impuesto y moneda).
+ */
 @Component
-public class VentasItemWriter extends FlatFileItemWriter<InformeVenta> {
+@StepScope
+public class VentasItemWriter extends ArchivoPlanoItemWriter<InformeVenta> {
 
-    public VentasItemWriter() {
-        setResource(new FileSystemResource("output.csv")); // Define el archivo de salida de los informes
+    public VentasItemWriter(@Value("#{jobParameters['salida'] ?: 'output.csv'}") String salida,
+                            @Value("${ventas.catalogo.activo:false}") boolean conReferencia) {
+        setResource(new FileSystemResource(salida)); // Define el archivo de salida de los informes
 
         // Configura el encabezado del archivo
         setHeaderCallback(new FlatFileHeaderCallback() {
             @Override
             public void writeHeader(Writer writer) throws IOException {
                 writer.write("Producto,Cantidad Total,Total Ventas"); // Escribe el encabezado en el archivo de salida
+                if (conReferencia) {
+                    writer.write(",Categoria,Tasa Impuesto,Moneda");
+                }
             }
         });
 
         // Configura el agregador de líneas delimitadas y el extractor de campos
         DelimitedLineAggregator<InformeVenta> lineAggregator = new DelimitedLineAggregator<>();
         lineAggregator.setDelimiter(","); // Define el delimitador como coma
-
-        BeanWrapperFieldExtractor<InformeVenta> fieldExtractor = new BeanWrapperFieldExtractor<>();
-        fieldExtractor.setNames(new String[]{"producto", "cantidadTotal", "totalVentas"}); // Define los nombres de los campos
-
-        lineAggregator.setFieldExtractor(fieldExtractor); // Configura el agregador de líneas con el extractor
+        lineAggregator.setFieldExtractor(new InformeVentaFieldExtractor(conReferencia)); // Extrae los campos (producto, cantidadTotal, totalCentavos con dos decimales) sin reflexión
         setLineAggregator(lineAggregator); // Asigna el agregador de líneas al escritor
     }
 }
\ No newline at end of file
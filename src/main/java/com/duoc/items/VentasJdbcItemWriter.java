@@ -0,0 +1,95 @@
+package com.duoc.items;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.duoc.business.InformeVenta;
+
+/**
+ * Escritor del informe consolidado en la tabla ventas_informe.
+ * El primer write de cada transacción borra las filas de la fecha y cada producto se inserta o actualiza (MERGE)
+ * con la clave producto y fecha, de modo que volver a consolidar el mismo día reemplaza el informe completo:
+ * los totales no se duplican y no quedan filas de productos que ya no aparecen. Los write siguientes de la misma
+ * transacción (el informe escrito por lotes) solo agregan filas. Las filas se envían en lotes JDBC de
+ * ventas.informe.jdbc.tamano-lote sentencias. La transacción la abre quien llama y es obligatoria, para que el
+ * informe quede completo o no quede.
+ * La fecha es el parámetro "fecha" del Job (yyyy-MM-dd) o, si no viene, el día en que empezó el Job.
+ */
+@Component
+@StepScope
+public class VentasJdbcItemWriter implements ItemWriter<InformeVenta> {
+
+    private static final Logger logger = LoggerFactory.getLogger(VentasJdbcItemWriter.class);
+
+    // Sintaxis de H2: la cláusula KEY indica las columnas que identifican la fila a actualizar
+    private static final String MERGE = "MERGE INTO ventas_informe "
+            + "(producto, fecha, cantidad_total, total_ventas, categoria, tasa_impuesto, moneda, job_execution_id, actualizado) "
+            + "KEY (producto, fecha) VALUES (?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)";
+
+    private static final String BORRAR = "DELETE FROM ventas_informe WHERE fecha = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Date fecha;
+    private final long jobExecutionId;
+    private final int tamanoLote;
+
+    public VentasJdbcItemWriter(DataSource dataSource,
+                                @Value("#{jobParameters['fecha']}") String fecha,
+                                @Value("#{stepExecution.jobExecution.startTime}") LocalDateTime inicioJob,
+                                @Value("#{stepExecution.jobExecutionId}") long jobExecutionId,
+                                @Value("${ventas.informe.jdbc.tamano-lote:500}") int tamanoLote) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.fecha = Date.valueOf(fecha != null ? LocalDate.parse(fecha) : inicioJob.toLocalDate());
+        this.jobExecutionId = jobExecutionId;
+        this.tamanoLote = tamanoLote;
+    }
+
+    @Override
+    public void write(Chunk<? extends InformeVenta> chunk) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("El informe se escribe en ventas_informe dentro de una transacción");
+        }
+        if (!TransactionSynchronizationManager.hasResource(this)) { // Primer lote de la transacción
+            int borradas = jdbcTemplate.update(BORRAR, fecha);
+            logger.debug("{} filas anteriores del {} borradas de ventas_informe", borradas, fecha);
+            TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(VentasJdbcItemWriter.this);
+                }
+            });
+        }
+        jdbcTemplate.batchUpdate(MERGE, chunk.getItems(), tamanoLote, (ps, informe) -> {
+            ps.setString(1, informe.getProducto());
+            ps.setDate(2, fecha);
+            ps.setLong(3, informe.getCantidadTotal());
+            ps.setBigDecimal(4, BigDecimal.valueOf(informe.getTotalCentavos(), 2)); // Centavos exactos, sin redondeo
+            ps.setString(5, informe.getCategoria()); // Referencia del producto, nula si el informe no se enriqueció
+            if (informe.getTasaImpuesto() == null) {
+                ps.setNull(6, Types.DECIMAL);
+            } else {
+                ps.setBigDecimal(6, BigDecimal.valueOf(informe.getTasaImpuesto()));
+            }
+            ps.setString(7, informe.getMoneda());
+            ps.setLong(8, jobExecutionId);
+        });
+        logger.info("Informe consolidado guardado en ventas_informe: {} productos del {}", chunk.size(), fecha);
+    }
+}
@@ -0,0 +1,353 @@
+package com.duoc.items;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.mapping.DefaultLineMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import com.duoc.business.Venta;
+
+/**
+ * Lector del archivo de ventas que mapea la partición en memoria (FileChannel.map) y
+ * convierte id, cantidad y precio (en centavos) directamente desde los bytes, sin crear un String por línea.
+ * Solo el producto se convierte a String, a través de un pequeño caché de nombres ya vistos.
+ * <p>
+ * Las líneas con un formato distinto al habitual (comillas, exponentes, precios con más de dos decimales,
+ * cantidades vacías o texto en campos numéricos) se resuelven con el mismo mapeo que usa VentasItemReader, por lo que
+ * los errores siguen llegando como FlatFileParseException al FileVerificationSkipper.
+ * Requiere que la entrada sea un archivo del sistema sin comprimir.
+ */
+@Component
+@StepScope
+public class VentasMappedItemReader implements ItemStreamReader<Venta> {
+
+    private static final String NOMBRE = "ventasMappedItemReader."; // Prefijo de las claves en el ExecutionContext
+    private static final String POSICION = NOMBRE + "posicion";
+    private static final long TAMANO_VENTANA = 256L * 1024 * 1024; // Tamaño máximo de cada región mapeada
+    private static final int TAMANO_CACHE = 1024; // Entradas del caché de productos (potencia de 2)
+    private static final long VACIO = Long.MIN_VALUE + 1; // Marca de campo numérico vacío
+
+    private final Resource recurso; // Archivo CSV de entrada
+    private final Long inicioParticion; // Primer byte de la partición, null si se lee el archivo completo
+    private final Long finParticion; // Byte siguiente al último de la partición
+    private final long tamanoVentana;
+    private final DefaultLineMapper<Venta> lineMapper = VentasItemReader.lineMapper(); // Camino lento para líneas atípicas
+
+    private final byte[][] cacheBytes = new byte[TAMANO_CACHE][];
+    private final String[] cacheProductos = new String[TAMANO_CACHE];
+
+    private FileChannel canal;
+    private MappedByteBuffer ventana; // Región mapeada actual
+    private long inicioVentana; // Posición en el archivo del primer byte de la ventana
+    private long limite; // Fin de la partición (o del archivo)
+    private long posicion; // Posición en bytes de la siguiente línea a leer
+
+    // Límites de los campos de la línea actual, relativos a la ventana
+    private int inicioLinea;
+    private int finLinea;
+    private final int[] comas = new int[3];
+
+    @Autowired
+    public VentasMappedItemReader(@Value("#{jobParameters['archivo'] ?: '${ventas.entrada:classpath:consolidacion_diaria_ventas.csv}'}") Resource recurso,
+                                  @Value("#{stepExecutionContext['inicio']}") Long inicio,
+                                  @Value("#{stepExecutionContext['fin']}") Long fin) {
+        this(recurso, inicio, fin, TAMANO_VENTANA);
+    }
+
+    // Con ventanas pequeñas las pruebas cruzan el final de la región mapeada sin archivos de cientos de MB
+    VentasMappedItemReader(Resource recurso, Long inicio, Long fin, long tamanoVentana) {
+        this.recurso = recurso;
+        this.inicioParticion = inicio;
+        this.finParticion = fin;
+        this.tamanoVentana = tamanoVentana;
+    }
+
+    @Override
+    public Venta read() throws Exception {
+        if (!siguienteLinea()) {
+            return null; // Fin de la partición
+        }
+        long posicionLinea = inicioVentana + inicioLinea;
+        try {
+            Venta venta = mapearRapido();
+            if (venta == null) {
+                venta = lineMapper.mapLine(textoLinea(), 0); // La partición no conoce su número de línea
+            }
+            venta.setPosicion(posicionLinea);
+            return venta;
+        } catch (Exception e) {
+            String texto = textoLinea();
+            throw new VentaParseException("Parsing error at byte: " + posicionLinea + " in resource=["
+                    + recurso.getDescription() + "], input=[" + texto + "]", e, texto, posicionLinea);
+        }
+    }
+
+    // Abre el archivo y se posiciona en el inicio de la partición o en el último punto confirmado
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        try {
+            if (!recurso.isFile()) {
+                throw new ItemStreamException("El lector mapeado requiere un archivo del sistema: " + recurso.getDescription());
+            }
+            if (Compresion.detectar(recurso) != Compresion.NINGUNA) {
+                throw new ItemStreamException("El lector mapeado requiere un archivo sin comprimir: " + recurso.getDescription());
+            }
+            canal = FileChannel.open(recurso.getFile().toPath(), StandardOpenOption.READ);
+            limite = finParticion == null ? canal.size() : Math.min(finParticion, canal.size());
+            boolean omitirEncabezado = false;
+            if (executionContext.containsKey(POSICION)) {
+                posicion = executionContext.getLong(POSICION);
+            } else {
+                posicion = inicioParticion == null ? 0 : inicioParticion;
+                omitirEncabezado = inicioParticion == null;
+            }
+            mapear(posicion);
+            if (omitirEncabezado) {
+                siguienteLinea(); // Omite la primera línea (encabezados)
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("No se pudo abrir el archivo " + recurso.getDescription(), e);
+        }
+    }
+
+    // Guarda la posición de la siguiente línea para poder reiniciar la partición
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.putLong(POSICION, posicion);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        ventana = null; // La región se libera cuando el buffer es recolectado
+        try {
+            if (canal != null) {
+                canal.close();
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("No se pudo cerrar el archivo " + recurso.getDescription(), e);
+        } finally {
+            canal = null;
+        }
+    }
+
+    private void mapear(long desde) throws IOException {
+        long largo = Math.min(tamanoVentana, Math.max(0, limite - desde));
+        ventana = canal.map(FileChannel.MapMode.READ_ONLY, desde, largo);
+        inicioVentana = desde;
+    }
+
+    // Ubica la siguiente línea en la ventana, volviendo a mapear si cruza el final de la región
+    private boolean siguienteLinea() throws IOException {
+        if (posicion >= limite) {
+            return false;
+        }
+        if (posicion - inicioVentana >= ventana.limit()) {
+            mapear(posicion);
+        }
+        int desde = (int) (posicion - inicioVentana);
+        int fin = buscarSaltoDeLinea(desde);
+        if (fin < 0 && inicioVentana + ventana.limit() < limite) {
+            mapear(posicion); // La línea cruza el final de la ventana
+            desde = 0;
+            fin = buscarSaltoDeLinea(desde);
+            if (fin < 0 && ventana.limit() < limite - inicioVentana) {
+                throw new ItemStreamException("Línea demasiado larga en el byte " + posicion);
+            }
+        }
+        int siguiente = fin < 0 ? ventana.limit() : fin + 1;
+        if (fin < 0) {
+            fin = ventana.limit(); // Última línea sin salto de línea final
+        }
+        if (fin > desde && ventana.get(fin - 1) == '\r') {
+            fin--;
+        }
+        inicioLinea = desde;
+        finLinea = fin;
+        posicion = inicioVentana + siguiente;
+        return true;
+    }
+
+    private int buscarSaltoDeLinea(int desde) {
+        int limiteVentana = ventana.limit();
+        for (int i = desde; i < limiteVentana; i++) {
+            if (ventana.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /*
+     * Convierte la línea actual sin pasar por String. Devuelve null si la línea no tiene la forma
+     * habitual (cuatro campos, números simples), para que la resuelva el mapeo estándar.
+     */
+    private Venta mapearRapido() {
+        int cantidadComas = 0;
+        for (int i = inicioLinea; i < finLinea; i++) {
+            byte b = ventana.get(i);
+            if (b == ',') {
+                if (cantidadComas == 3) {
+                    return null; // Más campos de los esperados
+                }
+                comas[cantidadComas++] = i;
+            } else if (b == '"') {
+                return null; // Campo entre comillas
+            }
+        }
+        if (cantidadComas != 3) {
+            return null; // Menos campos de los esperados
+        }
+
+        long id = leerEntero(inicioLinea, comas[0], 18);
+        long cantidad = leerEntero(comas[1] + 1, comas[2], 9);
+        if (id == Long.MIN_VALUE || cantidad == Long.MIN_VALUE || cantidad == VACIO) {
+            return null; // La cantidad vacía o atípica la resuelve el mapeo estándar
+        }
+        long precio = leerCentavos(comas[2] + 1, finLinea);
+        if (precio == Long.MIN_VALUE) {
+            return null;
+        }
+
+        Venta venta = new Venta();
+        venta.setId(id == VACIO ? null : id);
+        venta.setProducto(producto(comas[0] + 1, comas[1]));
+        venta.setCantidad((int) cantidad);
+        if (precio != VACIO) {
+            venta.setPrecioCentavos(precio);
+        }
+        return venta;
+    }
+
+    // Lee un entero con signo opcional; Long.MIN_VALUE si no es un entero simple, VACIO si el campo está vacío
+    private long leerEntero(int desde, int hasta, int maximoDigitos) {
+        int i = inicioSinEspacios(desde, hasta);
+        int fin = finSinEspacios(i, hasta);
+        if (i == fin) {
+            return VACIO;
+        }
+        boolean negativo = false;
+        byte signo = ventana.get(i);
+        if (signo == '-' || signo == '+') {
+            negativo = signo == '-';
+            i++;
+        }
+        if (i == fin || fin - i > maximoDigitos) {
+            return Long.MIN_VALUE;
+        }
+        long valor = 0;
+        for (; i < fin; i++) {
+            int digito = ventana.get(i) - '0';
+            if (digito < 0 || digito > 9) {
+                return Long.MIN_VALUE;
+            }
+            valor = valor * 10 + digito;
+        }
+        return negativo ? -valor : valor;
+    }
+
+    /*
+     * Lee un precio de la forma [signo]digitos[.digitos] con hasta dos decimales y lo devuelve en centavos,
+     * el mismo valor que Dinero.parsear. Devuelve Long.MIN_VALUE si el número no tiene esa forma (incluidos
+     * más decimales, que se redondean en el mapeo estándar) y VACIO si el campo está vacío.
+     */
+    private long leerCentavos(int desde, int hasta) {
+        int i = inicioSinEspacios(desde, hasta);
+        int fin = finSinEspacios(i, hasta);
+        if (i == fin) {
+            return VACIO;
+        }
+        boolean negativo = false;
+        byte signo = ventana.get(i);
+        if (signo == '-' || signo == '+') {
+            negativo = signo == '-';
+            i++;
+        }
+        long centavos = 0;
+        int enteros = 0;
+        int decimales = -1;
+        for (; i < fin; i++) {
+            byte b = ventana.get(i);
+            if (b == '.' && decimales < 0) {
+                decimales = 0;
+                continue;
+            }
+            int digito = b - '0';
+            if (digito < 0 || digito > 9 || decimales == 2 || (decimales < 0 && ++enteros > 16)) {
+                return Long.MIN_VALUE;
+            }
+            centavos = centavos * 10 + digito;
+            if (decimales >= 0) {
+                decimales++;
+            }
+        }
+        if (enteros == 0 && decimales <= 0) {
+            return Long.MIN_VALUE;
+        }
+        for (int d = Math.max(decimales, 0); d < 2; d++) {
+            centavos *= 10;
+        }
+        return negativo ? -centavos : centavos;
+    }
+
+    // Devuelve el producto desde el caché, creando el String solo la primera vez que aparece
+    private String producto(int desde, int hasta) {
+        int inicio = inicioSinEspacios(desde, hasta);
+        int fin = finSinEspacios(inicio, hasta);
+        int hash = 1;
+        for (int i = inicio; i < fin; i++) {
+            hash = 31 * hash + ventana.get(i);
+        }
+        int indice = (hash ^ (hash >>> 16)) & (TAMANO_CACHE - 1);
+        byte[] clave = cacheBytes[indice];
+        if (clave != null && clave.length == fin - inicio && igual(clave, inicio)) {
+            return cacheProductos[indice];
+        }
+        clave = new byte[fin - inicio];
+        ventana.get(inicio, clave);
+        String producto = new String(clave, StandardCharsets.UTF_8);
+        cacheBytes[indice] = clave;
+        cacheProductos[indice] = producto;
+        return producto;
+    }
+
+    private boolean igual(byte[] clave, int desde) {
+        for (int i = 0; i < clave.length; i++) {
+            if (clave[i] != ventana.get(desde + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Igual que String.trim(): se omiten los bytes menores o iguales al espacio
+    private int inicioSinEspacios(int desde, int hasta) {
+        while (desde < hasta && (ventana.get(desde) & 0xFF) <= ' ') {
+            desde++;
+        }
+        return desde;
+    }
+
+    private int finSinEspacios(int desde, int hasta) {
+        while (hasta > desde && (ventana.get(hasta - 1) & 0xFF) <= ' ') {
+            hasta--;
+        }
+        return hasta;
+    }
+
+    private String textoLinea() {
+        byte[] bytes = new byte[finLinea - inicioLinea];
+        ventana.get(inicioLinea, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
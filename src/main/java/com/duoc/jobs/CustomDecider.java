@@ -1,21 +1,63 @@
 package com.duoc.jobs;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.job.flow.FlowExecutionStatus;
 import org.springframework.batch.core.job.flow.JobExecutionDecider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+/**
+ * Decide si el Job termina o vuelve a ejecutar el Step fallido.
+ * Los reintentos tienen un máximo de intentos y una espera que crece de forma exponencial entre uno y otro.
+ * La cantidad de reintentos hechos se guarda en el ExecutionContext del Job con la clave "reintentos".
+ */
 @Component
 public class CustomDecider implements JobExecutionDecider {
 
+    public static final String REINTENTOS = "reintentos";
+    public static final FlowExecutionStatus RETRY = new FlowExecutionStatus("RETRY");
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomDecider.class);
+
+    private final int maximoIntentos; // Intentos totales del Step, incluido el primero
+    private final long esperaInicialMs; // Espera antes del primer reintento
+    private final double multiplicador; // Factor de crecimiento de la espera
+    private final long esperaMaximaMs; // Tope de la espera entre intentos
+
+    public CustomDecider(@Value("${ventas.reintentos.maximo-intentos:3}") int maximoIntentos,
+                         @Value("${ventas.reintentos.espera-inicial-ms:1000}") long esperaInicialMs,
+                         @Value("${ventas.reintentos.multiplicador:2.0}") double multiplicador,
+                         @Value("${ventas.reintentos.espera-maxima-ms:30000}") long esperaMaximaMs) {
+        this.maximoIntentos = maximoIntentos;
+        this.esperaInicialMs = esperaInicialMs;
+        this.multiplicador = multiplicador;
+        this.esperaMaximaMs = esperaMaximaMs;
+    }
+
     @Override
     public FlowExecutionStatus decide(JobExecution jobExecution, StepExecution stepExecution) {
-        // Lógica de decisión: Aquí puedes definir condiciones personalizadas
-        if (stepExecution.getFailureExceptions().isEmpty()) {
+        if (stepExecution.getStatus() != BatchStatus.FAILED && stepExecution.getFailureExceptions().isEmpty()) {
             return FlowExecutionStatus.COMPLETED; // Continua si no hay errores
-        } else {
-            return new FlowExecutionStatus("RETRY"); // O un estado personalizado si hay errores
         }
+        int reintentos = jobExecution.getExecutionContext().getInt(REINTENTOS, 0);
+        if (reintentos + 1 >= maximoIntentos) {
+            logger.error("{} falló después de {} intentos, no se reintenta", stepExecution.getStepName(), reintentos + 1);
+            return FlowExecutionStatus.FAILED;
+        }
+        long espera = (long) Math.min(esperaMaximaMs, esperaInicialMs * Math.pow(multiplicador, reintentos));
+        logger.warn("{} falló (intento {} de {}), se reintenta en {} ms", stepExecution.getStepName(),
+                reintentos + 1, maximoIntentos, espera);
+        try {
+            Thread.sleep(espera);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return FlowExecutionStatus.FAILED;
+        }
+        jobExecution.getExecutionContext().putInt(REINTENTOS, reintentos + 1);
+        return RETRY; // Vuelve a ejecutar solo las particiones que no terminaron
     }
 }
@@ -0,0 +1,113 @@
+package com.duoc.jobs;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.duoc.business.Venta;
+
+/**
+ * Formato binario de los chunks y sus respuestas en {@link TransporteSocket}.
+ * Solicitud: cantidad de ventas y, por venta, id, producto, cantidad, precio y posición (los campos que pueden
+ * faltar llevan un byte de presencia). Respuesta: estado (0 procesado, 1 error con su mensaje), los totales por producto
+ * y los pares posición/código de las ventas rechazadas. Precios y totales viajan en centavos (long).
+ */
+final class ProtocoloChunks {
+
+    private static final byte PROCESADO = 0;
+    private static final byte FALLIDO = 1;
+
+    private ProtocoloChunks() {}
+
+    static void escribirSolicitud(DataOutputStream salida, List<Venta> ventas) throws IOException {
+        salida.writeInt(ventas.size());
+        for (Venta venta : ventas) {
+            salida.writeBoolean(venta.getId() != null);
+            if (venta.getId() != null) {
+                salida.writeLong(venta.getId());
+            }
+            salida.writeBoolean(venta.getProducto() != null);
+            if (venta.getProducto() != null) {
+                salida.writeUTF(venta.getProducto());
+            }
+            salida.writeInt(venta.getCantidad());
+            salida.writeBoolean(venta.tienePrecio());
+            if (venta.tienePrecio()) {
+                salida.writeLong(venta.getPrecioCentavos());
+            }
+            salida.writeLong(venta.getPosicion());
+        }
+        salida.flush();
+    }
+
+    // Devuelve null si la conexión se cerró antes de una nueva solicitud
+    static List<Venta> leerSolicitud(DataInputStream entrada) throws IOException {
+        int cantidad;
+        try {
+            cantidad = entrada.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        List<Venta> ventas = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            Venta venta = new Venta();
+            venta.setId(entrada.readBoolean() ? entrada.readLong() : null);
+            venta.setProducto(entrada.readBoolean() ? entrada.readUTF() : null);
+            venta.setCantidad(entrada.readInt());
+            if (entrada.readBoolean()) {
+                venta.setPrecioCentavos(entrada.readLong());
+            }
+            venta.setPosicion(entrada.readLong());
+            ventas.add(venta);
+        }
+        return ventas;
+    }
+
+    static void escribirRespuesta(DataOutputStream salida, RespuestaChunk respuesta) throws IOException {
+        if (respuesta.error() != null) {
+            salida.writeByte(FALLIDO);
+            salida.writeUTF(respuesta.error());
+            salida.flush();
+            return;
+        }
+        salida.writeByte(PROCESADO);
+        salida.writeInt(respuesta.productos().length);
+        for (int i = 0; i < respuesta.productos().length; i++) {
+            salida.writeUTF(respuesta.productos()[i]);
+            salida.writeLong(respuesta.cantidades()[i]);
+            salida.writeLong(respuesta.totales()[i]);
+        }
+        salida.writeInt(respuesta.rechazadas().length);
+        for (int i = 0; i < respuesta.rechazadas().length; i++) {
+            salida.writeInt(respuesta.rechazadas()[i]);
+            salida.writeInt(respuesta.codigos()[i]);
+        }
+        salida.flush();
+    }
+
+    static RespuestaChunk leerRespuesta(DataInputStream entrada) throws IOException {
+        if (entrada.readByte() == FALLIDO) {
+            return RespuestaChunk.fallida(entrada.readUTF());
+        }
+        int cantidad = entrada.readInt();
+        String[] productos = new String[cantidad];
+        long[] cantidades = new long[cantidad];
+        long[] totales = new long[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            productos[i] = entrada.readUTF();
+            cantidades[i] = entrada.readLong();
+            totales[i] = entrada.readLong();
+        }
+        int rechazos = entrada.readInt();
+        int[] rechazadas = new int[rechazos];
+        int[] codigos = new int[rechazos];
+        for (int i = 0; i < rechazos; i++) {
+            rechazadas[i] = entrada.readInt();
+            codigos[i] = entrada.readInt();
+        }
+        return new RespuestaChunk(productos, cantidades, totales, rechazadas, codigos, null);
+    }
+}
@@ -0,0 +1,26 @@
+package com.duoc.jobs;
+
+/**
+ * Respuesta de un trabajador a un chunk de ventas: los totales por producto de las ventas válidas y, para cada venta
+ * rechazada por las reglas, su posición en el chunk y su código de rechazo. Si el trabajador falló, solo trae el error.
+ *
+ * @param productos Productos con ventas válidas en el chunk.
+ * @param cantidades Cantidad total de cada producto.
+ * @param totales Total de ventas de cada producto, en centavos.
+ * @param rechazadas Posición en el chunk de cada venta rechazada.
+ * @param codigos Código de rechazo (ReglasValidacion) de cada venta rechazada.
+ * @param error El mensaje de error del trabajador, o null si procesó el chunk.
+ */
+public record RespuestaChunk(String[] productos, long[] cantidades, long[] totales,
+                             int[] rechazadas, int[] codigos, String error) {
+
+    /**
+     * Respuesta de un chunk que el trabajador no pudo procesar.
+     *
+     * @param error El motivo de la falla.
+     * @return La respuesta sin totales.
+     */
+    public static RespuestaChunk fallida(String error) {
+        return new RespuestaChunk(new String[0], new long[0], new long[0], new int[0], new int[0], error);
+    }
+}
@@ -0,0 +1,123 @@
+package com.duoc.jobs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.duoc.business.Venta;
+
+/**
+ * Nodo trabajador del modo remoto por socket: acepta conexiones de los administradores y atiende cada una en su
+ * propio hilo, procesando sus chunks con {@link TrabajadorChunks} en el orden en que llegan.
+ * Se ejecuta como proceso aparte con ventas.modo=trabajador, o dentro del administrador en un puerto de loopback
+ * cuando ventas.remoto.direcciones está vacío (pruebas en un solo equipo).
+ */
+@Component
+public class ServidorTrabajador implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServidorTrabajador.class);
+
+    private final TrabajadorChunks trabajador;
+    private final String interfaz; // Dirección en la que escucha el nodo
+    private final int puerto;
+    private final Set<Socket> conexiones = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger hilos = new AtomicInteger();
+    private volatile ServerSocket servidor;
+    private volatile Thread aceptador;
+
+    public ServidorTrabajador(TrabajadorChunks trabajador,
+                              @Value("${ventas.remoto.interfaz:127.0.0.1}") String interfaz,
+                              @Value("${ventas.remoto.puerto:9301}") int puerto) {
+        this.trabajador = trabajador;
+        this.interfaz = interfaz;
+        this.puerto = puerto;
+    }
+
+    /**
+     * Atiende en ventas.remoto.puerto hasta que se detiene la aplicación.
+     */
+    public void atender() throws IOException, InterruptedException {
+        iniciar(puerto);
+        aceptador.join();
+    }
+
+    /**
+     * Empieza a aceptar conexiones en segundo plano.
+     *
+     * @param puerto El puerto, o 0 para uno libre.
+     * @return El puerto en el que quedó escuchando.
+     */
+    public synchronized int iniciar(int puerto) throws IOException {
+        if (servidor != null) {
+            return servidor.getLocalPort();
+        }
+        servidor = new ServerSocket();
+        servidor.bind(new InetSocketAddress(InetAddress.getByName(interfaz), puerto));
+        aceptador = new Thread(this::aceptar, "Trabajador-Aceptador");
+        aceptador.setDaemon(true);
+        aceptador.start();
+        logger.info("Trabajador de chunks escuchando en {}:{}", interfaz, servidor.getLocalPort());
+        return servidor.getLocalPort();
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        ServerSocket actual = servidor;
+        if (actual != null) {
+            actual.close();
+        }
+        for (Socket conexion : conexiones) {
+            conexion.close();
+        }
+    }
+
+    private void aceptar() {
+        try {
+            while (true) {
+                Socket conexion = servidor.accept();
+                conexion.setTcpNoDelay(true);
+                conexiones.add(conexion);
+                Thread hilo = new Thread(() -> atender(conexion), "Trabajador-" + hilos.incrementAndGet());
+                hilo.setDaemon(true);
+                hilo.start();
+            }
+        } catch (IOException e) {
+            logger.info("El trabajador de chunks dejó de aceptar conexiones");
+        }
+    }
+
+    // Atiende los chunks de una conexión hasta que el administrador la cierra
+    private void atender(Socket conexion) {
+        try (conexion;
+             DataInputStream entrada = new DataInputStream(new BufferedInputStream(conexion.getInputStream(), 64 * 1024));
+             DataOutputStream salida = new DataOutputStream(new BufferedOutputStream(conexion.getOutputStream(), 64 * 1024))) {
+            List<Venta> ventas;
+            while ((ventas = ProtocoloChunks.leerSolicitud(entrada)) != null) {
+                ProtocoloChunks.escribirRespuesta(salida, trabajador.procesar(ventas));
+            }
+        } catch (SocketException e) {
+            logger.debug("Conexión cerrada: {}", e.getMessage());
+        } catch (IOException e) {
+            logger.error("Error en la conexión con el administrador: ", e);
+        } finally {
+            conexiones.remove(conexion);
+        }
+    }
+}
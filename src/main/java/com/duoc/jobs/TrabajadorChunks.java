@@ -0,0 +1,72 @@
+package com.duoc.jobs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.duoc.business.InformeVenta;
+import com.duoc.business.Venta;
+import com.duoc.items.ReglasValidacion;
+import com.duoc.items.VentasAggregator;
+import com.duoc.items.VentasItemProcessor;
+
+/**
+ * Lado trabajador del modo remoto: valida un chunk con VentasItemProcessor y acumula las ventas válidas con un
+ * VentasAggregator propio del chunk. No toca el JobRepository ni los archivos del Job: devuelve los totales del
+ * chunk y los rechazos, y el administrador los confirma en la transacción del chunk.
+ * Es seguro para varios hilos; cada chunk usa su propio procesador y acumulador.
+ */
+@Component
+public class TrabajadorChunks {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrabajadorChunks.class);
+    private final ReglasValidacion reglas;
+
+    public TrabajadorChunks(ReglasValidacion reglas) {
+        this.reglas = reglas;
+    }
+
+    /**
+     * Procesa un chunk de ventas.
+     *
+     * @param ventas Las ventas del chunk.
+     * @return Los totales por producto y los rechazos, o una respuesta fallida si el procesamiento lanzó una excepción.
+     */
+    public RespuestaChunk procesar(List<Venta> ventas) {
+        try {
+            List<Integer> rechazadas = new ArrayList<>();
+            List<Integer> codigos = new ArrayList<>();
+            int[] actual = new int[1]; // Posición de la venta en proceso, para el destino de rechazos
+            VentasItemProcessor processor = new VentasItemProcessor(reglas, (venta, codigo) -> {
+                rechazadas.add(actual[0]);
+                codigos.add(codigo);
+                return true; // El máximo de omisiones lo controla el administrador
+            }, false);
+            VentasAggregator aggregator = new VentasAggregator();
+            for (actual[0] = 0; actual[0] < ventas.size(); actual[0]++) {
+                Venta valida = processor.process(ventas.get(actual[0]));
+                if (valida != null) {
+                    aggregator.acumular(valida);
+                }
+            }
+            List<InformeVenta> informes = aggregator.informes();
+            String[] productos = new String[informes.size()];
+            long[] cantidades = new long[informes.size()];
+            long[] totales = new long[informes.size()];
+            for (int i = 0; i < informes.size(); i++) {
+                productos[i] = informes.get(i).getProducto();
+                cantidades[i] = informes.get(i).getCantidadTotal();
+                totales[i] = informes.get(i).getTotalCentavos();
+            }
+            return new RespuestaChunk(productos, cantidades, totales,
+                    rechazadas.stream().mapToInt(Integer::intValue).toArray(),
+                    codigos.stream().mapToInt(Integer::intValue).toArray(), null);
+        } catch (Exception e) {
+            logger.error("Error al procesar un chunk de {} ventas: ", ventas.size(), e);
+            return RespuestaChunk.fallida(e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.duoc.jobs;
+
+import java.util.List;
+
+import com.duoc.business.Venta;
+
+/**
+ * Canal entre el Step administrador, que lee las ventas, y los trabajadores que las validan y acumulan.
+ * Cada envío espera la respuesta del chunk; varios hilos del administrador pueden enviar a la vez.
+ * Implementaciones: {@link TransporteEnMemoria} (cola dentro del mismo proceso) y {@link TransporteSocket}
+ * (trabajadores en otros procesos o en el mismo equipo por loopback).
+ */
+public interface TransporteChunks extends AutoCloseable {
+
+    /**
+     * Envía un chunk a un trabajador y espera su respuesta.
+     *
+     * @param ventas Las ventas leídas del chunk, en orden.
+     * @return La respuesta del trabajador.
+     * @throws Exception Si el chunk no se pudo entregar o no llegó la respuesta.
+     */
+    RespuestaChunk enviar(List<Venta> ventas) throws Exception;
+
+    @Override
+    void close();
+}
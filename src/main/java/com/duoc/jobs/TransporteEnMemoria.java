@@ -0,0 +1,73 @@
+package com.duoc.jobs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import com.duoc.business.Venta;
+
+/**
+ * Transporte dentro del mismo proceso: los chunks esperan en una cola acotada y un grupo de hilos trabajadores
+ * los toma, como lo haría un intermediario de mensajes con sus consumidores. Si la cola se llena, el administrador
+ * espera (contrapresión). Sirve para separar la lectura del procesamiento sin otros procesos y para probar el
+ * modo remoto en un solo equipo.
+ */
+public class TransporteEnMemoria implements TransporteChunks {
+
+    private final BlockingQueue<Pedido> cola;
+    private final List<Thread> hilos = new ArrayList<>();
+    private volatile boolean abierto = true;
+
+    public TransporteEnMemoria(TrabajadorChunks trabajador, int trabajadores, int capacidadCola) {
+        this.cola = new ArrayBlockingQueue<>(capacidadCola);
+        for (int i = 1; i <= trabajadores; i++) {
+            Thread hilo = new Thread(() -> atender(trabajador), "Trabajador-" + i);
+            hilo.setDaemon(true);
+            hilo.start();
+            hilos.add(hilo);
+        }
+    }
+
+    @Override
+    public RespuestaChunk enviar(List<Venta> ventas) throws Exception {
+        if (!abierto) {
+            throw new IllegalStateException("El transporte de chunks está cerrado");
+        }
+        Pedido pedido = new Pedido(ventas, new CompletableFuture<>());
+        cola.put(pedido);
+        try {
+            return pedido.respuesta.get();
+        } catch (ExecutionException e) {
+            throw (Exception) e.getCause();
+        }
+    }
+
+    @Override
+    public void close() {
+        abierto = false;
+        hilos.forEach(Thread::interrupt);
+        for (Pedido pedido : cola) {
+            pedido.respuesta.completeExceptionally(new IllegalStateException("El transporte de chunks se cerró"));
+        }
+    }
+
+    // Bucle de un hilo trabajador
+    private void atender(TrabajadorChunks trabajador) {
+        while (abierto) {
+            Pedido pedido;
+            try {
+                pedido = cola.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            pedido.respuesta.complete(trabajador.procesar(pedido.ventas));
+        }
+    }
+
+    // Chunk en la cola y la respuesta que espera el administrador
+    private record Pedido(List<Venta> ventas, CompletableFuture<RespuestaChunk> respuesta) {
+    }
+}
@@ -0,0 +1,112 @@
+package com.duoc.jobs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.duoc.business.Venta;
+
+/**
+ * Transporte por TCP hacia nodos {@link ServidorTrabajador}. Cada envío toma una conexión libre (o abre una nueva
+ * hacia el siguiente nodo, en turno rotativo), escribe el chunk y espera la respuesta en la misma conexión.
+ * Las conexiones se reutilizan; la que falla se cierra y el error llega al Step, que reintenta según su política.
+ * La espera de cada respuesta está acotada por un tiempo máximo de lectura, de modo que un trabajador colgado
+ * hace fallar el chunk en lugar de detener la partición para siempre.
+ */
+public class TransporteSocket implements TransporteChunks {
+
+    private static final int TAMANO_BUFFER = 64 * 1024;
+
+    private final List<InetSocketAddress> direcciones;
+    private final int tiempoMaximoMs; // Espera máxima de cada lectura de la respuesta; 0 espera sin límite
+    private final ConcurrentLinkedQueue<Conexion> libres = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger siguiente = new AtomicInteger();
+    private volatile boolean abierto = true;
+
+    /**
+     * @param direcciones Los nodos trabajadores, en el orden del turno rotativo.
+     * @param tiempoMaximoMs Espera máxima, en milisegundos, de cada lectura de la respuesta de un chunk; 0 espera sin límite.
+     */
+    public TransporteSocket(List<InetSocketAddress> direcciones, int tiempoMaximoMs) {
+        if (direcciones.isEmpty()) {
+            throw new IllegalArgumentException("Se necesita al menos un trabajador");
+        }
+        if (tiempoMaximoMs < 0) {
+            throw new IllegalArgumentException("El tiempo máximo de respuesta no puede ser negativo: " + tiempoMaximoMs);
+        }
+        this.direcciones = List.copyOf(direcciones);
+        this.tiempoMaximoMs = tiempoMaximoMs;
+    }
+
+    @Override
+    public RespuestaChunk enviar(List<Venta> ventas) throws IOException {
+        if (!abierto) {
+            throw new IllegalStateException("El transporte de chunks está cerrado");
+        }
+        Conexion conexion = libres.poll();
+        if (conexion == null) {
+            conexion = new Conexion(direcciones.get(Math.floorMod(siguiente.getAndIncrement(), direcciones.size())), tiempoMaximoMs);
+        }
+        RespuestaChunk respuesta;
+        try {
+            ProtocoloChunks.escribirSolicitud(conexion.salida, ventas);
+            respuesta = ProtocoloChunks.leerRespuesta(conexion.entrada);
+        } catch (SocketTimeoutException e) {
+            conexion.cerrar(); // La respuesta puede llegar tarde y mezclarse con la del siguiente chunk
+            SocketTimeoutException vencido = new SocketTimeoutException("Sin respuesta de " + conexion.direccion + " en " + tiempoMaximoMs + " ms");
+            vencido.initCause(e);
+            throw vencido;
+        } catch (IOException e) {
+            conexion.cerrar(); // El estado de la conexión es desconocido: no se reutiliza
+            throw new IOException("Falló el envío de un chunk a " + conexion.direccion + ": " + e.getMessage(), e);
+        }
+        libres.add(conexion);
+        if (!abierto) {
+            close();
+        }
+        return respuesta;
+    }
+
+    @Override
+    public void close() {
+        abierto = false;
+        Conexion conexion;
+        while ((conexion = libres.poll()) != null) {
+            conexion.cerrar();
+        }
+    }
+
+    // Conexión abierta hacia un trabajador
+    private static final class Conexion {
+        private final InetSocketAddress direccion;
+        private final Socket socket;
+        private final DataInputStream entrada;
+        private final DataOutputStream salida;
+
+        private Conexion(InetSocketAddress direccion, int tiempoMaximoMs) throws IOException {
+            this.direccion = direccion;
+            this.socket = new Socket();
+            socket.setTcpNoDelay(true); // Cada chunk es un mensaje completo que espera respuesta
+            socket.setSoTimeout(tiempoMaximoMs); // Una lectura sin datos en ese tiempo lanza SocketTimeoutException
+            socket.connect(direccion, 5000);
+            this.entrada = new DataInputStream(new BufferedInputStream(socket.getInputStream(), TAMANO_BUFFER));
+            this.salida = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), TAMANO_BUFFER));
+        }
+
+        private void cerrar() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Ya no se usa
+            }
+        }
+    }
+}
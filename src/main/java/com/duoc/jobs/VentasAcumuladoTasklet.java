@@ -0,0 +1,129 @@
+package com.duoc.jobs;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.duoc.items.MezclaInformes;
+import com.duoc.items.Recursos;
+
+/**
+ * Agrega informes diarios (output.csv de ventasJob) al acumulado de un período, por ejemplo una semana o un mes.
+ * El acumulado es un informe más, ordenado por producto, guardado en ventas.acumulado.directorio/&lt;periodo&gt;.csv.
+ * Cada ejecución hace una mezcla de k vías del acumulado con los informes nuevos (ver {@link MezclaInformes}),
+ * así que agregar un día cuesta lo que miden ese día y el acumulado (una fila por producto), no la historia
+ * completa del período.
+ * Cada informe llega con el día que consolida, y el acumulado lo reconoce por ese día, no por su ruta ni por su
+ * contenido: output.csv se reemplaza cada día, y dos días con los mismos totales son dos días que se suman. Un día que el
+ * acumulado ya contiene se salta si llega con el mismo contenido (huella SHA-256) y hace fallar el Job si llega con otro,
+ * porque sumarlo contaría el día dos veces y reemplazarlo no se puede sin volver a mezclar el período.
+ * El acumulado se reemplaza de una vez al terminar: si el Job falla queda como estaba y se puede volver a ejecutar.
+ */
+@Component
+@StepScope
+public class VentasAcumuladoTasklet implements Tasklet {
+
+    /** Parámetro identificador con el período del acumulado (por ejemplo 2024-W42 o 2024-10). */
+    public static final String PERIODO = "periodo";
+    /** Parámetro identificador con las rutas de los informes diarios, separadas por comas. */
+    public static final String ARCHIVOS = "archivos";
+    /** Parámetro identificador con el día (yyyy-MM-dd) de cada informe de {@link #ARCHIVOS}, en el mismo orden. */
+    public static final String DIAS = "dias";
+
+    private static final Logger logger = LoggerFactory.getLogger(VentasAcumuladoTasklet.class);
+
+    private final String periodo;
+    private final List<Path> archivos = new ArrayList<>();
+    private final List<LocalDate> dias = new ArrayList<>();
+    private final Path acumulado;
+
+    public VentasAcumuladoTasklet(@Value("#{jobParameters['" + PERIODO + "']}") String periodo,
+                                  @Value("#{jobParameters['" + ARCHIVOS + "']}") String archivos,
+                                  @Value("#{jobParameters['" + DIAS + "']}") String dias,
+                                  @Value("${ventas.acumulado.directorio:acumulados}") String directorio) {
+        if (periodo == null || periodo.isBlank() || periodo.contains("/") || periodo.contains("\\")) {
+            throw new IllegalArgumentException("El parámetro periodo debe ser un nombre de archivo: " + periodo);
+        }
+        this.periodo = periodo;
+        for (String archivo : archivos == null ? new String[0] : archivos.split(",")) {
+            if (!archivo.isBlank()) {
+                this.archivos.add(Paths.get(archivo.trim()).toAbsolutePath().normalize());
+            }
+        }
+        for (String dia : dias == null ? new String[0] : dias.split(",")) {
+            if (!dia.isBlank()) {
+                this.dias.add(LocalDate.parse(dia.trim())); // DateTimeParseException si no es yyyy-MM-dd
+            }
+        }
+        if (this.dias.size() != this.archivos.size()) {
+            throw new IllegalArgumentException("Se esperaba un día por informe: " + this.archivos.size()
+                    + " informes y " + this.dias.size() + " días");
+        }
+        this.acumulado = Paths.get(directorio).toAbsolutePath().resolve(periodo + ".csv");
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+        List<MezclaInformes.Incluido> incluidos = MezclaInformes.incluidos(acumulado);
+        List<Path> entradas = new ArrayList<>();
+        if (Files.exists(acumulado)) {
+            entradas.add(acumulado);
+        }
+        int nuevos = 0;
+        for (int i = 0; i < archivos.size(); i++) {
+            Path archivo = archivos.get(i);
+            LocalDate dia = dias.get(i);
+            String huella = Recursos.huella(archivo);
+            MezclaInformes.Incluido incluido = buscar(incluidos, dia);
+            if (incluido != null) {
+                if (!incluido.huella().equals(huella)) {
+                    throw new IllegalStateException("El acumulado " + periodo + " ya contiene el día " + dia + " ("
+                            + incluido.ruta() + ") con otro contenido que " + archivo);
+                }
+                logger.warn("El día {} ({}) ya está en el acumulado {}, no se vuelve a sumar", dia, archivo, periodo);
+                continue;
+            }
+            entradas.add(archivo);
+            incluidos.add(new MezclaInformes.Incluido(dia, huella, archivo.toString()));
+            nuevos++;
+        }
+        ExecutionContext contexto = chunkContext.getStepContext().getStepExecution().getExecutionContext();
+        contexto.putInt("archivos", nuevos);
+        if (nuevos == 0) {
+            logger.info("No hay informes nuevos para el acumulado {}", periodo);
+            return RepeatStatus.FINISHED;
+        }
+        Files.createDirectories(acumulado.getParent());
+        long inicio = System.currentTimeMillis();
+        MezclaInformes.Resultado resultado = MezclaInformes.mezclar(entradas, acumulado, incluidos);
+        contribution.incrementWriteCount(resultado.escritas());
+        contexto.putLong("filas", resultado.leidas());
+        logger.info("Acumulado {}: {} informes nuevos, {} filas leídas y {} productos escritos en {} ms",
+                periodo, nuevos, resultado.leidas(), resultado.escritas(), System.currentTimeMillis() - inicio);
+        return RepeatStatus.FINISHED;
+    }
+
+    // El informe de ese día que ya contiene el acumulado, o null si no lo tiene
+    private static MezclaInformes.Incluido buscar(List<MezclaInformes.Incluido> incluidos, LocalDate dia) {
+        for (MezclaInformes.Incluido incluido : incluidos) {
+            if (incluido.dia().equals(dia)) {
+                return incluido;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,68 @@
+package com.duoc.jobs;
+
+import java.util.List;
+
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.stereotype.Component;
+
+import com.duoc.business.InvalidDataException;
+import com.duoc.business.Venta;
+import com.duoc.items.DestinoRechazos;
+import com.duoc.items.ReglasValidacion;
+import com.duoc.items.VentasAggregator;
+
+/**
+ * Writer del Step administrador en el modo remoto: envía cada chunk leído por el {@link TransporteChunks} y espera
+ * a que un trabajador lo valide y acumule. Los totales que devuelve se suman al VentasAggregator de la partición,
+ * que se guarda en el ExecutionContext en cada commit como en el modo local, y cada venta rechazada pasa al
+ * {@link DestinoRechazos} (FileVerificationSkipper) dentro de la transacción del chunk.
+ * Si el trabajador falla, el chunk hace rollback y el Step falla o se reintenta como con cualquier error de escritura.
+ */
+@Component
+@StepScope
+public class VentasEnvioItemWriter implements ItemStreamWriter<Venta> {
+
+    private final TransporteChunks transporte;
+    private final DestinoRechazos rechazos;
+    private final ReglasValidacion reglas;
+    private final VentasAggregator aggregator = new VentasAggregator(); // Mismas claves del ExecutionContext que el modo local
+
+    public VentasEnvioItemWriter(TransporteChunks transporte, DestinoRechazos rechazos, ReglasValidacion reglas) {
+        this.transporte = transporte;
+        this.rechazos = rechazos;
+        this.reglas = reglas;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        aggregator.open(executionContext);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        aggregator.update(executionContext);
+    }
+
+    @Override
+    public void write(Chunk<? extends Venta> chunk) throws Exception {
+        @SuppressWarnings("unchecked")
+        List<Venta> ventas = (List<Venta>) chunk.getItems();
+        RespuestaChunk respuesta = transporte.enviar(ventas);
+        if (respuesta.error() != null) {
+            throw new ItemStreamException("El trabajador no pudo procesar el chunk: " + respuesta.error());
+        }
+        for (int i = 0; i < respuesta.rechazadas().length; i++) {
+            int codigo = respuesta.codigos()[i];
+            if (!rechazos.omitir(ventas.get(respuesta.rechazadas()[i]), codigo)) {
+                throw new InvalidDataException(reglas.motivo(codigo)); // Se superó el máximo de omisiones
+            }
+        }
+        for (int i = 0; i < respuesta.productos().length; i++) {
+            aggregator.sumar(respuesta.productos()[i], respuesta.cantidades()[i], respuesta.totales()[i]);
+        }
+    }
+}
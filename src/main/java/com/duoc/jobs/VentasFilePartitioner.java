@@ -0,0 +1,100 @@
+package com.duoc.jobs;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import com.duoc.items.Compresion;
+import com.duoc.items.IndiceBloques;
+import com.duoc.items.Recursos;
+
+/**
+ * Divide el archivo de ventas en rangos de bytes para procesarlos en paralelo.
+ * Cada rango comienza justo después de un salto de línea, de modo que ninguna línea queda
+ * repartida entre dos particiones. La primera partición comienza después del encabezado.
+ * El rango de cada partición se guarda en su ExecutionContext con las claves "inicio" y "fin".
+ * En un archivo comprimido los rangos se cuentan sobre el texto descomprimido y se cortan entre los bloques de su
+ * {@link IndiceBloques}, para que cada partición descomprima solo sus bloques; sin índice se procesa en una sola partición.
+ * Es StepScope para leer el archivo indicado en el parámetro "archivo" del Job.
+ */
+@Component
+@StepScope
+public class VentasFilePartitioner implements Partitioner {
+
+    public static final String INICIO = "inicio";
+    public static final String FIN = "fin";
+
+    private static final Logger logger = LoggerFactory.getLogger(VentasFilePartitioner.class);
+    private final Resource recurso;
+
+    public VentasFilePartitioner(@Value("#{jobParameters['archivo'] ?: '${ventas.entrada:classpath:consolidacion_diaria_ventas.csv}'}") Resource recurso) {
+        this.recurso = recurso;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Map<String, ExecutionContext> particiones = new LinkedHashMap<>();
+        try {
+            IndiceBloques indice = Compresion.detectar(recurso) == Compresion.NINGUNA ? null : IndiceBloques.leer(recurso);
+            long largo = Recursos.largo(recurso);
+            long inicio = siguienteLinea(0); // Omite el encabezado
+            int cantidad = gridSize;
+            if (largo < 0) {
+                logger.info("El archivo {} está comprimido sin índice de bloques, se procesa en una sola partición", recurso.getDescription());
+                largo = Long.MAX_VALUE;
+                cantidad = 1;
+            }
+            long tramo = Math.max(1, (largo - inicio) / Math.max(1, cantidad));
+            for (int i = 0; i < cantidad && inicio < largo; i++) {
+                long fin = (i == cantidad - 1 || inicio + tramo >= largo) ? largo
+                        : indice != null ? indice.siguienteCorte(inicio + tramo) : siguienteLinea(inicio + tramo);
+                ExecutionContext contexto = new ExecutionContext();
+                contexto.putLong(INICIO, inicio);
+                contexto.putLong(FIN, fin);
+                particiones.put(nombre(i), contexto);
+                inicio = fin;
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("No se pudo particionar el archivo " + recurso.getDescription(), e);
+        }
+        logger.info("Archivo {} dividido en {} particiones", recurso.getDescription(), particiones.size());
+        return particiones;
+    }
+
+    /**
+     * Nombre de la partición en la posición indicada.
+     *
+     * @param indice La posición de la partición, desde 0.
+     * @return El nombre con el que se registra la partición.
+     */
+    public static String nombre(int indice) {
+        return "particion" + indice;
+    }
+
+    // Devuelve la posición del primer byte después del siguiente salto de línea, a partir de la posición indicada
+    private long siguienteLinea(long posicion) throws IOException {
+        try (InputStream entrada = new BufferedInputStream(Recursos.abrir(recurso, posicion))) {
+            long actual = posicion;
+            int b;
+            while ((b = entrada.read()) >= 0) {
+                actual++;
+                if (b == '\n') {
+                    return actual;
+                }
+            }
+            return actual; // Fin del archivo
+        }
+    }
+}
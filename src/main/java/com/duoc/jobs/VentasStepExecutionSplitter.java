@@ -0,0 +1,99 @@
+package com.duoc.jobs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecutionException;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.core.partition.support.SimpleStepExecutionSplitter;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.item.ExecutionContext;
+
+import com.duoc.items.VentasAgregadorExterno;
+
+/**
+ * Divide el Step en particiones sin repetir las que ya terminaron.
+ * Cuando el CustomDecider vuelve a ejecutar el Step dentro del mismo JobExecution, el SimpleStepExecutionSplitter
+ * ejecuta otra vez todas las particiones, incluso las completadas. Este divisor omite las particiones cuya última
+ * ejecución quedó COMPLETED; las fallidas continúan desde el ExecutionContext de su último commit.
+ * Con la agregación externa continúan desde su último volcado a disco, o desde el inicio de su rango si no alcanzaron
+ * a volcar, porque los totales que tenían en memoria se perdieron con el intento fallido.
+ */
+public class VentasStepExecutionSplitter extends SimpleStepExecutionSplitter {
+
+    /** Clave donde el SimpleStepExecutionSplitter guarda la cantidad de particiones en el ExecutionContext del Step. */
+    public static final String GRID_SIZE = SimpleStepExecutionSplitter.class.getSimpleName() + ".GRID_SIZE";
+
+    private static final String SEPARADOR = ":"; // Mismo separador que usa el SimpleStepExecutionSplitter en los nombres
+
+    private static final Logger logger = LoggerFactory.getLogger(VentasStepExecutionSplitter.class);
+    private final JobRepository jobRepository;
+    private final String stepName;
+    private final boolean desdeVolcado; // Agregación externa: los reintentos continúan desde el último volcado
+
+    public VentasStepExecutionSplitter(JobRepository jobRepository, String stepName, Partitioner partitioner) {
+        this(jobRepository, stepName, partitioner, false);
+    }
+
+    public VentasStepExecutionSplitter(JobRepository jobRepository, String stepName, Partitioner partitioner,
+                                       boolean desdeVolcado) {
+        super(jobRepository, false, stepName, partitioner);
+        this.jobRepository = jobRepository;
+        this.stepName = stepName;
+        this.desdeVolcado = desdeVolcado;
+    }
+
+    @Override
+    protected boolean isStartable(StepExecution stepExecution, ExecutionContext context) throws JobExecutionException {
+        StepExecution ultima = jobRepository.getLastStepExecution(stepExecution.getJobExecution().getJobInstance(),
+                stepExecution.getStepName());
+        if (ultima != null && ultima.getStatus() == BatchStatus.COMPLETED) {
+            logger.info("{} ya terminó en un intento anterior, no se vuelve a ejecutar", stepExecution.getStepName());
+            return false;
+        }
+        boolean iniciable = super.isStartable(stepExecution, context);
+        if (ultima != null && desdeVolcado) {
+            stepExecution.setExecutionContext(contextoDesdeVolcado(ultima.getExecutionContext()));
+        }
+        return iniciable;
+    }
+
+    // Contexto del último volcado de la agregación externa, o solo el rango de la partición si no hubo volcados
+    @SuppressWarnings("unchecked")
+    private static ExecutionContext contextoDesdeVolcado(ExecutionContext ultimo) {
+        Object volcado = ultimo.get(VentasAgregadorExterno.REINICIO);
+        if (volcado != null) {
+            ExecutionContext contexto = new ExecutionContext((Map<String, Object>) volcado);
+            contexto.put(VentasAgregadorExterno.REINICIO, volcado); // Sigue siendo el punto de reinicio hasta el próximo volcado
+            return contexto;
+        }
+        ExecutionContext contexto = new ExecutionContext();
+        contexto.putLong(VentasFilePartitioner.INICIO, ultimo.getLong(VentasFilePartitioner.INICIO));
+        contexto.putLong(VentasFilePartitioner.FIN, ultimo.getLong(VentasFilePartitioner.FIN));
+        return contexto;
+    }
+
+    /**
+     * Busca la última ejecución de cada partición del Step, sea del intento actual o de uno anterior.
+     *
+     * @param stepExecution La ejecución del Step particionado.
+     * @return Las últimas ejecuciones de las particiones, en orden.
+     */
+    public List<StepExecution> ultimasParticiones(StepExecution stepExecution) {
+        int particiones = (int) stepExecution.getExecutionContext().getLong(GRID_SIZE, 0);
+        List<StepExecution> ultimas = new ArrayList<>(particiones);
+        for (int i = 0; i < particiones; i++) {
+            StepExecution ultima = jobRepository.getLastStepExecution(stepExecution.getJobExecution().getJobInstance(),
+                    stepName + SEPARADOR + VentasFilePartitioner.nombre(i));
+            if (ultima != null) {
+                ultimas.add(ultima); // Un archivo pequeño puede tener menos particiones que el gridSize
+            }
+        }
+        return ultimas;
+    }
+}
@@ -6,6 +6,44 @@ CREATE TABLE people  (
     last_name VARCHAR(20)
 );
 
+-- Informe consolidado por producto y fecha de consolidación, escrito por VentasJdbcItemWriter
+DROP TABLE ventas_informe IF EXISTS;
+
+CREATE TABLE ventas_informe  (
+    producto VARCHAR(100) NOT NULL,
+    fecha DATE NOT NULL,
+    cantidad_total BIGINT NOT NULL,
+    total_ventas DECIMAL(19,2) NOT NULL,
+    categoria VARCHAR(50),
+    tasa_impuesto DECIMAL(5,4),
+    moneda CHAR(3),
+    job_execution_id BIGINT NOT NULL,
+    actualizado TIMESTAMP NOT NULL,
+    PRIMARY KEY (producto, fecha)
+);
+
+-- Datos de referencia de cada producto, con los que CatalogoProductos enriquece el informe consolidado
+DROP TABLE producto_referencia IF EXISTS;
+
+CREATE TABLE producto_referencia  (
+    producto VARCHAR(100) NOT NULL PRIMARY KEY,
+    categoria VARCHAR(50) NOT NULL,
+    tasa_impuesto DECIMAL(5,4) NOT NULL,
+    moneda CHAR(3) NOT NULL
+);
+
+INSERT INTO producto_referencia (producto, categoria, tasa_impuesto, moneda) VALUES
+    ('Producto A', 'Electrónica', 0.1900, 'CLP'),
+    ('Producto B', 'Electrónica', 0.1900, 'CLP'),
+    ('Producto C', 'Hogar', 0.1900, 'CLP'),
+    ('Producto D', 'Hogar', 0.1900, 'CLP'),
+    ('Producto E', 'Alimentos', 0.1900, 'CLP'),
+    ('Producto F', 'Alimentos', 0.1900, 'CLP'),
+    ('Producto G', 'Libros', 0.0000, 'CLP'),
+    ('Producto H', 'Libros', 0.0000, 'CLP'),
+    ('Producto I', 'Importados', 0.1900, 'USD'),
+    ('Producto J', 'Importados', 0.1900, 'USD');
+
 -- Autogenerated: do not edit this file
 
 CREATE TABLE BATCH_JOB_INSTANCE  (
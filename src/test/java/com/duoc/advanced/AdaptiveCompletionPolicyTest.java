@@ -0,0 +1,43 @@
+package com.duoc.advanced;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+class AdaptiveCompletionPolicyTest {
+
+    @Test
+    void muchasVentasRechazadasPorReglasReducenElChunk() {
+        AdaptiveCompletionPolicy politica = new AdaptiveCompletionPolicy(100, 2, 5000, 60_000, 0, 0.1);
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+        ChunkContext contexto = new ChunkContext(new StepContext(stepExecution));
+
+        politica.beforeChunk(contexto);
+        stepExecution.setReadCount(100);
+        stepExecution.setWriteCount(70);
+        stepExecution.setFilterCount(30); // Filtradas por el procesador, sin ningún skip de Spring Batch
+        politica.afterChunk(contexto);
+
+        assertThat(politica.getChunkSize()).isEqualTo(50);
+        assertThat(stepExecution.getExecutionContext().getInt("chunk.tamano")).isEqualTo(50);
+    }
+
+    @Test
+    void unChunkLimpioYRapidoCrece() {
+        AdaptiveCompletionPolicy politica = new AdaptiveCompletionPolicy(100, 2, 5000, 60_000, 0, 0.1);
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+        ChunkContext contexto = new ChunkContext(new StepContext(stepExecution));
+
+        politica.beforeChunk(contexto);
+        stepExecution.setReadCount(100);
+        stepExecution.setWriteCount(95);
+        stepExecution.setFilterCount(5); // Por debajo del umbral del 10%
+        politica.afterChunk(contexto);
+
+        assertThat(politica.getChunkSize()).isEqualTo(200);
+    }
+}
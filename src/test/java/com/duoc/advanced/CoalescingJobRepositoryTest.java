@@ -0,0 +1,100 @@
+package com.duoc.advanced;
+
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+class CoalescingJobRepositoryTest {
+
+    private final JobRepository delegado = mock(JobRepository.class);
+    private StepExecution stepExecution;
+
+    @BeforeEach
+    void preparar() {
+        stepExecution = MetaDataInstanceFactory.createStepExecution();
+        stepExecution.setStatus(BatchStatus.STARTED);
+    }
+
+    @Test
+    void agrupaLosCommitsDentroDelIntervalo() {
+        CoalescingJobRepository repositorio = new CoalescingJobRepository(delegado, 60_000);
+        repositorio.update(stepExecution); // Primera escritura del Step: siempre se envía
+        for (int i = 0; i < 5; i++) {
+            chunk(repositorio);
+        }
+
+        verify(delegado, times(1)).update(stepExecution);
+        verify(delegado, never()).updateExecutionContext(stepExecution);
+    }
+
+    @Test
+    void escribeContextoYStepJuntosAlVencerElIntervalo() throws Exception {
+        CoalescingJobRepository repositorio = new CoalescingJobRepository(delegado, 0);
+        repositorio.update(stepExecution);
+        chunk(repositorio);
+
+        InOrder orden = inOrder(delegado);
+        orden.verify(delegado).update(stepExecution);
+        orden.verify(delegado).updateExecutionContext(stepExecution);
+        orden.verify(delegado).update(stepExecution);
+    }
+
+    @Test
+    void noEscribeElStepSiSeOmitioElContextoAunqueElIntervaloVenzaEntreAmbos() throws Exception {
+        CoalescingJobRepository repositorio = new CoalescingJobRepository(delegado, 100);
+        repositorio.update(stepExecution);
+
+        repositorio.updateExecutionContext(stepExecution); // Dentro del intervalo: se omite
+        Thread.sleep(150); // El intervalo vence antes del update de la misma transacción
+        repositorio.update(stepExecution);
+
+        verify(delegado, never()).updateExecutionContext(stepExecution);
+        verify(delegado, times(1)).update(stepExecution); // Solo la primera escritura
+
+        chunk(repositorio); // El siguiente chunk ya está fuera del intervalo y escribe ambos
+        verify(delegado, times(1)).updateExecutionContext(stepExecution);
+        verify(delegado, times(2)).update(stepExecution);
+    }
+
+    @Test
+    void sinCambiosEnElContextoElUpdateDecidePorElIntervalo() throws Exception {
+        CoalescingJobRepository repositorio = new CoalescingJobRepository(delegado, 100);
+        repositorio.update(stepExecution);
+        repositorio.update(stepExecution); // Dentro del intervalo
+        Thread.sleep(150);
+        repositorio.update(stepExecution);
+
+        verify(delegado, times(2)).update(stepExecution);
+        verify(delegado, never()).updateExecutionContext(stepExecution);
+    }
+
+    @Test
+    void elEstadoFinalDelStepSeEscribeSiempre() {
+        CoalescingJobRepository repositorio = new CoalescingJobRepository(delegado, 60_000);
+        repositorio.update(stepExecution);
+        chunk(repositorio);
+
+        stepExecution.setStatus(BatchStatus.COMPLETED);
+        repositorio.updateExecutionContext(stepExecution);
+        repositorio.update(stepExecution);
+
+        verify(delegado, times(1)).updateExecutionContext(stepExecution);
+        verify(delegado, times(2)).update(stepExecution);
+    }
+
+    // Escrituras de TaskletStep en el commit de un chunk que cambió el ExecutionContext
+    private void chunk(CoalescingJobRepository repositorio) {
+        repositorio.updateExecutionContext(stepExecution);
+        repositorio.update(stepExecution);
+    }
+}
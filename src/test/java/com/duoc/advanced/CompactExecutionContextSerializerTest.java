@@ -0,0 +1,93 @@
+package com.duoc.advanced;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.repository.dao.DefaultExecutionContextSerializer;
+
+class CompactExecutionContextSerializerTest {
+
+    private final CompactExecutionContextSerializer serializer = new CompactExecutionContextSerializer();
+
+    @Test
+    void conservaCadaTipo() throws Exception {
+        Map<String, Object> contexto = new HashMap<>();
+        contexto.put("texto", "Producto ñandú");
+        contexto.put("entero", 42);
+        contexto.put("largo", Long.MIN_VALUE);
+        contexto.put("doble", 0.1 + 0.2);
+        contexto.put("booleano", true);
+        contexto.put("productos", new String[] { "Producto A", "", "Producto B", null });
+        contexto.put("totales", new long[] { 1, -2, Long.MAX_VALUE });
+        contexto.put("dobles", new double[] { Double.NaN, -0.0 });
+        contexto.put("objeto", new ArrayList<>(List.of(LocalDate.of(2024, 5, 1)))); // Serialización de Java
+
+        Map<String, Object> leido = serializer.deserialize(new ByteArrayInputStream(serializar(contexto)));
+
+        assertThat(leido).containsOnlyKeys(contexto.keySet());
+        assertThat(leido.get("texto")).isEqualTo("Producto ñandú");
+        assertThat(leido.get("entero")).isEqualTo(42);
+        assertThat(leido.get("largo")).isEqualTo(Long.MIN_VALUE);
+        assertThat(leido.get("doble")).isEqualTo(0.1 + 0.2);
+        assertThat(leido.get("booleano")).isEqualTo(true);
+        assertThat((String[]) leido.get("productos")).containsExactly("Producto A", "", "Producto B", null);
+        assertThat((long[]) leido.get("totales")).containsExactly(1, -2, Long.MAX_VALUE);
+        assertThat((double[]) leido.get("dobles")).containsExactly(Double.NaN, -0.0);
+        assertThat(leido.get("objeto")).isEqualTo(List.of(LocalDate.of(2024, 5, 1)));
+    }
+
+    @Test
+    void unContextoConMuchosProductosRepetidosQuedaCompacto() throws Exception {
+        String[] productos = new String[1000];
+        long[] totales = new long[1000];
+        for (int i = 0; i < productos.length; i++) {
+            productos[i] = "Producto " + i;
+            totales[i] = i * 150L;
+        }
+        Map<String, Object> contexto = Map.of("productos", productos, "totales", totales);
+
+        ByteArrayOutputStream estandar = new ByteArrayOutputStream();
+        new DefaultExecutionContextSerializer().serialize(contexto, estandar);
+        byte[] compacto = serializar(contexto);
+
+        assertThat(compacto.length).isLessThan(estandar.size() / 2);
+        assertThat((String[]) serializer.deserialize(new ByteArrayInputStream(compacto)).get("productos"))
+                .containsExactly(productos);
+    }
+
+    @Test
+    void leeLosContextosDelSerializadorEstandar() throws Exception {
+        Map<String, Object> contexto = Map.of("rechazados", 3L, "productos", new String[] { "Producto A" });
+        ByteArrayOutputStream estandar = new ByteArrayOutputStream();
+        new DefaultExecutionContextSerializer().serialize(contexto, estandar);
+
+        Map<String, Object> leido = serializer.deserialize(new ByteArrayInputStream(estandar.toByteArray()));
+
+        assertThat(leido.get("rechazados")).isEqualTo(3L);
+        assertThat((String[]) leido.get("productos")).containsExactly("Producto A");
+    }
+
+    @Test
+    void rechazaLosValoresNoSerializables() {
+        Map<String, Object> contexto = Map.of("hilo", new Object());
+
+        assertThatThrownBy(() -> serializar(contexto))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("hilo");
+    }
+
+    private byte[] serializar(Map<String, Object> contexto) throws Exception {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        serializer.serialize(contexto, salida);
+        return salida.toByteArray();
+    }
+}
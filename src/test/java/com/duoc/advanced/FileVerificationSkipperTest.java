@@ -0,0 +1,124 @@
+package com.duoc.advanced;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.duoc.business.Venta;
+import com.duoc.items.ErrorSink;
+import com.duoc.items.ReglasValidacion;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class FileVerificationSkipperTest {
+
+    @TempDir
+    Path directorio;
+
+    private final TransactionTemplate transaccion = new TransactionTemplate(new ResourcelessTransactionManager());
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ReglasValidacion reglas = new ReglasValidacion(List.of("cantidad > 0"));
+    private final ErrorSink errorSink = new ErrorSink(100, 10);
+    private StepExecution stepExecution;
+    private FileVerificationSkipper skipper;
+    private VentaSkipListener listener;
+    private Path errores;
+
+    @BeforeEach
+    void preparar() {
+        stepExecution = MetaDataInstanceFactory.createStepExecution();
+        StepSynchronizationManager.register(stepExecution);
+        errores = directorio.resolve("errores.csv");
+        errorSink.abrir(stepExecution.getJobExecutionId(), new FileSystemResource(errores), false);
+        skipper = new FileVerificationSkipper(reglas, errorSink, registry, 10, false);
+        listener = new VentaSkipListener(skipper, false);
+    }
+
+    @AfterEach
+    void cerrar() {
+        StepSynchronizationManager.close();
+        errorSink.cerrar(stepExecution.getJobExecutionId());
+    }
+
+    @Test
+    void lasOmisionesDeUnChunkConfirmadoLleganAlArchivoDeErrores() throws Exception {
+        enTransaccion(estado -> {
+            listener.onSkipInRead(new FlatFileParseException("Formato inválido", "x,Producto A,1,1.00", 7));
+            listener.onSkipInProcess(venta(80, 2), new IllegalStateException("Producto desconocido"));
+            assertThat(skipper.omitir(venta(90, 0), 1)).isTrue();
+            // Ya está en el ExecutionContext que Spring Batch guarda antes del commit
+            assertThat(stepExecution.getExecutionContext().getLong(FileVerificationSkipper.RECHAZADOS)).isEqualTo(1);
+        });
+
+        assertThat(lineasDeErrores()).containsExactly(
+                "-1,Formato inválido,x,Producto A,1,1.00",
+                "80,Producto desconocido,9,Producto A,2,1.00",
+                "90,Cantidad debe ser mayor que 0,9,Producto A,0,1.00");
+        assertThat(registry.find("ventas.omitidos").counters()).hasSize(3).extracting(Counter::count).containsOnly(1.0);
+        assertThat(stepExecution.getExecutionContext().getLong(FileVerificationSkipper.RECHAZADOS)).isEqualTo(1);
+    }
+
+    @Test
+    void unChunkConRollbackNoEscribeSusOmisiones() throws Exception {
+        enTransaccion(estado -> {
+            listener.onSkipInRead(new FlatFileParseException("Formato inválido", "x,Producto A,1,1.00", 7));
+            listener.onSkipInProcess(venta(80, 2), new IllegalStateException("Producto desconocido"));
+            skipper.omitir(venta(90, 0), 1);
+            estado.setRollbackOnly(); // Por ejemplo, falla el commit del ExecutionContext
+        });
+        enTransaccion(estado -> listener.onSkipInRead(new FlatFileParseException("Formato inválido", "x,Producto A,1,1.00", 7)));
+
+        assertThat(lineasDeErrores()).containsExactly("-1,Formato inválido,x,Producto A,1,1.00"); // Solo el reintento confirmado
+        assertThat(registry.find("ventas.omitidos").counter().count()).isEqualTo(1.0);
+        assertThat(stepExecution.getExecutionContext().getLong(FileVerificationSkipper.RECHAZADOS, 0)).isZero();
+    }
+
+    @Test
+    void elMaximoIncluyeLosRechazosPendientesDelChunk() {
+        skipper = new FileVerificationSkipper(reglas, errorSink, registry, 2, false);
+        enTransaccion(estado -> {
+            assertThat(skipper.omitir(venta(1, 0), 1)).isTrue();
+            assertThat(skipper.omitir(venta(2, 0), 1)).isTrue();
+            assertThat(skipper.omitir(venta(3, 0), 1)).isFalse();
+        });
+        assertThat(stepExecution.getExecutionContext().getLong(FileVerificationSkipper.RECHAZADOS)).isEqualTo(2);
+    }
+
+    private void enTransaccion(Consumer<TransactionStatus> chunk) {
+        transaccion.executeWithoutResult(chunk);
+    }
+
+    private List<String> lineasDeErrores() throws Exception {
+        errorSink.vaciar(stepExecution.getJobExecutionId());
+        List<String> lineas = Files.readAllLines(errores, StandardCharsets.UTF_8);
+        return lineas.subList(1, lineas.size()); // Sin el encabezado
+    }
+
+    private static Venta venta(long posicion, int cantidad) {
+        Venta venta = new Venta();
+        venta.setPosicion(posicion);
+        venta.setId(9L);
+        venta.setProducto("Producto A");
+        venta.setCantidad(cantidad);
+        venta.setPrecioCentavos(100);
+        return venta;
+    }
+}
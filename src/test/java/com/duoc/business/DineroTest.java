@@ -0,0 +1,95 @@
+package com.duoc.business;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class DineroTest {
+
+    @Test
+    void redondeaAlCentavoConHalfUp() {
+        assertThat(Dinero.parsear("12.344")).isEqualTo(1234);
+        assertThat(Dinero.parsear("12.345")).isEqualTo(1235);
+        assertThat(Dinero.parsear("12.3449999")).isEqualTo(1234); // Solo cuenta el primer dígito descartado
+        assertThat(Dinero.parsear("0.005")).isEqualTo(1);
+        assertThat(Dinero.parsear("9.995")).isEqualTo(1000);
+    }
+
+    @Test
+    void losNegativosRedondeanComoBigDecimal() {
+        assertThat(Dinero.parsear("-12.345")).isEqualTo(-1235); // HALF_UP se aleja del cero
+        assertThat(Dinero.parsear("-12.344")).isEqualTo(-1234);
+        assertThat(Dinero.parsear("-0.005")).isEqualTo(-1);
+        assertThat(Dinero.parsear("-0.05")).isEqualTo(-5);
+        assertThat(Dinero.parsear("+1.5")).isEqualTo(150);
+    }
+
+    @Test
+    void aceptaLasFormasCortas() {
+        assertThat(Dinero.parsear("7")).isEqualTo(700);
+        assertThat(Dinero.parsear("7.")).isEqualTo(700);
+        assertThat(Dinero.parsear(".5")).isEqualTo(50);
+        assertThat(Dinero.parsear("007.10")).isEqualTo(710);
+    }
+
+    @Test
+    void hasta16DigitosEnterosUsaElCaminoRapidoYDespuesBigDecimal() {
+        assertThat(Dinero.parsear("9999999999999999.99")).isEqualTo(999_999_999_999_999_999L); // 16 dígitos enteros
+        assertThat(Dinero.parsear("12345678901234567.89")).isEqualTo(1_234_567_890_123_456_789L); // 17: BigDecimal
+        assertThat(Dinero.parsear("92233720368547758.07")).isEqualTo(Long.MAX_VALUE);
+        assertThat(Dinero.parsear("1.5E3")).isEqualTo(150_000); // Notación exponencial de Double.toString
+    }
+
+    @Test
+    void rechazaLoQueNoEsUnImporteOEstaFueraDeRango() {
+        assertThatThrownBy(() -> Dinero.parsear("")).isInstanceOf(NumberFormatException.class).hasMessageContaining("inválido");
+        assertThatThrownBy(() -> Dinero.parsear("-")).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> Dinero.parsear("1.2.3")).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> Dinero.parsear("abc")).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> Dinero.parsear("92233720368547758.08"))
+                .isInstanceOf(NumberFormatException.class).hasMessageContaining("fuera de rango");
+        assertThatThrownBy(() -> Dinero.parsear("-92233720368547758.08")) // Long.MIN_VALUE es Venta.SIN_PRECIO
+                .isInstanceOf(NumberFormatException.class).hasMessageContaining("fuera de rango");
+    }
+
+    @Test
+    void leeSoloElTramoIndicado() {
+        String linea = "1,Producto A,3,12.345,x";
+
+        assertThat(Dinero.parsear(linea, 15, 21)).isEqualTo(1235);
+    }
+
+    @Test
+    void daLoMismoQueBigDecimal() {
+        Random aleatorio = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            StringBuilder texto = new StringBuilder();
+            if (aleatorio.nextInt(4) == 0) {
+                texto.append('-');
+            }
+            texto.append(aleatorio.nextLong(1, 10_000_000_000_000_000L)); // Hasta 16 dígitos enteros
+            if (aleatorio.nextBoolean()) {
+                texto.append('.');
+                for (int d = aleatorio.nextInt(6); d > 0; d--) {
+                    texto.append(aleatorio.nextInt(10));
+                }
+            }
+            long esperado = new BigDecimal(texto.toString()).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+
+            assertThat(Dinero.parsear(texto)).as(texto.toString()).isEqualTo(esperado);
+        }
+    }
+
+    @Test
+    void formateaConDosDecimales() {
+        assertThat(Dinero.formatear(123450)).isEqualTo("1234.50");
+        assertThat(Dinero.formatear(-5)).isEqualTo("-0.05");
+        assertThat(Dinero.formatear(Long.MIN_VALUE + 1)).isEqualTo("-92233720368547758.07");
+        assertThat(Dinero.parsear(Dinero.formatear(-123456))).isEqualTo(-123456);
+    }
+}
@@ -0,0 +1,67 @@
+package com.duoc.items;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import com.duoc.business.InformeVenta;
+import com.duoc.business.ReferenciaProducto;
+
+class CatalogoProductosTest {
+
+    private EmbeddedDatabase baseDatos;
+
+    @BeforeEach
+    void crearBase() {
+        baseDatos = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("classpath:schema-all.sql")
+                .build();
+    }
+
+    @AfterEach
+    void cerrarBase() {
+        baseDatos.shutdown();
+    }
+
+    @Test
+    void buscaLosProductosEnVariosLotes() {
+        CatalogoProductos catalogo = new CatalogoProductos(baseDatos, 2);
+
+        Map<String, ReferenciaProducto> referencias = catalogo.buscar(List.of(
+                "Producto A", "Producto G", "Producto A", "Producto Z", "Producto I", "Producto C"));
+
+        assertThat(referencias).containsOnlyKeys("Producto A", "Producto G", "Producto I", "Producto C");
+        assertThat(referencias.get("Producto G").getTasaImpuesto()).isZero();
+        assertThat(referencias.get("Producto I").getMoneda()).isEqualTo("USD");
+        assertThat(catalogo.buscar(List.of())).isEmpty();
+    }
+
+    @Test
+    void losInformesSinReferenciaQuedanConLosCamposVacios() {
+        InformeVentaEnriquecedor enriquecedor = new InformeVentaEnriquecedor(new CatalogoProductos(baseDatos, 500));
+        InformeVenta conReferencia = informe("Producto C");
+        InformeVenta sinReferencia = informe("Producto Z");
+
+        assertThat(enriquecedor.enriquecer(List.of(conReferencia, sinReferencia))).isEqualTo(1);
+        assertThat(conReferencia.getCategoria()).isEqualTo("Hogar");
+        assertThat(conReferencia.getMoneda()).isEqualTo("CLP");
+        assertThat(sinReferencia.getCategoria()).isNull();
+        assertThat(sinReferencia.getMoneda()).isNull();
+    }
+
+    private static InformeVenta informe(String producto) {
+        InformeVenta informe = new InformeVenta();
+        informe.setProducto(producto);
+        return informe;
+    }
+}
@@ -0,0 +1,120 @@
+package com.duoc.items;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CorridaVentasTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void losProductosYLosNumerosSeLeenComoSeEscribieron() throws Exception {
+        List<String> esperadas = List.of(
+                "|0|0", // Producto vacío al inicio
+                "Cafe|1|-1",
+                "Cafetera|127|64", // El anterior es prefijo completo
+                "Cafè|128|-65",
+                "Café|-128|" + Long.MAX_VALUE, // Comparte con "Cafè" solo el primer byte de la "é" en UTF-8
+                "SKU-000123|" + Long.MAX_VALUE + "|" + Long.MIN_VALUE,
+                "SKU-000124|" + Long.MIN_VALUE + "|300",
+                "Té verde 🍵|2|-9999999999");
+        Path corrida = directorio.resolve("corrida-0.vrun");
+        try (CorridaVentas.Escritor escritor = new CorridaVentas.Escritor(corrida)) {
+            for (String fila : esperadas) {
+                String[] campos = fila.split("\\|");
+                escritor.escribir(campos[0], Long.parseLong(campos[1]), Long.parseLong(campos[2]));
+            }
+            assertThat(escritor.filas()).isEqualTo(esperadas.size());
+        }
+
+        assertThat(leer(corrida)).isEqualTo(esperadas);
+    }
+
+    @Test
+    void losProductosConPrefijoComunOcupanPocosBytes() throws Exception {
+        Path corrida = directorio.resolve("corrida-0.vrun");
+        try (CorridaVentas.Escritor escritor = new CorridaVentas.Escritor(corrida)) {
+            for (int i = 0; i < 1000; i++) {
+                escritor.escribir(String.format("TIENDA-042-SKU-%06d", i), 1, 100);
+            }
+        }
+
+        // Por fila: prefijo, largo del resto, los dígitos que cambian, cantidad y total (200 en zigzag ocupa 2 bytes)
+        assertThat(Files.size(corrida)).isLessThan(4 + 1000 * 8 + 1 + 8);
+        assertThat(leer(corrida)).hasSize(1000).endsWith("TIENDA-042-SKU-000999|1|100");
+    }
+
+    @Test
+    void unaFilaFueraDeOrdenSeRechaza() throws Exception {
+        try (CorridaVentas.Escritor escritor = new CorridaVentas.Escritor(directorio.resolve("corrida-0.vrun"))) {
+            escritor.escribir("Producto B", 1, 100);
+
+            assertThatThrownBy(() -> escritor.escribir("Producto A", 1, 100)).isInstanceOf(IllegalStateException.class);
+            assertThatThrownBy(() -> escritor.escribir("Producto B", 1, 100)).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    void unaCorridaTruncadaSeDetectaAlLeerla() throws Exception {
+        Path corrida = directorio.resolve("corrida-0.vrun");
+        try (CorridaVentas.Escritor escritor = new CorridaVentas.Escritor(corrida)) {
+            escritor.escribir("Producto A", 1, 100);
+            escritor.escribir("Producto B", 2, 200);
+        }
+        byte[] contenido = Files.readAllBytes(corrida);
+
+        Files.write(corrida, Arrays.copyOf(contenido, contenido.length - 12)); // Sin el fin ni la última fila completa
+        assertThatThrownBy(() -> leer(corrida)).isInstanceOf(IOException.class).hasMessageContaining("incompleta");
+
+        contenido[contenido.length - 1]++; // Cantidad de filas que no coincide
+        Files.write(corrida, contenido);
+        assertThatThrownBy(() -> leer(corrida)).isInstanceOf(IOException.class).hasMessageContaining("se leyeron 2 de 3 filas");
+    }
+
+    @Test
+    void laMezclaSumaCadaProductoDeTodasLasCorridas() throws Exception {
+        Path primera = escribir("corrida-0.vrun", "Producto A|1|100", "Producto C|3|300");
+        Path segunda = escribir("corrida-1.vrun", "Producto A|2|-50", "Producto B|1|10", "Producto C|1|1");
+        Path vacia = escribir("corrida-2.vrun");
+        List<String> mezcla = new ArrayList<>();
+
+        long productos = CorridaVentas.mezclar(List.of(primera, segunda, vacia),
+                (producto, cantidad, total) -> mezcla.add(producto + "|" + cantidad + "|" + total));
+
+        assertThat(productos).isEqualTo(3);
+        assertThat(mezcla).containsExactly("Producto A|3|50", "Producto B|1|10", "Producto C|4|301");
+    }
+
+    private Path escribir(String nombre, String... filas) throws IOException {
+        Path corrida = directorio.resolve(nombre);
+        try (CorridaVentas.Escritor escritor = new CorridaVentas.Escritor(corrida)) {
+            for (String fila : filas) {
+                String[] campos = fila.split("\\|");
+                escritor.escribir(campos[0], Long.parseLong(campos[1]), Long.parseLong(campos[2]));
+            }
+        }
+        return corrida;
+    }
+
+    // Filas de la corrida como "producto|cantidad|total"
+    private static List<String> leer(Path corrida) throws IOException {
+        List<String> filas = new ArrayList<>();
+        try (CorridaVentas.Lector lector = new CorridaVentas.Lector(corrida)) {
+            while (lector.avanzar()) {
+                filas.add(lector.producto() + "|" + lector.cantidad() + "|" + lector.total());
+            }
+        }
+        return filas;
+    }
+}
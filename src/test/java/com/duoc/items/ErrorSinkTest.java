@@ -0,0 +1,67 @@
+package com.duoc.items;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.core.io.FileSystemResource;
+
+import com.duoc.business.VentaRechazada;
+
+class ErrorSinkTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void escribeLosRegistrosEncolados() throws Exception {
+        Path archivo = directorio.resolve("errores.csv");
+        ErrorSink sink = new ErrorSink(2, 10);
+        sink.abrir(1L, new FileSystemResource(archivo), false);
+        for (int i = 1; i <= 5; i++) {
+            sink.registrar(1L, new VentaRechazada(i * 10L, "motivo", "registro " + i));
+        }
+        sink.cerrar(1L);
+
+        assertThat(Files.readAllLines(archivo, StandardCharsets.UTF_8))
+                .hasSize(6)
+                .startsWith("Posicion,Motivo,Registro")
+                .endsWith("50,motivo,registro 5");
+    }
+
+    @Test
+    void registrarFallaEnLugarDeBloquearSiElEscritorTermino() {
+        ErrorSink sink = new ErrorSink(1, 1);
+        sink.abrir(2L, new FileSystemResource(directorio.resolve("errores.csv")), false);
+        VentaRechazada invalida = new VentaRechazada() {
+            @Override
+            public String getMotivo() {
+                try {
+                    Thread.sleep(300); // Mientras tanto la partición llena la cola y queda esperando espacio
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IllegalStateException("registro ilegible"); // Detiene el hilo escritor
+            }
+        };
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            sink.registrar(2L, invalida);
+            assertThatThrownBy(() -> { // La cola de capacidad 1 se llena; con put la partición esperaría para siempre
+                for (int i = 0; i < 100; i++) {
+                    sink.registrar(2L, new VentaRechazada(i, "motivo", "registro"));
+                }
+            }).isInstanceOf(ItemStreamException.class)
+              .hasMessageContaining("Falló la escritura");
+        });
+        assertThatThrownBy(() -> sink.cerrar(2L)).isInstanceOf(ItemStreamException.class);
+    }
+}
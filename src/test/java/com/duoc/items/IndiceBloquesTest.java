@@ -0,0 +1,93 @@
+package com.duoc.items;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+
+class IndiceBloquesTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void abrirEnMitadDeUnBloqueDaElMismoTextoQueSinComprimir() throws Exception {
+        byte[] texto = ventas(300);
+        for (Compresion compresion : new Compresion[] { Compresion.GZIP, Compresion.ZSTD }) {
+            Path destino = directorio.resolve("ventas.csv" + compresion.extension());
+            IndiceBloques indice = IndiceBloques.comprimir(origen(texto), destino, compresion, 512);
+            FileSystemResource recurso = new FileSystemResource(destino);
+
+            assertThat(indice.bloques()).isGreaterThan(5);
+            assertThat(Recursos.largo(recurso)).isEqualTo(texto.length);
+            long mitad = indice.descomprimido(3) + 7;
+            for (long posicion : new long[] { 0, 1, indice.descomprimido(2), mitad, texto.length - 1, texto.length }) {
+                try (InputStream entrada = Recursos.abrir(recurso, posicion)) {
+                    assertThat(entrada.readAllBytes()).as("%s desde el byte %d", compresion, posicion)
+                            .isEqualTo(Arrays.copyOfRange(texto, (int) posicion, texto.length));
+                }
+            }
+        }
+    }
+
+    @Test
+    void cadaBloqueEmpiezaAlInicioDeUnaLinea() throws Exception {
+        byte[] texto = ventas(300);
+        IndiceBloques indice = IndiceBloques.comprimir(origen(texto), directorio.resolve("ventas.csv.gz"), Compresion.GZIP, 512);
+
+        for (int i = 1; i < indice.bloques(); i++) {
+            assertThat(texto[(int) indice.descomprimido(i) - 1]).as("bloque %d", i).isEqualTo((byte) '\n');
+        }
+        assertThat(indice.bloque(indice.descomprimido(3) + 7)).isEqualTo(3);
+        assertThat(indice.siguienteCorte(indice.descomprimido(3) + 7)).isEqualTo(indice.descomprimido(4));
+        assertThat(indice.siguienteCorte(texto.length - 1)).isEqualTo(texto.length);
+    }
+
+    @Test
+    void unIndiceDeOtraVersionDelArchivoSeIgnora() throws Exception {
+        Path destino = directorio.resolve("ventas.csv.gz");
+        IndiceBloques.comprimir(origen(ventas(300)), destino, Compresion.GZIP, 512);
+        byte[] nuevo = ventas(200); // El archivo del día siguiente, comprimido de una vez sin regenerar el índice
+        try (OutputStream salida = Compresion.GZIP.comprimir(Files.newOutputStream(destino))) {
+            salida.write(nuevo);
+        }
+        FileSystemResource recurso = new FileSystemResource(destino);
+
+        assertThat(IndiceBloques.leer(recurso)).isNull();
+        assertThat(Recursos.largo(recurso)).isEqualTo(-1);
+        try (InputStream entrada = Recursos.abrir(recurso, 100)) {
+            assertThat(entrada.readAllBytes()).isEqualTo(Arrays.copyOfRange(nuevo, 100, nuevo.length));
+        }
+    }
+
+    @Test
+    void unIndiceMasAntiguoQueElArchivoSeIgnoraAunqueCoincidaElTamano() throws Exception {
+        Path destino = directorio.resolve("ventas.csv.gz");
+        IndiceBloques.comprimir(origen(ventas(300)), destino, Compresion.GZIP, 512);
+        Path indice = directorio.resolve("ventas.csv.gz" + IndiceBloques.EXTENSION);
+        Files.setLastModifiedTime(indice, FileTime.fromMillis(Files.getLastModifiedTime(destino).toMillis() - 60_000));
+
+        assertThat(IndiceBloques.leer(new FileSystemResource(destino))).isNull();
+    }
+
+    private Path origen(byte[] texto) throws Exception {
+        return Files.write(directorio.resolve("ventas.csv"), texto);
+    }
+
+    private static byte[] ventas(int cantidad) {
+        StringBuilder texto = new StringBuilder("id,producto,cantidad,precio\n");
+        for (int i = 1; i <= cantidad; i++) {
+            texto.append(i).append(",Producto ").append(i % 7).append(',').append(i % 5 + 1).append(',').append(i).append(".50\n");
+        }
+        return texto.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,149 @@
+package com.duoc.items;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IndiceDeduplicacionTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void laTablaCreceYConservaLosIdAlReabrirla() throws Exception {
+        Path archivo = directorio.resolve("ventas-ids.vdup");
+        IndiceDeduplicacion indice = new IndiceDeduplicacion(archivo.toString(), 30, 16);
+
+        indice.confirmar(LongStream.rangeClosed(1, 100).toArray(), 100); // Más del 75% de 16 y de 128 posiciones
+        indice.destroy();
+
+        assertThat(posiciones(archivo)).isEqualTo(256);
+        assertThat(ocupadas(archivo)).isEqualTo(100);
+        assertThat(Files.size(archivo)).isEqualTo(64 + 256 * 12);
+        IndiceDeduplicacion reabierto = new IndiceDeduplicacion(archivo.toString(), 30, 16);
+        assertThat(LongStream.rangeClosed(1, 100)).allMatch(reabierto::contiene);
+        assertThat(reabierto.contiene(101)).isFalse();
+        assertThat(reabierto.contiene(0)).isFalse();
+    }
+
+    @Test
+    void unIdVencidoYaNoFiltra() throws Exception {
+        Path archivo = directorio.resolve("ventas-ids.vdup");
+        IndiceDeduplicacion indice = new IndiceDeduplicacion(archivo.toString(), 30, 64);
+        indice.confirmar(new long[] { 1, 2, 3 }, 3);
+        indice.destroy();
+
+        envejecer(archivo, 29);
+        IndiceDeduplicacion vigente = new IndiceDeduplicacion(archivo.toString(), 30, 64);
+        assertThat(vigente.contiene(1)).isTrue();
+        assertThat(vigente.reservar(1, "fila 1")).isFalse();
+
+        envejecer(archivo, 1); // 30 días: fuera del período de retención
+        IndiceDeduplicacion vencido = new IndiceDeduplicacion(archivo.toString(), 30, 64);
+        assertThat(vencido.contiene(1)).isFalse();
+        assertThat(vencido.reservar(1, "fila 1")).isTrue();
+        assertThat(vencido.reservar(1, "fila 2")).isFalse(); // Reservado por otra fila
+        assertThat(vencido.reservar(1, "fila 1")).isTrue(); // Reproceso de la misma fila
+
+        vencido.confirmar(new long[] { 1 }, 1); // Renueva el id en su misma posición
+        assertThat(vencido.contiene(1)).isTrue();
+        assertThat(ocupadas(archivo)).isEqualTo(3);
+    }
+
+    @Test
+    void lasPosicionesVencidasSeReutilizanYSeDescartanAlCrecer() throws Exception {
+        Path archivo = directorio.resolve("ventas-ids.vdup");
+        IndiceDeduplicacion anterior = new IndiceDeduplicacion(archivo.toString(), 30, 64);
+        anterior.confirmar(LongStream.rangeClosed(1, 40).toArray(), 40);
+        anterior.destroy();
+        envejecer(archivo, 31);
+
+        IndiceDeduplicacion indice = new IndiceDeduplicacion(archivo.toString(), 30, 64);
+        indice.confirmar(LongStream.rangeClosed(1001, 1010).toArray(), 10); // 50 ocupadas superarían el 75% de 64
+        assertThat(posiciones(archivo)).isEqualTo(64);
+        assertThat(ocupadas(archivo)).isBetween(40L, 48L); // Sin reconstruir la tabla: las vencidas siguen contadas
+
+        indice.confirmar(LongStream.rangeClosed(2001, 2100).toArray(), 100);
+        indice.destroy();
+        assertThat(posiciones(archivo)).isGreaterThan(64);
+        assertThat(ocupadas(archivo)).isEqualTo(110); // Solo los vigentes pasan a la tabla nueva
+        assertThat(LongStream.rangeClosed(1, 40)).noneMatch(indice::contiene);
+        assertThat(LongStream.concat(LongStream.rangeClosed(1001, 1010), LongStream.rangeClosed(2001, 2100)))
+                .allMatch(indice::contiene);
+    }
+
+    @Test
+    void unIdConfirmadoPorOtraParticionMientrasSeReservaNoPasaDosVeces() throws Exception {
+        Path archivo = directorio.resolve("ventas-ids.vdup");
+        Runnable[] entreConsultaYReserva = new Runnable[1];
+        IndiceDeduplicacion indice = new IndiceDeduplicacion(archivo.toString(), 30, 64) {
+            @Override
+            public boolean contiene(long id) {
+                boolean contenido = super.contiene(id);
+                Runnable particionA = entreConsultaYReserva[0];
+                entreConsultaYReserva[0] = null;
+                if (particionA != null) {
+                    particionA.run(); // La partición A confirma su chunk justo después de esta consulta
+                }
+                return contenido;
+            }
+        };
+        assertThat(indice.reservar(7, "particion A")).isTrue();
+        entreConsultaYReserva[0] = () -> {
+            indice.confirmar(new long[] { 7 }, 1);
+            indice.liberar(7, "particion A");
+        };
+
+        assertThat(indice.reservar(7, "particion B")).isFalse();
+        if (entreConsultaYReserva[0] != null) {
+            entreConsultaYReserva[0].run(); // B no llegó a consultar el índice: A confirma su chunk después
+        }
+        assertThat(indice.contiene(7)).isTrue();
+        assertThat(indice.reservar(7, "particion B")).isFalse();
+        assertThat(indice.reservar(8, "particion B")).isTrue();
+        indice.destroy();
+    }
+
+    private static long posiciones(Path archivo) throws Exception {
+        return cabecera(archivo).getLong(8);
+    }
+
+    private static long ocupadas(Path archivo) throws Exception {
+        return cabecera(archivo).getLong(16);
+    }
+
+    private static ByteBuffer cabecera(Path archivo) throws Exception {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            ByteBuffer cabecera = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+            canal.read(cabecera, 0);
+            return cabecera;
+        }
+    }
+
+    // Retrocede los días de registro de todas las entradas ocupadas, como si hubieran pasado esos días
+    private static void envejecer(Path archivo, int dias) throws Exception {
+        long posiciones = posiciones(archivo);
+        int hoy = (int) LocalDate.now().toEpochDay();
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer columna = ByteBuffer.allocate((int) posiciones * 4).order(ByteOrder.LITTLE_ENDIAN);
+            canal.read(columna, 64 + posiciones * 8);
+            for (int i = 0; i < posiciones; i++) {
+                int dia = columna.getInt(i * 4);
+                if (dia != 0) {
+                    columna.putInt(i * 4, Math.min(dia, hoy) - dias);
+                }
+            }
+            canal.write(columna.rewind(), 64 + posiciones * 8);
+        }
+    }
+}
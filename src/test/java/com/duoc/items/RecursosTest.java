@@ -0,0 +1,48 @@
+package com.duoc.items;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RecursosTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void laHuellaDependeDelContenidoYNoDeLaRuta() throws Exception {
+        Path hoy = Files.writeString(directorio.resolve("ventas.csv"), "id,producto,cantidad,precio\n1,Producto A,1,1.00\n");
+        Path copia = Files.copy(hoy, directorio.resolve("copia.csv"));
+        String huellaHoy = Recursos.huella(hoy);
+
+        assertThat(Recursos.huella(copia)).isEqualTo(huellaHoy);
+
+        Files.writeString(hoy, "id,producto,cantidad,precio\n1,Producto A,2,1.00\n"); // El archivo del día siguiente
+        assertThat(Recursos.huella(hoy)).isNotEqualTo(huellaHoy);
+    }
+
+    @Test
+    void laHuellaEsElSha256DelArchivoCompleto() throws Exception {
+        byte[] contenido = new byte[3 << 20]; // Más de un bloque de lectura
+        contenido[contenido.length - 1] = 1;
+        Path archivo = Files.write(directorio.resolve("grande.csv"), contenido);
+
+        assertThat(Recursos.huella(Files.writeString(directorio.resolve("abc.csv"), "abc", StandardCharsets.US_ASCII)))
+                .isEqualTo("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad");
+        assertThat(Recursos.huella(archivo)).isNotEqualTo(Recursos.huella(Files.write(directorio.resolve("ceros.csv"),
+                new byte[3 << 20])));
+    }
+
+    @Test
+    void laHuellaDeUnTextoEsLaDeSusBytesUtf8() throws Exception {
+        Path archivo = Files.writeString(directorio.resolve("texto.csv"), "Té verde,ñandú", StandardCharsets.UTF_8);
+
+        assertThat(Recursos.huella("abc")).isEqualTo("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad");
+        assertThat(Recursos.huella(new StringBuilder("Té verde,ñandú"))).isEqualTo(Recursos.huella(archivo));
+    }
+}
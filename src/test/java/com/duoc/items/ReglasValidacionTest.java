@@ -0,0 +1,102 @@
+package com.duoc.items;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.duoc.business.Venta;
+
+class ReglasValidacionTest {
+
+    @Test
+    void unImporteQueNoCabeEnCentavosSeRechazaComoDatoInvalido() {
+        ReglasValidacion reglas = new ReglasValidacion(List.of("cantidad > 0", "precio > 0"));
+
+        int codigo = reglas.validar(venta("Producto A", Integer.MAX_VALUE, Long.MAX_VALUE / 1000));
+
+        assertThat(codigo).isNotEqualTo(ReglasValidacion.VALIDA);
+        assertThat(reglas.motivo(codigo)).isEqualTo("Importe fuera de rango");
+        assertThat(reglas.nombre(codigo)).isEqualTo(ReglasValidacion.IMPORTE);
+        assertThat(reglas.validar(venta("Producto A", 2, Long.MAX_VALUE / 2))).isEqualTo(ReglasValidacion.VALIDA);
+    }
+
+    @Test
+    void laReglaDeImporteNoCambiaLosCodigosDelArchivo() {
+        ReglasValidacion reglas = new ReglasValidacion(List.of("cantidad > 0", "precio > 0"));
+
+        assertThat(reglas.validar(venta("Producto A", 0, 100))).isEqualTo(1);
+        assertThat(reglas.validar(venta("Producto A", 1, 0))).isEqualTo(2);
+    }
+
+    @Test
+    void cadaComparacionRespetaSuLimite() {
+        ReglasValidacion reglas = new ReglasValidacion(List.of("precio > 1", "cantidad >= 2", "cantidad < 10", "precio <= 100"));
+
+        assertThat(reglas.validar(venta("Producto A", 2, 101))).isEqualTo(ReglasValidacion.VALIDA);
+        assertThat(reglas.validar(venta("Producto A", 2, 100))).isEqualTo(1);
+        assertThat(reglas.validar(venta("Producto A", 1, 500))).isEqualTo(2);
+        assertThat(reglas.validar(venta("Producto A", 9, 500))).isEqualTo(ReglasValidacion.VALIDA);
+        assertThat(reglas.validar(venta("Producto A", 10, 500))).isEqualTo(3);
+        assertThat(reglas.validar(venta("Producto A", 2, 10000))).isEqualTo(ReglasValidacion.VALIDA);
+        assertThat(reglas.validar(venta("Producto A", 2, 10001))).isEqualTo(4);
+        assertThat(reglas.validar(venta("Producto A", 2, Venta.SIN_PRECIO))).isEqualTo(1); // Un campo vacío no cumple
+        assertThat(reglas.motivo(1)).isEqualTo("Precio debe ser mayor que 1");
+        assertThat(reglas.motivo(2)).isEqualTo("Cantidad debe ser mayor o igual que 2");
+        assertThat(reglas.motivo(3)).isEqualTo("Cantidad debe ser menor que 10");
+        assertThat(reglas.motivo(4)).isEqualTo("Precio debe ser menor o igual que 100");
+        assertThat(reglas.nombre(3)).isEqualTo("cantidad < 10");
+    }
+
+    @Test
+    void requeridoEntreYListaDePermitidos() {
+        ReglasValidacion reglas = new ReglasValidacion(List.of(
+                "# Comentario", "", "requerido producto", "precio entre 0.01 100", "producto en Producto A | Producto B"));
+
+        assertThat(reglas.validar(venta(" ", 1, 100))).isEqualTo(1);
+        assertThat(reglas.motivo(1)).isEqualTo("Producto es obligatorio");
+        assertThat(reglas.validar(venta("Producto A", 1, 1))).isEqualTo(ReglasValidacion.VALIDA);
+        assertThat(reglas.validar(venta("Producto B", 1, 10000))).isEqualTo(ReglasValidacion.VALIDA);
+        assertThat(reglas.validar(venta("Producto A", 1, 0))).isEqualTo(2);
+        assertThat(reglas.validar(venta("Producto A", 1, 10001))).isEqualTo(2);
+        assertThat(reglas.validar(venta("Producto A", 1, Venta.SIN_PRECIO))).isEqualTo(2);
+        assertThat(reglas.validar(venta("Producto C", 1, 100))).isEqualTo(3);
+        assertThat(reglas.motivo(3)).isEqualTo("Producto no permitido");
+    }
+
+    @Test
+    void losRangosPorProductoSoloSeAplicanASuProducto() {
+        ReglasValidacion reglas = new ReglasValidacion(List.of(
+                "precio[Producto A] entre 1 5", "cantidad > 0", "precio[Producto B] entre 10 20"));
+
+        assertThat(reglas.validar(venta("Producto A", 1, 500))).isEqualTo(ReglasValidacion.VALIDA);
+        assertThat(reglas.validar(venta("Producto A", 1, 501))).isEqualTo(1);
+        assertThat(reglas.validar(venta("Producto B", 1, 500))).isEqualTo(3); // Su código sigue el orden del archivo
+        assertThat(reglas.validar(venta("Producto B", 0, 1500))).isEqualTo(2);
+        assertThat(reglas.validar(venta("Producto C", 1, 100000))).isEqualTo(ReglasValidacion.VALIDA);
+        assertThat(reglas.motivo(1)).isEqualTo("Precio de Producto A debe estar entre 1 y 5");
+        assertThat(reglas.nombre(3)).isEqualTo("precio[Producto B] entre 10 20");
+    }
+
+    @Test
+    void unaReglaMalEscritaSeRechazaAlCompilar() {
+        for (String regla : List.of("cantidad ~ 1", "color > 1", "producto > 1", "cantidad en 1 | 2", "precio entre 1",
+                "precio[Producto A] entre 1", "cantidad >", "precio > uno")) {
+            assertThatThrownBy(() -> new ReglasValidacion(List.of(regla)))
+                    .as(regla)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageStartingWith("Regla de validación inválida: '" + regla + "'");
+        }
+    }
+
+    static Venta venta(String producto, int cantidad, long precioCentavos) {
+        Venta venta = new Venta();
+        venta.setId(1L);
+        venta.setProducto(producto);
+        venta.setCantidad(cantidad);
+        venta.setPrecioCentavos(precioCentavos);
+        return venta;
+    }
+}
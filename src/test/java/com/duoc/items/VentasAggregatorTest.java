@@ -0,0 +1,72 @@
+package com.duoc.items;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+
+class VentasAggregatorTest {
+
+    @Test
+    void cadaCommitGuardaLosTotalesConfirmados() {
+        VentasAggregator aggregator = new VentasAggregator();
+        ExecutionContext contexto = new ExecutionContext();
+        aggregator.open(contexto);
+
+        for (int i = 0; i < 40; i++) { // Más productos que la capacidad inicial de los arreglos
+            aggregator.write(new Chunk<>(List.of(ReglasValidacionTest.venta("Producto " + i, 1, 100))));
+        }
+        aggregator.update(contexto);
+        aggregator.write(new Chunk<>(List.of(ReglasValidacionTest.venta("Producto 3", 2, 150))));
+        aggregator.update(contexto);
+
+        assertThat(totales(contexto)).hasSize(40).contains("Producto 3:3:400", "Producto 39:1:100");
+    }
+
+    @Test
+    void unCommitSinCambiosNoModificaElContexto() {
+        VentasAggregator aggregator = new VentasAggregator();
+        ExecutionContext contexto = new ExecutionContext();
+        aggregator.open(contexto);
+        aggregator.write(new Chunk<>(List.of(ReglasValidacionTest.venta("Producto A", 1, 100))));
+        aggregator.update(contexto);
+        contexto.clearDirtyFlag();
+
+        aggregator.update(contexto);
+        assertThat(contexto.isDirty()).isFalse();
+
+        aggregator.write(new Chunk<>(List.of(ReglasValidacionTest.venta("Producto A", 1, 100))));
+        aggregator.update(contexto); // Mismos arreglos, otro contenido: el contexto debe quedar modificado
+        assertThat(contexto.isDirty()).isTrue();
+    }
+
+    @Test
+    void unReintentoContinuaDesdeElUltimoCommit() {
+        VentasAggregator anterior = new VentasAggregator();
+        ExecutionContext contexto = new ExecutionContext();
+        anterior.open(contexto);
+        anterior.write(new Chunk<>(List.of(ReglasValidacionTest.venta("Producto A", 1, 100),
+                ReglasValidacionTest.venta("Producto B", 2, 100))));
+        anterior.update(contexto);
+        anterior.write(new Chunk<>(List.of(ReglasValidacionTest.venta("Producto A", 5, 100)))); // Sin confirmar
+
+        VentasAggregator reintento = new VentasAggregator();
+        reintento.open(contexto);
+        reintento.write(new Chunk<>(List.of(ReglasValidacionTest.venta("Producto C", 1, 50))));
+        reintento.update(contexto);
+
+        assertThat(totales(contexto)).containsExactly("Producto A:1:100", "Producto B:2:200", "Producto C:1:50");
+    }
+
+    // Totales guardados en el contexto, como los combina el informe consolidado
+    private static List<String> totales(ExecutionContext contexto) {
+        VentasAggregator consolidado = new VentasAggregator();
+        consolidado.combinar(contexto);
+        return consolidado.informes().stream()
+                .map(informe -> informe.getProducto() + ":" + informe.getCantidadTotal() + ":" + informe.getTotalCentavos())
+                .toList();
+    }
+}
@@ -0,0 +1,110 @@
+package com.duoc.items;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.Chunk;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.duoc.business.InformeVenta;
+
+class VentasJdbcItemWriterTest {
+
+    private EmbeddedDatabase baseDatos;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transaccion;
+
+    @BeforeEach
+    void crearBase() {
+        baseDatos = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("classpath:schema-all.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(baseDatos);
+        transaccion = new TransactionTemplate(new JdbcTransactionManager(baseDatos));
+    }
+
+    @AfterEach
+    void cerrarBase() {
+        baseDatos.shutdown();
+    }
+
+    @Test
+    void reconsolidarUnaFechaReemplazaSuInforme() {
+        escribir("2024-05-01", 1, List.of(informe("Producto A", 3, 1500), informe("Producto B", 1, 99)));
+        escribir("2024-05-02", 2, List.of(informe("Producto B", 2, 200)));
+
+        escribir("2024-05-01", 3, List.of(informe("Producto A", 4, 2000))); // Producto B ya no aparece ese día
+
+        assertThat(filas("2024-05-01")).containsExactly(Map.of(
+                "PRODUCTO", "Producto A", "CANTIDAD_TOTAL", 4L, "TOTAL_VENTAS", "20.00", "JOB_EXECUTION_ID", 3L));
+        assertThat(filas("2024-05-02")).containsExactly(Map.of( // Las demás fechas no cambian
+                "PRODUCTO", "Producto B", "CANTIDAD_TOTAL", 2L, "TOTAL_VENTAS", "2.00", "JOB_EXECUTION_ID", 2L));
+    }
+
+    @Test
+    void losLotesDeUnaMismaTransaccionSeAcumulan() {
+        VentasJdbcItemWriter writer = writer("2024-05-01", 1);
+        transaccion.executeWithoutResult(estado -> {
+            writer.write(new Chunk<>(List.of(informe("Producto A", 1, 100))));
+            writer.write(new Chunk<>(List.of(informe("Producto B", 2, 200), informe("Producto C", 3, 300))));
+        });
+
+        assertThat(filas("2024-05-01")).extracting(fila -> fila.get("PRODUCTO"))
+                .containsExactly("Producto A", "Producto B", "Producto C");
+    }
+
+    @Test
+    void unaTransaccionConRollbackConservaElInformeAnterior() {
+        escribir("2024-05-01", 1, List.of(informe("Producto A", 3, 1500)));
+
+        VentasJdbcItemWriter writer = writer("2024-05-01", 2);
+        transaccion.executeWithoutResult(estado -> {
+            writer.write(new Chunk<>(List.of(informe("Producto B", 1, 100))));
+            estado.setRollbackOnly();
+        });
+
+        assertThat(filas("2024-05-01")).extracting(fila -> fila.get("PRODUCTO")).containsExactly("Producto A");
+    }
+
+    @Test
+    void exigeUnaTransaccion() {
+        assertThatThrownBy(() -> writer("2024-05-01", 1).write(new Chunk<>(List.of(informe("Producto A", 1, 100)))))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private void escribir(String fecha, long jobExecutionId, List<InformeVenta> informes) {
+        VentasJdbcItemWriter writer = writer(fecha, jobExecutionId);
+        transaccion.executeWithoutResult(estado -> writer.write(new Chunk<>(informes)));
+    }
+
+    private VentasJdbcItemWriter writer(String fecha, long jobExecutionId) {
+        return new VentasJdbcItemWriter(baseDatos, fecha, LocalDateTime.now(), jobExecutionId, 2);
+    }
+
+    private List<Map<String, Object>> filas(String fecha) {
+        return jdbcTemplate.queryForList("SELECT producto, cantidad_total, CAST(total_ventas AS VARCHAR) AS total_ventas, "
+                + "job_execution_id FROM ventas_informe WHERE fecha = CAST(? AS DATE) ORDER BY producto", fecha);
+    }
+
+    private static InformeVenta informe(String producto, long cantidad, long totalCentavos) {
+        InformeVenta informe = new InformeVenta();
+        informe.setProducto(producto);
+        informe.setCantidadTotal(cantidad);
+        informe.setTotalCentavos(totalCentavos);
+        return informe;
+    }
+}
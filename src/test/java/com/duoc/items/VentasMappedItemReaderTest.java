@@ -0,0 +1,138 @@
+package com.duoc.items;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.core.io.FileSystemResource;
+
+import com.duoc.business.Venta;
+
+class VentasMappedItemReaderTest {
+
+    private static final String ENCABEZADO = "id,producto,cantidad,precio\n";
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void lasLineasQueCruzanElFinalDeLaVentanaSeLeenCompletas() throws Exception {
+        StringBuilder contenido = new StringBuilder(ENCABEZADO);
+        for (int i = 1; i <= 200; i++) {
+            contenido.append(i).append(",Producto ").append(i % 7).append(',').append(i % 5 + 1).append(',')
+                    .append(i).append('.').append(i % 100 < 10 ? "0" : "").append(i % 100).append('\n');
+        }
+        FileSystemResource recurso = archivo(contenido.toString());
+
+        List<String> esperadas = leer(new VentasItemReader(recurso, null, null), new ExecutionContext());
+        for (long ventana : new long[] { 28, 37, 64, 1000 }) { // El encabezado mide 28 bytes y las ventas entre 18 y 24
+            assertThat(leer(new VentasMappedItemReader(recurso, null, null, ventana), new ExecutionContext()))
+                    .as("ventana de %d bytes", ventana)
+                    .hasSize(200)
+                    .isEqualTo(esperadas);
+        }
+    }
+
+    @Test
+    void unaLineaMasLargaQueLaVentanaFalla() throws Exception {
+        FileSystemResource recurso = archivo(ENCABEZADO + "1,Producto con un nombre muy largo,1,1.00\n2,B,1,1.00\n");
+        VentasMappedItemReader reader = new VentasMappedItemReader(recurso, null, null, 32);
+        reader.open(new ExecutionContext());
+
+        assertThatThrownBy(reader::read).isInstanceOf(ItemStreamException.class).hasMessageContaining("demasiado larga");
+        reader.close();
+    }
+
+    @Test
+    void cadaParticionLeeSoloSuRango() throws Exception {
+        String primera = "1,Producto A,1,1.00\n2,Producto B,2,2.00\n";
+        FileSystemResource recurso = archivo(ENCABEZADO + primera + "3,Producto A,3,3.00\n");
+        long corte = ENCABEZADO.length() + primera.length();
+
+        List<String> particion0 = leer(new VentasMappedItemReader(recurso, (long) ENCABEZADO.length(), corte, 24),
+                new ExecutionContext());
+        List<String> particion1 = leer(new VentasMappedItemReader(recurso, corte, recurso.contentLength(), 24),
+                new ExecutionContext());
+
+        assertThat(particion0).containsExactly("1|Producto A|1|100|28", "2|Producto B|2|200|48");
+        assertThat(particion1).containsExactly("3|Producto A|3|300|68");
+    }
+
+    @Test
+    void unReinicioContinuaDesdeLaUltimaPosicionGuardada() throws Exception {
+        FileSystemResource recurso = archivo(ENCABEZADO + "1,A,1,1.00\n2,B,1,1.00\n3,C,1,1.00\n");
+        ExecutionContext contexto = new ExecutionContext();
+        VentasMappedItemReader anterior = new VentasMappedItemReader(recurso, null, null, 32);
+        anterior.open(contexto);
+        anterior.read();
+        anterior.update(contexto); // Commit después de la primera venta
+        anterior.read();
+        anterior.close();
+
+        assertThat(leer(new VentasMappedItemReader(recurso, null, null, 32), contexto))
+                .extracting(venta -> venta.substring(0, 1))
+                .containsExactly("2", "3");
+    }
+
+    @Test
+    void lasFormasAtipicasPasanPorElMapeoEstandar() throws Exception {
+        FileSystemResource recurso = archivo(ENCABEZADO
+                + "1,Producto A,2,1.005\n" // Más de dos decimales: HALF_UP como Dinero.parsear
+                + "2,Producto A,2,1.004\r\n"
+                + "3,Producto A,2,-0.125\n"
+                + "4,\"Producto, B\",1,1e2\n"
+                + "5,Producto A,1,\n"
+                + " 6 , Producto A , 3 , 2.5 \n");
+
+        List<String> ventas = leer(new VentasMappedItemReader(recurso, null, null, 1000), new ExecutionContext());
+
+        assertThat(ventas).extracting(venta -> venta.substring(0, venta.lastIndexOf('|')))
+                .containsExactly("1|Producto A|2|101", "2|Producto A|2|100", "3|Producto A|2|-13",
+                        "4|Producto, B|1|10000", "5|Producto A|1|sin precio", "6|Producto A|3|250");
+    }
+
+    @Test
+    void unaLineaInvalidaInformaSuPosicion() throws Exception {
+        FileSystemResource recurso = archivo(ENCABEZADO + "1,Producto A,1,1.00\nx,Producto A,abc,1.00\n");
+        VentasMappedItemReader reader = new VentasMappedItemReader(recurso, null, null, 1000);
+        reader.open(new ExecutionContext());
+        reader.read();
+
+        assertThatThrownBy(reader::read)
+                .isInstanceOfSatisfying(VentaParseException.class, e -> {
+                    assertThat(e.getPosicion()).isEqualTo(48);
+                    assertThat(e.getInput()).isEqualTo("x,Producto A,abc,1.00");
+                });
+        reader.close();
+    }
+
+    private FileSystemResource archivo(String contenido) throws Exception {
+        return new FileSystemResource(Files.writeString(directorio.resolve("ventas.csv"), contenido, StandardCharsets.UTF_8));
+    }
+
+    // Ventas leídas hasta el final como "id|producto|cantidad|centavos|posicion"
+    private static List<String> leer(ItemStreamReader<Venta> reader, ExecutionContext contexto) throws Exception {
+        List<String> ventas = new ArrayList<>();
+        reader.open(contexto);
+        try {
+            Venta venta;
+            while ((venta = reader.read()) != null) {
+                ventas.add(venta.getId() + "|" + venta.getProducto() + "|" + venta.getCantidad() + "|"
+                        + (venta.tienePrecio() ? venta.getPrecioCentavos() : "sin precio") + "|" + venta.getPosicion());
+            }
+        } finally {
+            reader.close();
+        }
+        return ventas;
+    }
+}
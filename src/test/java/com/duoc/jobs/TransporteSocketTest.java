@@ -0,0 +1,56 @@
+package com.duoc.jobs;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.duoc.business.Venta;
+
+class TransporteSocketTest {
+
+    @Test
+    void unTrabajadorQueNoRespondeHaceFallarElChunk() throws Exception {
+        try (ServerSocket servidor = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+             TransporteSocket transporte = new TransporteSocket(
+                     List.of(new InetSocketAddress(servidor.getInetAddress(), servidor.getLocalPort())), 200)) {
+            Thread aceptador = Thread.ofVirtual().start(() -> { // Acepta la conexión y nunca responde
+                try {
+                    Socket colgado = servidor.accept();
+                    try {
+                        Thread.sleep(Long.MAX_VALUE);
+                    } finally {
+                        colgado.close();
+                    }
+                } catch (Exception e) {
+                    // Termina con el servidor
+                }
+            });
+            Venta venta = new Venta();
+            venta.setId(1L);
+            venta.setProducto("Producto A");
+            venta.setCantidad(1);
+            venta.setPrecioCentavos(100);
+
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () ->
+                    assertThatThrownBy(() -> transporte.enviar(List.of(venta)))
+                            .isInstanceOf(SocketTimeoutException.class)
+                            .hasMessageContaining("200 ms"));
+            aceptador.interrupt();
+        }
+    }
+
+    @Test
+    void rechazaUnTiempoMaximoNegativo() {
+        assertThatThrownBy(() -> new TransporteSocket(List.of(new InetSocketAddress("127.0.0.1", 9301)), -1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
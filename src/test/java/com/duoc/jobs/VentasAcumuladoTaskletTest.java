@@ -0,0 +1,86 @@
+package com.duoc.jobs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+class VentasAcumuladoTaskletTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void unOutputReemplazadoConOtroDiaSeSuma() throws Exception {
+        Path output = Files.writeString(directorio.resolve("output.csv"), informe("Producto A,2,3.00"));
+        agregar("2024-10-14", output);
+
+        Files.writeString(output, informe("Producto A,1,1.50", "Producto B,4,8.00")); // El informe del día siguiente
+        agregar("2024-10-15", output);
+
+        assertThat(filas()).containsExactly("Producto A,3,4.50", "Producto B,4,8.00");
+    }
+
+    @Test
+    void dosDiasConLosMismosTotalesSeSumanLosDos() throws Exception {
+        Path output = Files.writeString(directorio.resolve("output.csv"), informe("Producto A,2,3.00"));
+        agregar("2024-10-14", output);
+        agregar("2024-10-15", output);
+
+        assertThat(filas()).containsExactly("Producto A,4,6.00");
+    }
+
+    @Test
+    void elMismoDiaNoSeSumaDosVecesAunqueCambieLaRuta() throws Exception {
+        Path output = Files.writeString(directorio.resolve("output.csv"), informe("Producto A,2,3.00"));
+        agregar("2024-10-14", output);
+        agregar("2024-10-14", output);
+        agregar("2024-10-14", Files.copy(output, directorio.resolve("copia.csv")));
+
+        assertThat(filas()).containsExactly("Producto A,2,3.00");
+    }
+
+    @Test
+    void unDiaQueVuelveConOtroContenidoHaceFallarElJob() throws Exception {
+        Path output = Files.writeString(directorio.resolve("output.csv"), informe("Producto A,2,3.00"));
+        agregar("2024-10-14", output);
+
+        Files.writeString(output, informe("Producto A,5,7.50"));
+
+        assertThatThrownBy(() -> agregar("2024-10-14", output)).isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("2024-10-14");
+        assertThat(filas()).containsExactly("Producto A,2,3.00");
+    }
+
+    @Test
+    void cadaInformeNecesitaSuDia() {
+        assertThatThrownBy(() -> new VentasAcumuladoTasklet("2024-10", "a.csv,b.csv", "2024-10-14",
+                directorio.resolve("acumulados").toString())).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void agregar(String dia, Path archivo) throws Exception {
+        VentasAcumuladoTasklet tasklet = new VentasAcumuladoTasklet("2024-10", archivo.toString(), dia,
+                directorio.resolve("acumulados").toString());
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+        tasklet.execute(new StepContribution(stepExecution), new ChunkContext(new StepContext(stepExecution)));
+    }
+
+    private List<String> filas() throws Exception {
+        List<String> lineas = Files.readAllLines(directorio.resolve("acumulados").resolve("2024-10.csv"));
+        return lineas.subList(lineas.indexOf("Producto,Cantidad Total,Total Ventas") + 1, lineas.size());
+    }
+
+    private static String informe(String... filas) {
+        return "Producto,Cantidad Total,Total Ventas\n" + String.join("\n", filas) + "\n";
+    }
+}